@@ -0,0 +1,171 @@
+package com.codeutils.storage.benchmark;
+
+import com.codeutils.storage.config.StorageProperties;
+import com.codeutils.storage.model.UploadOptions;
+import com.codeutils.storage.service.StorageService;
+import com.codeutils.storage.service.impl.LocalStorageServiceImpl;
+import com.codeutils.storage.service.impl.MemoryStorageServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * 上传吞吐量基准测试
+ * 以内存存储和本地存储作为对象存储的本地替身，覆盖不同对象大小以及字节数组、已知长度流、未知长度流、本地文件四条上传路径；
+ * 每个线程反复覆盖写入自己的对象，存储占用不随迭代次数增长。
+ * 并发数和分配速率由 {@link UploadBenchmarkRunner} 通过线程数参数和GC分析器统计
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class UploadBenchmark {
+    
+    @Param({"memory", "local"})
+    public String backend;
+    
+    @Param({"4096", "1048576", "16777216"})
+    public int objectSize;
+    
+    private StorageService storageService;
+    private Path workDirectory;
+    private byte[] content;
+    private File sourceFile;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        workDirectory = Files.createTempDirectory("codeutils-benchmark");
+        if ("memory".equals(backend)) {
+            StorageProperties.MemoryProperties memoryProperties = new StorageProperties.MemoryProperties();
+            memoryProperties.setMaxSize(2L * 1024 * 1024 * 1024);
+            storageService = new MemoryStorageServiceImpl(memoryProperties);
+        } else {
+            StorageProperties.LocalProperties localProperties = new StorageProperties.LocalProperties();
+            localProperties.setRootPath(workDirectory.resolve("storage").toString());
+            storageService = new LocalStorageServiceImpl(localProperties);
+        }
+        
+        content = new byte[objectSize];
+        new Random(42).nextBytes(content);
+        sourceFile = workDirectory.resolve("source.bin").toFile();
+        Files.write(sourceFile.toPath(), content);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        storageService.shutdown();
+        try (Stream<Path> paths = Files.walk(workDirectory)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+    
+    /**
+     * 每个线程固定的对象名称
+     */
+    @State(Scope.Thread)
+    public static class ThreadState {
+        
+        private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+        
+        private final String objectName = "benchmark/object-" + THREAD_COUNTER.incrementAndGet() + ".bin";
+    }
+    
+    @Benchmark
+    public String uploadBytes(ThreadState state) {
+        return storageService.uploadFile(new BytesMultipartFile(content), state.objectName);
+    }
+    
+    @Benchmark
+    public String uploadStreamKnownLength(ThreadState state) {
+        return storageService.uploadStream(new ByteArrayInputStream(content), content.length,
+            UploadOptions.builder().fileName(state.objectName).build());
+    }
+    
+    @Benchmark
+    public String uploadStreamUnknownLength(ThreadState state) {
+        return storageService.uploadStream(new ByteArrayInputStream(content), StorageService.UNKNOWN_LENGTH,
+            UploadOptions.builder().fileName(state.objectName).build());
+    }
+    
+    @Benchmark
+    public String uploadLocalFile(ThreadState state) {
+        return storageService.uploadFile(sourceFile, state.objectName);
+    }
+    
+    /**
+     * 内存中的上传文件，模拟已缓存在内存中的表单上传
+     */
+    private static final class BytesMultipartFile implements MultipartFile {
+        
+        private final byte[] content;
+        
+        private BytesMultipartFile(byte[] content) {
+            this.content = content;
+        }
+        
+        @Override
+        public String getName() {
+            return "file";
+        }
+        
+        @Override
+        public String getOriginalFilename() {
+            return "object.bin";
+        }
+        
+        @Override
+        public String getContentType() {
+            return "application/octet-stream";
+        }
+        
+        @Override
+        public boolean isEmpty() {
+            return content.length == 0;
+        }
+        
+        @Override
+        public long getSize() {
+            return content.length;
+        }
+        
+        @Override
+        public byte[] getBytes() {
+            return content;
+        }
+        
+        @Override
+        public InputStream getInputStream() {
+            return new ByteArrayInputStream(content);
+        }
+        
+        @Override
+        public void transferTo(File dest) throws IOException {
+            Files.write(dest.toPath(), content);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.codeutils.storage.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 上传基准测试入口
+ * 依次以各线程数运行 {@link UploadBenchmark}，附加GC分析器输出分配速率（gc.alloc.rate.norm为每次上传分配的字节数），
+ * 结果以JSON格式写入 target/benchmark-threads-N.json，便于与基线比较。
+ * <p>
+ * 运行方式：mvn -Pbenchmark test-compile exec:exec [-Dbenchmark.threads=1,4,16] [-Dbenchmark.include=uploadBytes]
+ */
+public class UploadBenchmarkRunner {
+    
+    public static void main(String[] args) throws RunnerException {
+        String include = System.getProperty("benchmark.include", "");
+        for (String threads : System.getProperty("benchmark.threads", "1,4,16").split(",")) {
+            int threadCount = Integer.parseInt(threads.trim());
+            Options options = new OptionsBuilder()
+                .include(UploadBenchmark.class.getSimpleName() + (include.isEmpty() ? "" : "." + include))
+                .threads(threadCount)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("target/benchmark-threads-" + threadCount + ".json")
+                .build();
+            new Runner(options).run();
+        }
+    }
+}
\ No newline at end of file
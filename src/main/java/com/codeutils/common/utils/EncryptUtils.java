@@ -318,7 +318,7 @@ public class EncryptUtils {
      * @param bytes 字节数组
      * @return 十六进制字符串
      */
-    private static String bytesToHex(byte[] bytes) {
+    public static String bytesToHex(byte[] bytes) {
         StringBuilder sb = new StringBuilder();
         for (byte b : bytes) {
             String hex = Integer.toHexString(b & 0xFF);
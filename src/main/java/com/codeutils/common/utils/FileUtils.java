@@ -1,12 +1,15 @@
 package com.codeutils.common.utils;
 
 import java.io.*;
+import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.zip.ZipEntry;
@@ -20,6 +23,8 @@ public class FileUtils {
 
     private static final int BUFFER_SIZE = 4096;
     
+    private static final long TRANSFER_CHUNK_SIZE = 8L * 1024 * 1024;
+    
     /**
      * 创建目录
      * 
@@ -352,6 +357,38 @@ public class FileUtils {
         }
     }
     
+    /**
+     * 写输入流到文件，通过 {@link FileChannel#transferFrom} 传输，写入失败时删除不完整的文件
+     * 
+     * @param inputStream 输入流（不会被关闭）
+     * @param targetPath 目标文件路径
+     * @return 写入的字节数
+     * @throws IOException IO异常
+     */
+    public static long writeStreamToFile(InputStream inputStream, Path targetPath) throws IOException {
+        Path parent = targetPath.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        
+        // 文件输入流直接使用其通道，其他流包装为通道
+        ReadableByteChannel source = inputStream instanceof FileInputStream
+            ? ((FileInputStream) inputStream).getChannel()
+            : Channels.newChannel(inputStream);
+        try (FileChannel target = FileChannel.open(targetPath,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long position = 0;
+            long transferred;
+            while ((transferred = target.transferFrom(source, position, TRANSFER_CHUNK_SIZE)) > 0) {
+                position += transferred;
+            }
+            return position;
+        } catch (IOException e) {
+            Files.deleteIfExists(targetPath);
+            throw e;
+        }
+    }
+    
     /**
      * 压缩文件或目录
      * 
@@ -0,0 +1,162 @@
+package com.codeutils.sms.batch;
+
+import com.codeutils.sms.config.SmsProperties;
+import com.codeutils.sms.model.SmsBatchResult;
+import com.codeutils.sms.model.SmsSendResult;
+import com.codeutils.sms.service.SmsBatchSender;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 批量短信执行器
+ * 将任意数量的手机号按服务商单次请求上限拆分，各分片并发发送，同一批次中同时进行的请求数不超过并发数，
+ * 完成一个再提交下一个；单个分片失败只影响该分片内的手机号
+ */
+public class SmsBatchExecutor {
+    
+    private static final AtomicInteger POOL_COUNTER = new AtomicInteger();
+    
+    private final int concurrency;
+    private final ExecutorService executor;
+    
+    public SmsBatchExecutor(SmsProperties.BatchProperties batchProperties) {
+        this.concurrency = Math.max(batchProperties.getConcurrency(), 1);
+        String prefix = "codeutils-sms-batch-" + POOL_COUNTER.incrementAndGet() + "-";
+        AtomicInteger threadCounter = new AtomicInteger();
+        ThreadPoolExecutor threadPool = new ThreadPoolExecutor(
+            concurrency, concurrency, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+            runnable -> {
+                Thread thread = new Thread(runnable, prefix + threadCounter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        );
+        threadPool.allowCoreThreadTimeOut(true);
+        this.executor = threadPool;
+    }
+    
+    /**
+     * 分片并发发送批量短信
+     * @param sender 批量发送接口
+     * @param phoneNumbers 手机号码列表
+     * @param templateCode 模板代码，为空时使用默认模板
+     * @param params 短信参数
+     * @return 批量发送结果
+     */
+    public SmsBatchResult execute(SmsBatchSender sender, List<String> phoneNumbers, String templateCode,
+                                  Map<String, String> params) {
+        if (phoneNumbers == null || phoneNumbers.isEmpty()) {
+            throw new IllegalArgumentException("手机号码列表不能为空");
+        }
+        int chunkSize = Math.max(sender.getMaxBatchSize(), 1);
+        List<List<String>> chunks = new ArrayList<>();
+        for (int from = 0; from < phoneNumbers.size(); from += chunkSize) {
+            chunks.add(new ArrayList<>(phoneNumbers.subList(from, Math.min(from + chunkSize, phoneNumbers.size()))));
+        }
+        
+        List<List<SmsSendResult>> chunkResults = new ArrayList<>(chunks.size());
+        for (int i = 0; i < chunks.size(); i++) {
+            chunkResults.add(null);
+        }
+        if (chunks.size() == 1) {
+            chunkResults.set(0, sendChunk(sender, chunks.get(0), templateCode, params));
+            return toResult(chunkResults);
+        }
+        
+        CompletionService<Integer> completionService = new ExecutorCompletionService<>(executor);
+        List<Future<Integer>> futures = new ArrayList<>();
+        int submitted = 0;
+        int completed = 0;
+        try {
+            while (submitted < chunks.size() && submitted < concurrency) {
+                futures.add(submit(completionService, sender, chunks, chunkResults, submitted++, templateCode, params));
+            }
+            while (completed < submitted) {
+                completionService.take().get();
+                completed++;
+                if (submitted < chunks.size()) {
+                    futures.add(submit(completionService, sender, chunks, chunkResults, submitted++,
+                        templateCode, params));
+                }
+            }
+            return toResult(chunkResults);
+        } catch (InterruptedException e) {
+            for (Future<Integer> future : futures) {
+                future.cancel(true);
+            }
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("批量发送短信被中断", e);
+        } catch (ExecutionException e) {
+            // sendChunk已将异常转换为失败结果，不会到达这里
+            throw new RuntimeException("批量发送短信失败", e.getCause());
+        }
+    }
+    
+    /**
+     * 关闭执行器
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+    
+    private Future<Integer> submit(CompletionService<Integer> completionService, SmsBatchSender sender,
+                                   List<List<String>> chunks, List<List<SmsSendResult>> chunkResults, int index,
+                                   String templateCode, Map<String, String> params) {
+        return completionService.submit(() -> {
+            List<SmsSendResult> results = sendChunk(sender, chunks.get(index), templateCode, params);
+            synchronized (chunkResults) {
+                chunkResults.set(index, results);
+            }
+            return index;
+        });
+    }
+    
+    private List<SmsSendResult> sendChunk(SmsBatchSender sender, List<String> phoneNumbers, String templateCode,
+                                          Map<String, String> params) {
+        try {
+            return sender.sendBatch(phoneNumbers, templateCode, params);
+        } catch (Exception e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            List<SmsSendResult> results = new ArrayList<>(phoneNumbers.size());
+            for (String phoneNumber : phoneNumbers) {
+                results.add(SmsSendResult.builder()
+                    .phoneNumber(phoneNumber)
+                    .success(false)
+                    .message(cause.getMessage())
+                    .build());
+            }
+            return results;
+        }
+    }
+    
+    private SmsBatchResult toResult(List<List<SmsSendResult>> chunkResults) {
+        List<SmsSendResult> results = new ArrayList<>();
+        int successCount = 0;
+        synchronized (chunkResults) {
+            for (List<SmsSendResult> chunk : chunkResults) {
+                for (SmsSendResult result : chunk) {
+                    results.add(result);
+                    if (result.isSuccess()) {
+                        successCount++;
+                    }
+                }
+            }
+        }
+        return SmsBatchResult.builder()
+            .results(results)
+            .successCount(successCount)
+            .failureCount(results.size() - successCount)
+            .build();
+    }
+} 
\ No newline at end of file
@@ -1,8 +1,12 @@
 package com.codeutils.sms.config;
 
 import com.codeutils.core.config.CodeUtilsProperties;
+import com.codeutils.sms.dispatch.SmsDispatcher;
 import com.codeutils.sms.factory.SmsFactory;
 import com.codeutils.sms.service.SmsService;
+import com.codeutils.sms.verification.InMemoryVerificationCodeStore;
+import com.codeutils.sms.verification.VerificationCodeService;
+import com.codeutils.sms.verification.VerificationCodeStore;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
@@ -21,7 +25,7 @@ public class SmsAutoConfiguration {
         this.codeUtilsProperties = codeUtilsProperties;
     }
     
-    @Bean
+    @Bean(destroyMethod = "shutdown")
     @ConditionalOnMissingBean
     public SmsFactory smsFactory() {
         return new SmsFactory(codeUtilsProperties.getSms());
@@ -32,4 +36,27 @@ public class SmsAutoConfiguration {
     public SmsService smsService(SmsFactory smsFactory) {
         return smsFactory.createSmsService();
     }
+    
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "codeutils.sms.dispatch", name = "enabled", havingValue = "true")
+    public SmsDispatcher smsDispatcher(SmsService smsService) {
+        return new SmsDispatcher(smsService, codeUtilsProperties.getSms().getDispatch());
+    }
+    
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnMissingBean(VerificationCodeStore.class)
+    @ConditionalOnProperty(prefix = "codeutils.sms.verification", name = "enabled", havingValue = "true")
+    public InMemoryVerificationCodeStore verificationCodeStore() {
+        return new InMemoryVerificationCodeStore(codeUtilsProperties.getSms().getVerification());
+    }
+    
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "codeutils.sms.verification", name = "enabled", havingValue = "true")
+    public VerificationCodeService verificationCodeService(SmsService smsService,
+                                                           VerificationCodeStore verificationCodeStore) {
+        return new VerificationCodeService(smsService, verificationCodeStore,
+            codeUtilsProperties.getSms().getVerification());
+    }
 } 
\ No newline at end of file
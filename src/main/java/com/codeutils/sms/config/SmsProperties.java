@@ -3,6 +3,9 @@ package com.codeutils.sms.config;
 import lombok.Data;
 import org.springframework.boot.context.properties.NestedConfigurationProperty;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * 短信服务配置属性
  */
@@ -26,6 +29,36 @@ public class SmsProperties {
     @NestedConfigurationProperty
     private TencentSmsProperties tencent = new TencentSmsProperties();
     
+    /**
+     * 异步分发配置
+     */
+    @NestedConfigurationProperty
+    private DispatchProperties dispatch = new DispatchProperties();
+    
+    /**
+     * 批量发送配置
+     */
+    @NestedConfigurationProperty
+    private BatchProperties batch = new BatchProperties();
+    
+    /**
+     * 发送限流配置
+     */
+    @NestedConfigurationProperty
+    private RateLimitProperties rateLimit = new RateLimitProperties();
+    
+    /**
+     * 多服务商路由配置
+     */
+    @NestedConfigurationProperty
+    private RoutingProperties routing = new RoutingProperties();
+    
+    /**
+     * 短信验证码配置
+     */
+    @NestedConfigurationProperty
+    private VerificationProperties verification = new VerificationProperties();
+    
     /**
      * 阿里云短信配置
      */
@@ -82,4 +115,209 @@ public class SmsProperties {
          */
         private String templateId;
     }
+    
+    /**
+     * 异步分发配置
+     * 短信先进入有界队列，相同模板和参数的短信在数量或等待时间达到阈值时合并为一次批量请求
+     */
+    @Data
+    public static class DispatchProperties {
+        /**
+         * 是否启用异步分发，启用后才创建分发器及其调度和发送线程
+         */
+        private boolean enabled = false;
+        
+        /**
+         * 队列容量，队列满时立即拒绝
+         */
+        private int queueCapacity = 10000;
+        
+        /**
+         * 单次批量请求的手机号数上限，不超过服务商的限制
+         */
+        private int maxBatchSize = 100;
+        
+        /**
+         * 短信在队列中等待合并的最长时间（毫秒）
+         */
+        private long maxDelayMillis = 20;
+        
+        /**
+         * 同时进行的批量请求数
+         */
+        private int senderConcurrency = 4;
+    }
+    
+    /**
+     * 批量发送配置
+     */
+    @Data
+    public static class BatchProperties {
+        /**
+         * 批量发送时同时进行的分片请求数
+         */
+        private int concurrency = 4;
+    }
+    
+    /**
+     * 发送限流配置
+     * 全局和模板按请求计数，手机号按条计数；令牌数为0的层级不限流
+     */
+    @Data
+    public static class RateLimitProperties {
+        /**
+         * 是否启用限流
+         */
+        private boolean enabled = false;
+        
+        /**
+         * 令牌不足时的最长等待时间（毫秒），超过则直接拒绝
+         */
+        private long maxWaitMillis = 200;
+        
+        /**
+         * 全局限流，默认每秒100次请求
+         */
+        @NestedConfigurationProperty
+        private BucketProperties global = new BucketProperties(100, 1000);
+        
+        /**
+         * 单个模板限流，默认不限
+         */
+        @NestedConfigurationProperty
+        private BucketProperties template = new BucketProperties(0, 1000);
+        
+        /**
+         * 单个手机号限流，默认每分钟1条
+         */
+        @NestedConfigurationProperty
+        private BucketProperties phone = new BucketProperties(1, 60000);
+    }
+    
+    /**
+     * 令牌桶配置，每个周期补充permits个令牌，桶容量同为permits
+     */
+    @Data
+    public static class BucketProperties {
+        /**
+         * 每个周期的令牌数，为0时不限流
+         */
+        private int permits;
+        
+        /**
+         * 周期（毫秒）
+         */
+        private long periodMillis = 1000;
+        
+        public BucketProperties() {
+        }
+        
+        public BucketProperties(int permits, long periodMillis) {
+            this.permits = permits;
+            this.periodMillis = periodMillis;
+        }
+    }
+    
+    /**
+     * 多服务商路由配置
+     * 启用后同时创建多个服务商的客户端，按权重分摊流量，失败率或P99耗时超过阈值的服务商暂时摘除
+     */
+    @Data
+    public static class RoutingProperties {
+        /**
+         * 是否启用多服务商路由，启用后忽略type配置
+         */
+        private boolean enabled = false;
+        
+        /**
+         * 服务商 -> 权重，为空时阿里云和腾讯云权重均为1；权重为0的服务商只在其他服务商失败时使用
+         */
+        private Map<String, Integer> weights = new LinkedHashMap<>();
+        
+        /**
+         * 模板代码 -> (服务商 -> 该服务商的模板代码)，用于同一模板在各服务商代码不同的情况
+         */
+        private Map<String, Map<String, String>> templates = new LinkedHashMap<>();
+        
+        /**
+         * 滚动统计窗口大小（请求数）
+         */
+        private int windowSize = 100;
+        
+        /**
+         * 判断健康状况所需的最少请求数
+         */
+        private int minimumCalls = 20;
+        
+        /**
+         * 失败率阈值，0到1之间
+         */
+        private double errorRateThreshold = 0.5;
+        
+        /**
+         * P99耗时阈值（毫秒），为0时不按耗时摘除
+         */
+        private long p99ThresholdMillis = 3000;
+        
+        /**
+         * 摘除后的冷却时间（毫秒）
+         */
+        private long cooldownMillis = 30000;
+    }
+    
+    /**
+     * 短信验证码配置
+     */
+    @Data
+    public static class VerificationProperties {
+        /**
+         * 是否启用短信验证码，启用后才创建验证码服务及内存存储的过期清理线程
+         */
+        private boolean enabled = false;
+        
+        /**
+         * 验证码短信模板代码，为空时使用服务商配置的默认模板
+         */
+        private String templateCode;
+        
+        /**
+         * 模板中验证码参数的名称
+         */
+        private String codeParamName = "code";
+        
+        /**
+         * 验证码位数
+         */
+        private int codeLength = 6;
+        
+        /**
+         * 验证码有效期（秒）
+         */
+        private long ttlSeconds = 300;
+        
+        /**
+         * 同一手机号两次发送的最短间隔（秒）
+         */
+        private long cooldownSeconds = 60;
+        
+        /**
+         * 最大错误次数，达到后验证码失效
+         */
+        private int maxAttempts = 5;
+        
+        /**
+         * 内存存储的分片数，取不小于该值的2的幂
+         */
+        private int shards = 64;
+        
+        /**
+         * 内存存储时间轮的槽位数，取不小于该值的2的幂
+         */
+        private int wheelSize = 512;
+        
+        /**
+         * 内存存储时间轮的刻度（毫秒）
+         */
+        private long tickMillis = 1000;
+    }
 } 
\ No newline at end of file
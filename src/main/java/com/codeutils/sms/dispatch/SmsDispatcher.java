@@ -0,0 +1,328 @@
+package com.codeutils.sms.dispatch;
+
+import com.codeutils.sms.config.SmsProperties;
+import com.codeutils.sms.model.SmsSendResult;
+import com.codeutils.sms.service.SmsBatchSender;
+import com.codeutils.sms.service.SmsService;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 短信异步分发器
+ * 短信进入有界队列后立即返回，队列满时立即拒绝而不阻塞调用线程；分发线程把模板和参数相同的短信合并，
+ * 数量达到批量上限或最早一条等待超过最长延迟时，以一次批量请求发送（阿里云SendBatchSms、腾讯云PhoneNumberSet）。
+ * 同时进行的批量请求数有上限，发送线程用尽时分发线程等待，队列随之积压直至拒绝新短信。
+ * 短信服务不支持批量接口时逐条发送
+ */
+public class SmsDispatcher {
+    
+    /**
+     * 关闭时等待发送中请求完成的最长时间（秒）
+     */
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+    
+    private final SmsService smsService;
+    private final SmsBatchSender batchSender;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final BlockingQueue<PendingMessage> queue;
+    private final ExecutorService senderExecutor;
+    private final Semaphore senderPermits;
+    private final Thread dispatchThread;
+    private volatile boolean closed;
+    
+    private final LongAdder submittedCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder batchCount = new LongAdder();
+    
+    public SmsDispatcher(SmsService smsService, SmsProperties.DispatchProperties dispatchProperties) {
+        this.smsService = smsService;
+        this.batchSender = smsService instanceof SmsBatchSender ? (SmsBatchSender) smsService : null;
+        int batchSize = Math.max(dispatchProperties.getMaxBatchSize(), 1);
+        this.maxBatchSize = batchSender == null ? batchSize : Math.min(batchSize, batchSender.getMaxBatchSize());
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(dispatchProperties.getMaxDelayMillis(), 0));
+        this.queue = new ArrayBlockingQueue<>(Math.max(dispatchProperties.getQueueCapacity(), 1));
+        
+        int senderConcurrency = Math.max(dispatchProperties.getSenderConcurrency(), 1);
+        this.senderPermits = new Semaphore(senderConcurrency);
+        this.senderExecutor = new ThreadPoolExecutor(
+            senderConcurrency, senderConcurrency, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+            threadFactory("sms-sender-")
+        );
+        ((ThreadPoolExecutor) senderExecutor).allowCoreThreadTimeOut(true);
+        
+        this.dispatchThread = threadFactory("sms-dispatcher-").newThread(this::dispatchLoop);
+        this.dispatchThread.start();
+    }
+    
+    /**
+     * 提交短信（默认模板）
+     * @param phoneNumber 手机号码
+     * @param params 短信参数
+     * @return 发送结果，队列已满或分发器已关闭时以 {@link RejectedExecutionException} 异常完成
+     */
+    public CompletableFuture<SmsSendResult> submit(String phoneNumber, Map<String, String> params) {
+        return submit(phoneNumber, null, params);
+    }
+    
+    /**
+     * 提交短信
+     * @param phoneNumber 手机号码
+     * @param templateCode 模板代码，为空时使用默认模板
+     * @param params 短信参数
+     * @return 发送结果，队列已满或分发器已关闭时以 {@link RejectedExecutionException} 异常完成
+     */
+    public CompletableFuture<SmsSendResult> submit(String phoneNumber, String templateCode,
+                                                   Map<String, String> params) {
+        CompletableFuture<SmsSendResult> future = new CompletableFuture<>();
+        if (closed) {
+            rejectedCount.increment();
+            future.completeExceptionally(new RejectedExecutionException("短信分发器已关闭"));
+            return future;
+        }
+        if (queue.offer(new PendingMessage(phoneNumber, new BatchKey(templateCode, params), future))) {
+            submittedCount.increment();
+        } else {
+            rejectedCount.increment();
+            future.completeExceptionally(new RejectedExecutionException("短信发送队列已满"));
+        }
+        return future;
+    }
+    
+    /**
+     * 获取队列中等待合并的短信数
+     * @return 队列长度
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+    
+    /**
+     * 获取已接受的短信数
+     * @return 已接受短信数
+     */
+    public long getSubmittedCount() {
+        return submittedCount.sum();
+    }
+    
+    /**
+     * 获取被拒绝的短信数
+     * @return 拒绝短信数
+     */
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+    
+    /**
+     * 获取已发出的批量请求数
+     * @return 批量请求数
+     */
+    public long getBatchCount() {
+        return batchCount.sum();
+    }
+    
+    /**
+     * 关闭分发器，停止接受新短信，发送队列中已有的短信并等待发送完成
+     */
+    public void shutdown() {
+        closed = true;
+        try {
+            dispatchThread.join();
+            senderExecutor.shutdown();
+            senderExecutor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // 关闭过程中仍可能有短信在分发线程退出后入队
+        PendingMessage message;
+        while ((message = queue.poll()) != null) {
+            message.future.completeExceptionally(new RejectedExecutionException("短信分发器已关闭"));
+        }
+    }
+    
+    /**
+     * 分发线程：按模板和参数归组，组满或最早一条到期时发送
+     * 归组按创建顺序保存，第一组即为最早到期的一组
+     */
+    private void dispatchLoop() {
+        Map<BatchKey, List<PendingMessage>> batches = new LinkedHashMap<>();
+        Map<BatchKey, Long> deadlines = new LinkedHashMap<>();
+        List<PendingMessage> drained = new ArrayList<>();
+        try {
+            while (!closed || !queue.isEmpty()) {
+                long timeout = deadlines.isEmpty()
+                    ? maxDelayNanos
+                    : Math.max(deadlines.values().iterator().next() - System.nanoTime(), 0);
+                PendingMessage first = queue.poll(Math.max(timeout, 1), TimeUnit.NANOSECONDS);
+                if (first != null) {
+                    drained.add(first);
+                    queue.drainTo(drained);
+                    for (PendingMessage message : drained) {
+                        List<PendingMessage> batch = batches.computeIfAbsent(message.key, key -> {
+                            deadlines.put(key, System.nanoTime() + maxDelayNanos);
+                            return new ArrayList<>();
+                        });
+                        batch.add(message);
+                        if (batch.size() >= maxBatchSize) {
+                            batches.remove(message.key);
+                            deadlines.remove(message.key);
+                            flush(message.key, batch);
+                        }
+                    }
+                    drained.clear();
+                }
+                
+                long now = System.nanoTime();
+                Iterator<Map.Entry<BatchKey, Long>> iterator = deadlines.entrySet().iterator();
+                while (iterator.hasNext()) {
+                    Map.Entry<BatchKey, Long> entry = iterator.next();
+                    if (entry.getValue() - now > 0) {
+                        break;
+                    }
+                    iterator.remove();
+                    flush(entry.getKey(), batches.remove(entry.getKey()));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (PendingMessage message : drained) {
+            batches.computeIfAbsent(message.key, key -> new ArrayList<>()).add(message);
+        }
+        for (Map.Entry<BatchKey, List<PendingMessage>> entry : batches.entrySet()) {
+            flush(entry.getKey(), entry.getValue());
+        }
+    }
+    
+    /**
+     * 提交一次批量发送，发送线程用尽时等待
+     */
+    private void flush(BatchKey key, List<PendingMessage> batch) {
+        senderPermits.acquireUninterruptibly();
+        batchCount.increment();
+        try {
+            senderExecutor.execute(() -> {
+                try {
+                    send(key, batch);
+                } finally {
+                    senderPermits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            senderPermits.release();
+            for (PendingMessage message : batch) {
+                message.future.completeExceptionally(e);
+            }
+        }
+    }
+    
+    private void send(BatchKey key, List<PendingMessage> batch) {
+        if (batchSender == null) {
+            for (PendingMessage message : batch) {
+                try {
+                    boolean success = smsService.sendSms(message.phoneNumber, key.templateCode, key.params);
+                    message.future.complete(SmsSendResult.builder()
+                        .phoneNumber(message.phoneNumber)
+                        .success(success)
+                        .build());
+                } catch (Throwable e) {
+                    message.future.completeExceptionally(e);
+                }
+            }
+            return;
+        }
+        
+        List<String> phoneNumbers = new ArrayList<>(batch.size());
+        for (PendingMessage message : batch) {
+            phoneNumbers.add(message.phoneNumber);
+        }
+        try {
+            List<SmsSendResult> results = batchSender.sendBatch(phoneNumbers, key.templateCode, key.params);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future.complete(results.get(i));
+            }
+        } catch (Throwable e) {
+            for (PendingMessage message : batch) {
+                message.future.completeExceptionally(e);
+            }
+        }
+    }
+    
+    private static ThreadFactory threadFactory(String namePrefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+    
+    /**
+     * 等待发送的短信
+     */
+    private static final class PendingMessage {
+        private final String phoneNumber;
+        private final BatchKey key;
+        private final CompletableFuture<SmsSendResult> future;
+        
+        private PendingMessage(String phoneNumber, BatchKey key, CompletableFuture<SmsSendResult> future) {
+            this.phoneNumber = phoneNumber;
+            this.key = key;
+            this.future = future;
+        }
+    }
+    
+    /**
+     * 合并键：模板和参数均相同的短信才能合并，参数顺序影响腾讯云的模板参数数组，因此按顺序比较
+     */
+    private static final class BatchKey {
+        private final String templateCode;
+        private final Map<String, String> params;
+        private final List<Map.Entry<String, String>> entries;
+        
+        private BatchKey(String templateCode, Map<String, String> params) {
+            this.templateCode = templateCode;
+            this.params = params == null ? Collections.emptyMap() : new LinkedHashMap<>(params);
+            this.entries = new ArrayList<>(this.params.size());
+            for (Map.Entry<String, String> entry : this.params.entrySet()) {
+                entries.add(new AbstractMap.SimpleImmutableEntry<>(entry));
+            }
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof BatchKey)) {
+                return false;
+            }
+            BatchKey other = (BatchKey) o;
+            return Objects.equals(templateCode, other.templateCode) && entries.equals(other.entries);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(templateCode, entries);
+        }
+    }
+} 
\ No newline at end of file
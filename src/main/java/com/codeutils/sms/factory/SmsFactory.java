@@ -1,35 +1,83 @@
 package com.codeutils.sms.factory;
 
+import com.codeutils.sms.batch.SmsBatchExecutor;
 import com.codeutils.sms.config.SmsProperties;
+import com.codeutils.sms.ratelimit.SmsRateLimiter;
 import com.codeutils.sms.service.SmsService;
 import com.codeutils.sms.service.impl.AliyunSmsServiceImpl;
+import com.codeutils.sms.service.impl.RateLimitedSmsServiceImpl;
+import com.codeutils.sms.service.impl.RoutingSmsServiceImpl;
 import com.codeutils.sms.service.impl.TencentSmsServiceImpl;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * 短信服务工厂类
  */
 public class SmsFactory {
     
     private final SmsProperties smsProperties;
+    private final SmsBatchExecutor batchExecutor;
     
     public SmsFactory(SmsProperties smsProperties) {
         this.smsProperties = smsProperties;
+        this.batchExecutor = new SmsBatchExecutor(smsProperties.getBatch());
     }
     
     /**
-     * 创建短信服务实例
+     * 创建短信服务实例，按配置启用多服务商路由并附加限流
      * @return 短信服务实现
      */
     public SmsService createSmsService() {
-        String type = smsProperties.getType();
-        
+        SmsService smsService = smsProperties.getRouting().isEnabled()
+            ? createRoutingSmsService()
+            : createSmsService(smsProperties.getType());
+        if (smsProperties.getRateLimit().isEnabled()) {
+            smsService = new RateLimitedSmsServiceImpl(smsService,
+                new SmsRateLimiter(smsProperties.getRateLimit()), batchExecutor);
+        }
+        return smsService;
+    }
+    
+    /**
+     * 创建指定服务商的短信服务实例
+     * @param type 短信类型
+     * @return 短信服务实现
+     */
+    public SmsService createSmsService(String type) {
         switch (type.toLowerCase()) {
             case "aliyun":
-                return new AliyunSmsServiceImpl(smsProperties.getAliyun());
+                return new AliyunSmsServiceImpl(smsProperties.getAliyun(), batchExecutor);
             case "tencent":
-                return new TencentSmsServiceImpl(smsProperties.getTencent());
+                return new TencentSmsServiceImpl(smsProperties.getTencent(), batchExecutor);
             default:
                 throw new IllegalArgumentException("不支持的短信服务类型: " + type);
         }
     }
+    
+    /**
+     * 创建多服务商路由，路由配置未指定服务商时使用阿里云和腾讯云
+     * @return 路由短信服务
+     */
+    private SmsService createRoutingSmsService() {
+        SmsProperties.RoutingProperties routing = smsProperties.getRouting();
+        Collection<String> types = routing.getWeights().isEmpty()
+            ? Arrays.asList("aliyun", "tencent")
+            : routing.getWeights().keySet();
+        Map<String, SmsService> providers = new LinkedHashMap<>();
+        for (String type : types) {
+            providers.put(type, createSmsService(type));
+        }
+        return new RoutingSmsServiceImpl(providers, routing, batchExecutor);
+    }
+    
+    /**
+     * 关闭工厂创建的短信服务共用的批量执行器
+     */
+    public void shutdown() {
+        batchExecutor.shutdown();
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.codeutils.sms.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 批量短信发送结果
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SmsBatchResult {
+    
+    /**
+     * 各手机号的发送结果，顺序与传入顺序一致
+     */
+    private List<SmsSendResult> results;
+    
+    /**
+     * 发送成功的手机号数
+     */
+    private int successCount;
+    
+    /**
+     * 发送失败的手机号数
+     */
+    private int failureCount;
+    
+    /**
+     * 是否全部发送成功
+     * @return 全部成功返回true
+     */
+    public boolean isAllSuccess() {
+        return failureCount == 0;
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.codeutils.sms.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 单个手机号的短信发送结果
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SmsSendResult {
+    
+    /**
+     * 手机号码，与调用方传入的格式一致
+     */
+    private String phoneNumber;
+    
+    /**
+     * 是否提交成功
+     */
+    private boolean success;
+    
+    /**
+     * 服务商返回的状态码
+     */
+    private String code;
+    
+    /**
+     * 服务商返回的状态描述
+     */
+    private String message;
+    
+    /**
+     * 发送流水号，用于查询发送状态
+     */
+    private String bizId;
+} 
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.codeutils.sms.ratelimit;
+
+/**
+ * 超出短信发送频率限制时快速失败抛出的异常
+ */
+public class SmsRateLimitException extends RuntimeException {
+    
+    public SmsRateLimitException(String message) {
+        super(message);
+    }
+} 
\ No newline at end of file
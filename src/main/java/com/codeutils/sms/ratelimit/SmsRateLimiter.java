@@ -0,0 +1,151 @@
+package com.codeutils.sms.ratelimit;
+
+import com.codeutils.sms.config.SmsProperties;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 短信发送限流器
+ * 按全局、模板、手机号三级令牌桶限流：全局和模板按请求计数，对应服务商的QPS限制；
+ * 手机号按条计数，对应服务商的单号码频率限制。令牌不足时在最长等待时间内等待，否则抛出 {@link SmsRateLimitException}；
+ * 因其他层级拒绝而未发送时，已预约的令牌应归还，避免被拒绝的请求消耗手机号的发送配额。
+ * 模板和手机号的令牌桶按需创建，数量较多时定期清理已满（长时间未使用）的令牌桶
+ */
+public class SmsRateLimiter {
+    
+    /**
+     * 令牌桶数量超过该值时触发清理
+     */
+    private static final int SWEEP_THRESHOLD = 10000;
+    
+    /**
+     * 两次清理的最短间隔
+     */
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    
+    private final long maxWaitNanos;
+    private final TokenBucket globalBucket;
+    private final SmsProperties.BucketProperties templateProperties;
+    private final SmsProperties.BucketProperties phoneProperties;
+    private final Map<String, TokenBucket> templateBuckets = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> phoneBuckets = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweepNanos = new AtomicLong(System.nanoTime());
+    
+    public SmsRateLimiter(SmsProperties.RateLimitProperties properties) {
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(properties.getMaxWaitMillis(), 0));
+        this.globalBucket = isEnabled(properties.getGlobal()) ? newBucket(properties.getGlobal()) : null;
+        this.templateProperties = properties.getTemplate();
+        this.phoneProperties = properties.getPhone();
+    }
+    
+    /**
+     * 为一个手机号获取令牌
+     * @param phoneNumber 手机号码
+     * @return 发送前需要等待的纳秒数
+     * @throws SmsRateLimitException 等待时间超过上限
+     */
+    public long acquirePhone(String phoneNumber) {
+        if (!isEnabled(phoneProperties)) {
+            return 0;
+        }
+        return reserve(bucket(phoneBuckets, phoneNumber, phoneProperties), "手机号" + phoneNumber + "发送过于频繁");
+    }
+    
+    /**
+     * 归还手机号的令牌
+     * @param phoneNumber 手机号码
+     */
+    public void releasePhone(String phoneNumber) {
+        if (!isEnabled(phoneProperties)) {
+            return;
+        }
+        TokenBucket bucket = phoneBuckets.get(phoneNumber);
+        if (bucket != null) {
+            bucket.cancel();
+        }
+    }
+    
+    /**
+     * 为一次发送请求获取全局和模板令牌，全局令牌不足时归还已获取的模板令牌
+     * @param templateCode 模板代码，为空时按默认模板计数
+     * @return 发送前需要等待的纳秒数
+     * @throws SmsRateLimitException 等待时间超过上限
+     */
+    public long acquireRequest(String templateCode) {
+        long waitNanos = 0;
+        TokenBucket templateBucket = null;
+        if (isEnabled(templateProperties)) {
+            String key = templateCode == null ? "" : templateCode;
+            templateBucket = bucket(templateBuckets, key, templateProperties);
+            waitNanos = reserve(templateBucket, "模板" + key + "发送过于频繁");
+        }
+        if (globalBucket != null) {
+            try {
+                waitNanos = Math.max(waitNanos, reserve(globalBucket, "短信发送请求过于频繁"));
+            } catch (SmsRateLimitException e) {
+                if (templateBucket != null) {
+                    templateBucket.cancel();
+                }
+                throw e;
+            }
+        }
+        return waitNanos;
+    }
+    
+    /**
+     * 等待令牌到期
+     * @param waitNanos 等待纳秒数
+     */
+    public void await(long waitNanos) {
+        if (waitNanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SmsRateLimitException("等待短信发送配额时被中断");
+        }
+    }
+    
+    private long reserve(TokenBucket bucket, String message) {
+        long waitNanos = bucket.reserve(maxWaitNanos);
+        if (waitNanos < 0) {
+            throw new SmsRateLimitException(message);
+        }
+        return waitNanos;
+    }
+    
+    private TokenBucket bucket(Map<String, TokenBucket> buckets, String key,
+                               SmsProperties.BucketProperties properties) {
+        TokenBucket bucket = buckets.computeIfAbsent(key, k -> newBucket(properties));
+        if (buckets.size() > SWEEP_THRESHOLD) {
+            sweep();
+        }
+        return bucket;
+    }
+    
+    /**
+     * 清理已满的令牌桶，满桶与新建的桶等价，删除后不影响限流结果
+     */
+    private void sweep() {
+        long now = System.nanoTime();
+        long last = lastSweepNanos.get();
+        if (now - last < SWEEP_INTERVAL_NANOS || !lastSweepNanos.compareAndSet(last, now)) {
+            return;
+        }
+        templateBuckets.values().removeIf(TokenBucket::isFull);
+        phoneBuckets.values().removeIf(TokenBucket::isFull);
+    }
+    
+    private static boolean isEnabled(SmsProperties.BucketProperties properties) {
+        return properties != null && properties.getPermits() > 0 && properties.getPeriodMillis() > 0;
+    }
+    
+    private static TokenBucket newBucket(SmsProperties.BucketProperties properties) {
+        return new TokenBucket(properties.getPermits(), properties.getPeriodMillis());
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,68 @@
+package com.codeutils.sms.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 无锁令牌桶
+ * 只保存一个时间戳：已发放令牌全部补回的时刻。补充速率为每 period 补充 permits 个，容量为 permits，
+ * 可用令牌数 = (当前时刻 - 时间戳) / 补充间隔，最多为容量；取令牌即把时间戳后移一个补充间隔，
+ * 通过CAS更新，无需加锁。时间戳超过当前时刻时表示需要等待，等待时间不超过上限时预约成功
+ */
+public class TokenBucket {
+    
+    private final long intervalNanos;
+    private final long capacityNanos;
+    private final AtomicLong drainedUntil;
+    
+    /**
+     * @param permits 每个周期的令牌数，同时也是桶容量
+     * @param periodMillis 周期（毫秒）
+     */
+    public TokenBucket(int permits, long periodMillis) {
+        if (permits <= 0 || periodMillis <= 0) {
+            throw new IllegalArgumentException("令牌数和周期必须大于0");
+        }
+        this.intervalNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(periodMillis) / permits, 1);
+        this.capacityNanos = intervalNanos * permits;
+        // 初始为满桶
+        this.drainedUntil = new AtomicLong(System.nanoTime() - capacityNanos);
+    }
+    
+    /**
+     * 预约一个令牌
+     * @param maxWaitNanos 可接受的最长等待时间（纳秒），为0时只在有可用令牌时成功
+     * @return 成功时返回需要等待的纳秒数（可能为0），等待超过上限时返回-1且不占用令牌
+     */
+    public long reserve(long maxWaitNanos) {
+        while (true) {
+            long now = System.nanoTime();
+            long current = drainedUntil.get();
+            long start = Math.max(current, now - capacityNanos);
+            long next = start + intervalNanos;
+            long waitNanos = Math.max(next - now, 0);
+            if (waitNanos > maxWaitNanos) {
+                return -1;
+            }
+            if (drainedUntil.compareAndSet(current, next)) {
+                return waitNanos;
+            }
+        }
+    }
+    
+    /**
+     * 归还一个已预约的令牌，用于预约后因其他限流层级拒绝而未发送的情况
+     * 时间戳前移一个补充间隔；桶在此期间已补满时前移不影响结果，可用令牌数仍以容量为上限
+     */
+    public void cancel() {
+        drainedUntil.addAndGet(-intervalNanos);
+    }
+    
+    /**
+     * 桶是否已满，满桶与新建的桶等价，可以丢弃
+     * @return 已满返回true
+     */
+    public boolean isFull() {
+        return drainedUntil.get() <= System.nanoTime() - capacityNanos;
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,150 @@
+package com.codeutils.sms.routing;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 短信服务商的滚动统计
+ * 记录最近若干次请求的成败和耗时，窗口内请求数达到最小值且失败率或P99耗时超过阈值时摘除该服务商，
+ * 摘除期间路由不再优先选择它；经过冷却时间后以空窗口重新参与路由。
+ * P99耗时每记录窗口大小的1/16次请求重新排序计算一次，其余时间使用缓存值，避免每次发送都在锁内排序整个窗口
+ */
+public class ProviderStats {
+    
+    private final String name;
+    private final int minimumCalls;
+    private final double errorRateThreshold;
+    private final long p99ThresholdNanos;
+    private final long cooldownNanos;
+    private final int refreshInterval;
+    
+    private final boolean[] failures;
+    private final long[] latencies;
+    private int windowIndex;
+    private int windowCount;
+    private int windowFailures;
+    
+    private long cachedP99Nanos = -1;
+    private int recordsSinceRefresh;
+    
+    private boolean ejected;
+    private long ejectedAt;
+    private long ejectionCount;
+    
+    /**
+     * @param name 服务商名称
+     * @param windowSize 滚动窗口大小（请求数）
+     * @param minimumCalls 判断健康状况所需的最少请求数
+     * @param errorRateThreshold 失败率阈值，0到1之间
+     * @param p99ThresholdMillis P99耗时阈值（毫秒），为0时不按耗时摘除
+     * @param cooldownMillis 摘除后的冷却时间（毫秒）
+     */
+    public ProviderStats(String name, int windowSize, int minimumCalls, double errorRateThreshold,
+                         long p99ThresholdMillis, long cooldownMillis) {
+        this.name = name;
+        this.failures = new boolean[Math.max(windowSize, 1)];
+        this.latencies = new long[failures.length];
+        this.refreshInterval = Math.max(failures.length / 16, 1);
+        this.minimumCalls = Math.min(Math.max(minimumCalls, 1), failures.length);
+        this.errorRateThreshold = errorRateThreshold;
+        this.p99ThresholdNanos = TimeUnit.MILLISECONDS.toNanos(p99ThresholdMillis);
+        this.cooldownNanos = TimeUnit.MILLISECONDS.toNanos(cooldownMillis);
+    }
+    
+    /**
+     * 记录一次请求
+     * @param success 是否成功
+     * @param latencyNanos 耗时（纳秒）
+     */
+    public synchronized void record(boolean success, long latencyNanos) {
+        if (ejected) {
+            return;
+        }
+        if (windowCount == failures.length) {
+            if (failures[windowIndex]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+        failures[windowIndex] = !success;
+        latencies[windowIndex] = latencyNanos;
+        if (!success) {
+            windowFailures++;
+        }
+        windowIndex = (windowIndex + 1) % failures.length;
+        recordsSinceRefresh++;
+        
+        if (windowCount >= minimumCalls
+            && (errorRate() >= errorRateThreshold || (p99ThresholdNanos > 0 && p99Nanos() >= p99ThresholdNanos))) {
+            ejected = true;
+            ejectedAt = System.nanoTime();
+            ejectionCount++;
+        }
+    }
+    
+    /**
+     * 是否可以正常参与路由
+     * @return 未被摘除或已过冷却时间返回true
+     */
+    public synchronized boolean isAvailable() {
+        if (ejected && System.nanoTime() - ejectedAt >= cooldownNanos) {
+            ejected = false;
+            windowIndex = 0;
+            windowCount = 0;
+            windowFailures = 0;
+            cachedP99Nanos = -1;
+            recordsSinceRefresh = 0;
+        }
+        return !ejected;
+    }
+    
+    /**
+     * 获取服务商名称
+     * @return 服务商名称
+     */
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * 获取窗口内的失败率
+     * @return 失败率，窗口为空时为0
+     */
+    public synchronized double getErrorRate() {
+        return errorRate();
+    }
+    
+    /**
+     * 获取窗口内的P99耗时
+     * @return P99耗时（毫秒），窗口为空时为0
+     */
+    public synchronized long getP99Millis() {
+        return TimeUnit.NANOSECONDS.toMillis(p99Nanos());
+    }
+    
+    /**
+     * 获取累计摘除次数
+     * @return 摘除次数
+     */
+    public synchronized long getEjectionCount() {
+        return ejectionCount;
+    }
+    
+    private double errorRate() {
+        return windowCount == 0 ? 0 : (double) windowFailures / windowCount;
+    }
+    
+    private long p99Nanos() {
+        if (windowCount == 0) {
+            return 0;
+        }
+        if (cachedP99Nanos < 0 || recordsSinceRefresh >= refreshInterval) {
+            long[] sorted = Arrays.copyOf(latencies, windowCount);
+            Arrays.sort(sorted);
+            cachedP99Nanos = sorted[(int) Math.ceil(windowCount * 0.99) - 1];
+            recordsSinceRefresh = 0;
+        }
+        return cachedP99Nanos;
+    }
+} 
\ No newline at end of file
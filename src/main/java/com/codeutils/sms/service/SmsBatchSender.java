@@ -0,0 +1,28 @@
+package com.codeutils.sms.service;
+
+import com.codeutils.sms.model.SmsSendResult;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 单次请求批量发送短信，返回每个手机号的发送结果
+ * 由支持批量接口的短信服务实现，一次请求的手机号数不超过 {@link #getMaxBatchSize()}
+ */
+public interface SmsBatchSender {
+    
+    /**
+     * 获取单次请求的手机号数上限
+     * @return 手机号数上限
+     */
+    int getMaxBatchSize();
+    
+    /**
+     * 以一次请求向多个手机号发送相同模板和参数的短信
+     * @param phoneNumbers 手机号码列表，数量不超过 {@link #getMaxBatchSize()}
+     * @param templateCode 模板代码，为空时使用默认模板
+     * @param params 短信参数
+     * @return 各手机号的发送结果，顺序与传入顺序一致
+     */
+    List<SmsSendResult> sendBatch(List<String> phoneNumbers, String templateCode, Map<String, String> params);
+} 
\ No newline at end of file
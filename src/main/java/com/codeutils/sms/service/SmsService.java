@@ -1,5 +1,10 @@
 package com.codeutils.sms.service;
 
+import com.codeutils.sms.model.SmsBatchResult;
+import com.codeutils.sms.model.SmsSendResult;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -29,7 +34,7 @@ public interface SmsService {
      * 批量发送短信
      * @param phoneNumbers 手机号码列表
      * @param params 短信参数
-     * @return 是否发送成功
+     * @return 是否全部发送成功
      */
     boolean batchSendSms(List<String> phoneNumbers, Map<String, String> params);
     
@@ -38,7 +43,53 @@ public interface SmsService {
      * @param phoneNumbers 手机号码列表
      * @param templateCode 模板代码
      * @param params 短信参数
-     * @return 是否发送成功
+     * @return 是否全部发送成功
      */
     boolean batchSendSms(List<String> phoneNumbers, String templateCode, Map<String, String> params);
+    
+    /**
+     * 批量发送短信并返回各手机号的发送结果
+     * 内置实现超出服务商单次请求上限时自动拆分并发发送；默认实现逐条调用 {@link #sendSms(String, Map)}
+     * @param phoneNumbers 手机号码列表
+     * @param params 短信参数
+     * @return 批量发送结果
+     */
+    default SmsBatchResult batchSendSmsWithResult(List<String> phoneNumbers, Map<String, String> params) {
+        return batchSendSmsWithResult(phoneNumbers, null, params);
+    }
+    
+    /**
+     * 批量发送短信并返回各手机号的发送结果（指定模板）
+     * 内置实现超出服务商单次请求上限时自动拆分并发发送；默认实现逐条调用 {@link #sendSms(String, String, Map)}，
+     * 单条发送抛出异常时记为失败
+     * @param phoneNumbers 手机号码列表
+     * @param templateCode 模板代码
+     * @param params 短信参数
+     * @return 批量发送结果
+     */
+    default SmsBatchResult batchSendSmsWithResult(List<String> phoneNumbers, String templateCode,
+                                                  Map<String, String> params) {
+        List<SmsSendResult> results = new ArrayList<>(phoneNumbers.size());
+        int successCount = 0;
+        for (String phoneNumber : phoneNumbers) {
+            SmsSendResult.SmsSendResultBuilder result = SmsSendResult.builder().phoneNumber(phoneNumber);
+            try {
+                boolean success = StringUtils.hasText(templateCode)
+                    ? sendSms(phoneNumber, templateCode, params)
+                    : sendSms(phoneNumber, params);
+                result.success(success);
+                if (success) {
+                    successCount++;
+                }
+            } catch (RuntimeException e) {
+                result.success(false).message(e.getMessage());
+            }
+            results.add(result.build());
+        }
+        return SmsBatchResult.builder()
+            .results(results)
+            .successCount(successCount)
+            .failureCount(results.size() - successCount)
+            .build();
+    }
 } 
\ No newline at end of file
@@ -6,7 +6,11 @@ import com.aliyun.dysmsapi20170525.models.SendBatchSmsResponse;
 import com.aliyun.dysmsapi20170525.models.SendSmsRequest;
 import com.aliyun.dysmsapi20170525.models.SendSmsResponse;
 import com.aliyun.teaopenapi.models.Config;
+import com.codeutils.sms.batch.SmsBatchExecutor;
 import com.codeutils.sms.config.SmsProperties;
+import com.codeutils.sms.model.SmsBatchResult;
+import com.codeutils.sms.model.SmsSendResult;
+import com.codeutils.sms.service.SmsBatchSender;
 import com.codeutils.sms.service.SmsService;
 import com.google.gson.Gson;
 import org.springframework.util.StringUtils;
@@ -19,14 +23,25 @@ import java.util.stream.Collectors;
 /**
  * 阿里云短信服务实现
  */
-public class AliyunSmsServiceImpl implements SmsService {
+public class AliyunSmsServiceImpl implements SmsService, SmsBatchSender {
+    
+    /**
+     * SendBatchSms单次请求的手机号数上限
+     */
+    public static final int MAX_BATCH_SIZE = 100;
     
     private final SmsProperties.AliyunSmsProperties aliyunProperties;
     private final Client client;
+    private final SmsBatchExecutor batchExecutor;
     private final Gson gson = new Gson();
     
     public AliyunSmsServiceImpl(SmsProperties.AliyunSmsProperties aliyunProperties) {
+        this(aliyunProperties, new SmsBatchExecutor(new SmsProperties.BatchProperties()));
+    }
+    
+    public AliyunSmsServiceImpl(SmsProperties.AliyunSmsProperties aliyunProperties, SmsBatchExecutor batchExecutor) {
         this.aliyunProperties = aliyunProperties;
+        this.batchExecutor = batchExecutor;
         
         try {
             Config config = new Config()
@@ -74,26 +89,64 @@ public class AliyunSmsServiceImpl implements SmsService {
     
     @Override
     public boolean batchSendSms(List<String> phoneNumbers, String templateCode, Map<String, String> params) {
+        return batchSendSmsWithResult(phoneNumbers, templateCode, params).isAllSuccess();
+    }
+    
+    @Override
+    public SmsBatchResult batchSendSmsWithResult(List<String> phoneNumbers, Map<String, String> params) {
+        return batchSendSmsWithResult(phoneNumbers, aliyunProperties.getTemplateCode(), params);
+    }
+    
+    @Override
+    public SmsBatchResult batchSendSmsWithResult(List<String> phoneNumbers, String templateCode,
+                                                 Map<String, String> params) {
+        return batchExecutor.execute(this, phoneNumbers, templateCode, params);
+    }
+    
+    @Override
+    public int getMaxBatchSize() {
+        return MAX_BATCH_SIZE;
+    }
+    
+    @Override
+    public List<SmsSendResult> sendBatch(List<String> phoneNumbers, String templateCode, Map<String, String> params) {
+        if (phoneNumbers.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("单次批量发送的手机号数不能超过" + MAX_BATCH_SIZE);
+        }
         try {
             // 如果没有指定模板代码，使用配置中的默认模板
             if (!StringUtils.hasText(templateCode)) {
                 templateCode = aliyunProperties.getTemplateCode();
             }
             
-            // 阿里云批量发送短信要求手机号和签名一一对应
-            List<String> signNames = new ArrayList<>();
+            // 阿里云批量发送短信要求手机号和签名一一对应，模板参数同样按手机号逐个给出
+            List<String> signNames = new ArrayList<>(phoneNumbers.size());
+            List<Map<String, String>> templateParams = new ArrayList<>(phoneNumbers.size());
             for (int i = 0; i < phoneNumbers.size(); i++) {
                 signNames.add(aliyunProperties.getSignName());
+                templateParams.add(params);
             }
             
             SendBatchSmsRequest request = new SendBatchSmsRequest()
                 .setPhoneNumberJson(gson.toJson(phoneNumbers))
                 .setSignNameJson(gson.toJson(signNames))
                 .setTemplateCode(templateCode)
-                .setTemplateParamJson(gson.toJson(params));
+                .setTemplateParamJson(gson.toJson(templateParams));
             
             SendBatchSmsResponse response = client.sendBatchSms(request);
-            return "OK".equalsIgnoreCase(response.body.code);
+            // 批量接口只返回整个请求的结果
+            boolean success = "OK".equalsIgnoreCase(response.body.code);
+            List<SmsSendResult> results = new ArrayList<>(phoneNumbers.size());
+            for (String phoneNumber : phoneNumbers) {
+                results.add(SmsSendResult.builder()
+                    .phoneNumber(phoneNumber)
+                    .success(success)
+                    .code(response.body.code)
+                    .message(response.body.message)
+                    .bizId(response.body.bizId)
+                    .build());
+            }
+            return results;
         } catch (Exception e) {
             throw new RuntimeException("批量发送阿里云短信失败", e);
         }
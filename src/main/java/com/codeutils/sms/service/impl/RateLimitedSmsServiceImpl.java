@@ -0,0 +1,143 @@
+package com.codeutils.sms.service.impl;
+
+import com.codeutils.sms.batch.SmsBatchExecutor;
+import com.codeutils.sms.model.SmsBatchResult;
+import com.codeutils.sms.model.SmsSendResult;
+import com.codeutils.sms.ratelimit.SmsRateLimitException;
+import com.codeutils.sms.ratelimit.SmsRateLimiter;
+import com.codeutils.sms.service.SmsBatchSender;
+import com.codeutils.sms.service.SmsService;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 短信服务限流装饰类
+ * 发送前按全局、模板、手机号令牌桶限流，超出限制时不再请求服务商，并归还已预约的手机号令牌：
+ * 单条发送抛出 {@link SmsRateLimitException}，批量发送中被限流的手机号返回失败结果，其余手机号照常发送
+ */
+public class RateLimitedSmsServiceImpl implements SmsService, SmsBatchSender {
+    
+    /**
+     * 被限流的手机号的结果代码
+     */
+    public static final String RATE_LIMITED = "RATE_LIMITED";
+    
+    private final SmsService delegate;
+    private final SmsRateLimiter rateLimiter;
+    private final SmsBatchExecutor batchExecutor;
+    
+    public RateLimitedSmsServiceImpl(SmsService delegate, SmsRateLimiter rateLimiter,
+                                     SmsBatchExecutor batchExecutor) {
+        this.delegate = delegate;
+        this.rateLimiter = rateLimiter;
+        this.batchExecutor = batchExecutor;
+    }
+    
+    @Override
+    public boolean sendSms(String phoneNumber, Map<String, String> params) {
+        return sendSms(phoneNumber, null, params);
+    }
+    
+    @Override
+    public boolean sendSms(String phoneNumber, String templateCode, Map<String, String> params) {
+        long waitNanos = rateLimiter.acquirePhone(phoneNumber);
+        try {
+            waitNanos = Math.max(waitNanos, rateLimiter.acquireRequest(templateCode));
+        } catch (SmsRateLimitException e) {
+            rateLimiter.releasePhone(phoneNumber);
+            throw e;
+        }
+        rateLimiter.await(waitNanos);
+        return delegate.sendSms(phoneNumber, templateCode, params);
+    }
+    
+    @Override
+    public boolean batchSendSms(List<String> phoneNumbers, Map<String, String> params) {
+        return batchSendSms(phoneNumbers, null, params);
+    }
+    
+    @Override
+    public boolean batchSendSms(List<String> phoneNumbers, String templateCode, Map<String, String> params) {
+        return batchSendSmsWithResult(phoneNumbers, templateCode, params).isAllSuccess();
+    }
+    
+    @Override
+    public SmsBatchResult batchSendSmsWithResult(List<String> phoneNumbers, Map<String, String> params) {
+        return batchSendSmsWithResult(phoneNumbers, null, params);
+    }
+    
+    @Override
+    public SmsBatchResult batchSendSmsWithResult(List<String> phoneNumbers, String templateCode,
+                                                 Map<String, String> params) {
+        return batchExecutor.execute(this, phoneNumbers, templateCode, params);
+    }
+    
+    /**
+     * 被装饰的服务不支持批量接口时逐条发送
+     */
+    @Override
+    public int getMaxBatchSize() {
+        return delegate instanceof SmsBatchSender ? ((SmsBatchSender) delegate).getMaxBatchSize() : 1;
+    }
+    
+    @Override
+    public List<SmsSendResult> sendBatch(List<String> phoneNumbers, String templateCode, Map<String, String> params) {
+        List<SmsSendResult> results = new ArrayList<>(Collections.nCopies(phoneNumbers.size(), null));
+        List<String> permitted = new ArrayList<>(phoneNumbers.size());
+        List<Integer> permittedIndexes = new ArrayList<>(phoneNumbers.size());
+        long waitNanos = 0;
+        for (int i = 0; i < phoneNumbers.size(); i++) {
+            String phoneNumber = phoneNumbers.get(i);
+            try {
+                waitNanos = Math.max(waitNanos, rateLimiter.acquirePhone(phoneNumber));
+                permitted.add(phoneNumber);
+                permittedIndexes.add(i);
+            } catch (SmsRateLimitException e) {
+                results.set(i, rateLimited(phoneNumber, e));
+            }
+        }
+        if (permitted.isEmpty()) {
+            return results;
+        }
+        
+        try {
+            waitNanos = Math.max(waitNanos, rateLimiter.acquireRequest(templateCode));
+        } catch (SmsRateLimitException e) {
+            for (int index : permittedIndexes) {
+                rateLimiter.releasePhone(phoneNumbers.get(index));
+                results.set(index, rateLimited(phoneNumbers.get(index), e));
+            }
+            return results;
+        }
+        rateLimiter.await(waitNanos);
+        
+        List<SmsSendResult> sent;
+        if (delegate instanceof SmsBatchSender) {
+            sent = ((SmsBatchSender) delegate).sendBatch(permitted, templateCode, params);
+        } else {
+            sent = new ArrayList<>(permitted.size());
+            for (String phoneNumber : permitted) {
+                sent.add(SmsSendResult.builder()
+                    .phoneNumber(phoneNumber)
+                    .success(delegate.sendSms(phoneNumber, templateCode, params))
+                    .build());
+            }
+        }
+        for (int i = 0; i < sent.size(); i++) {
+            results.set(permittedIndexes.get(i), sent.get(i));
+        }
+        return results;
+    }
+    
+    private SmsSendResult rateLimited(String phoneNumber, SmsRateLimitException e) {
+        return SmsSendResult.builder()
+            .phoneNumber(phoneNumber)
+            .success(false)
+            .code(RATE_LIMITED)
+            .message(e.getMessage())
+            .build();
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,265 @@
+package com.codeutils.sms.service.impl;
+
+import com.codeutils.sms.batch.SmsBatchExecutor;
+import com.codeutils.sms.config.SmsProperties;
+import com.codeutils.sms.model.SmsBatchResult;
+import com.codeutils.sms.model.SmsSendResult;
+import com.codeutils.sms.routing.ProviderStats;
+import com.codeutils.sms.service.SmsBatchSender;
+import com.codeutils.sms.service.SmsService;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 多服务商短信路由
+ * 按权重随机选择服务商分摊流量，并为每个服务商维护滚动的成功率和耗时统计；
+ * 失败率或P99耗时超过阈值的服务商在冷却期内被摘除，流量转移到其余服务商。
+ * 只有服务商故障（网络异常、限流、服务端错误，SDK以异常抛出）才依次改用其余服务商并计为失败：
+ * 可用服务商按权重随机排序在前，权重为0的备用服务商其次，被摘除的服务商最后。
+ * 号码无效、单号码频率超限等业务拒绝原样返回，不换服务商重发，以免无效号码发往所有服务商、绕过单号码频率限制。
+ * 批量发送时只有遇到服务端错误的手机号改用下一个服务商发送。
+ * 模板代码按服务商映射，未配置映射时原样传给各服务商
+ */
+public class RoutingSmsServiceImpl implements SmsService, SmsBatchSender {
+    
+    private final List<Route> routes = new ArrayList<>();
+    private final Map<String, Map<String, String>> templates;
+    private final SmsBatchExecutor batchExecutor;
+    private final int maxBatchSize;
+    
+    /**
+     * @param providers 服务商名称 -> 短信服务
+     * @param properties 路由配置
+     * @param batchExecutor 批量执行器
+     */
+    public RoutingSmsServiceImpl(Map<String, SmsService> providers, SmsProperties.RoutingProperties properties,
+                                 SmsBatchExecutor batchExecutor) {
+        if (providers.isEmpty()) {
+            throw new IllegalArgumentException("短信路由至少需要一个服务商");
+        }
+        int batchSize = Integer.MAX_VALUE;
+        for (Map.Entry<String, SmsService> entry : providers.entrySet()) {
+            Integer weight = properties.getWeights().get(entry.getKey());
+            ProviderStats stats = new ProviderStats(entry.getKey(), properties.getWindowSize(),
+                properties.getMinimumCalls(), properties.getErrorRateThreshold(),
+                properties.getP99ThresholdMillis(), properties.getCooldownMillis());
+            routes.add(new Route(entry.getKey(), entry.getValue(), weight == null ? 1 : Math.max(weight, 0), stats));
+            SmsService service = entry.getValue();
+            batchSize = Math.min(batchSize,
+                service instanceof SmsBatchSender ? ((SmsBatchSender) service).getMaxBatchSize() : 1);
+        }
+        this.templates = properties.getTemplates();
+        this.batchExecutor = batchExecutor;
+        this.maxBatchSize = batchSize;
+    }
+    
+    @Override
+    public boolean sendSms(String phoneNumber, Map<String, String> params) {
+        return sendSms(phoneNumber, null, params);
+    }
+    
+    @Override
+    public boolean sendSms(String phoneNumber, String templateCode, Map<String, String> params) {
+        RuntimeException lastException = null;
+        for (Route route : order()) {
+            long start = System.nanoTime();
+            try {
+                // 返回false为业务拒绝，服务商本身正常
+                boolean success = route.service.sendSms(phoneNumber, resolveTemplate(route, templateCode), params);
+                route.stats.record(true, System.nanoTime() - start);
+                return success;
+            } catch (IllegalArgumentException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                route.stats.record(false, System.nanoTime() - start);
+                lastException = e;
+            }
+        }
+        throw lastException;
+    }
+    
+    @Override
+    public boolean batchSendSms(List<String> phoneNumbers, Map<String, String> params) {
+        return batchSendSms(phoneNumbers, null, params);
+    }
+    
+    @Override
+    public boolean batchSendSms(List<String> phoneNumbers, String templateCode, Map<String, String> params) {
+        return batchSendSmsWithResult(phoneNumbers, templateCode, params).isAllSuccess();
+    }
+    
+    @Override
+    public SmsBatchResult batchSendSmsWithResult(List<String> phoneNumbers, Map<String, String> params) {
+        return batchSendSmsWithResult(phoneNumbers, null, params);
+    }
+    
+    @Override
+    public SmsBatchResult batchSendSmsWithResult(List<String> phoneNumbers, String templateCode,
+                                                 Map<String, String> params) {
+        return batchExecutor.execute(this, phoneNumbers, templateCode, params);
+    }
+    
+    /**
+     * 取各服务商单次请求上限的最小值，失败的手机号改用其他服务商时不会超出其上限
+     */
+    @Override
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+    
+    @Override
+    public List<SmsSendResult> sendBatch(List<String> phoneNumbers, String templateCode, Map<String, String> params) {
+        List<SmsSendResult> results = new ArrayList<>(Collections.nCopies(phoneNumbers.size(), null));
+        List<Integer> pending = new ArrayList<>(phoneNumbers.size());
+        for (int i = 0; i < phoneNumbers.size(); i++) {
+            pending.add(i);
+        }
+        RuntimeException lastException = null;
+        for (Route route : order()) {
+            if (pending.isEmpty()) {
+                break;
+            }
+            List<String> numbers = new ArrayList<>(pending.size());
+            for (int index : pending) {
+                numbers.add(phoneNumbers.get(index));
+            }
+            
+            long start = System.nanoTime();
+            List<SmsSendResult> sent;
+            try {
+                sent = sendBatch(route, numbers, resolveTemplate(route, templateCode), params);
+            } catch (IllegalArgumentException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                route.stats.record(false, System.nanoTime() - start);
+                lastException = e;
+                continue;
+            }
+            
+            // 业务拒绝原样保留，只有服务端错误的手机号改用下一个服务商；全部为服务端错误时计为服务商失败
+            List<Integer> failed = new ArrayList<>();
+            for (int i = 0; i < sent.size(); i++) {
+                results.set(pending.get(i), sent.get(i));
+                if (!sent.get(i).isSuccess() && isServerError(sent.get(i).getCode())) {
+                    failed.add(pending.get(i));
+                }
+            }
+            route.stats.record(sent.isEmpty() || failed.size() < sent.size(), System.nanoTime() - start);
+            pending = failed;
+        }
+        
+        for (int index : pending) {
+            if (results.get(index) == null) {
+                results.set(index, SmsSendResult.builder()
+                    .phoneNumber(phoneNumbers.get(index))
+                    .success(false)
+                    .message(lastException == null ? null : lastException.getMessage())
+                    .build());
+            }
+        }
+        return results;
+    }
+    
+    /**
+     * 获取各服务商的滚动统计
+     * @return 服务商统计列表
+     */
+    public List<ProviderStats> getProviderStats() {
+        List<ProviderStats> stats = new ArrayList<>(routes.size());
+        for (Route route : routes) {
+            stats.add(route.stats);
+        }
+        return stats;
+    }
+    
+    /**
+     * 确定本次发送尝试服务商的顺序
+     */
+    private List<Route> order() {
+        List<Route> available = new ArrayList<>(routes.size());
+        List<Route> ejected = new ArrayList<>();
+        int totalWeight = 0;
+        for (Route route : routes) {
+            if (route.stats.isAvailable()) {
+                available.add(route);
+                totalWeight += route.weight;
+            } else {
+                ejected.add(route);
+            }
+        }
+        
+        List<Route> ordered = new ArrayList<>(routes.size());
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (totalWeight > 0) {
+            int pick = random.nextInt(totalWeight);
+            for (int i = 0; i < available.size(); i++) {
+                Route route = available.get(i);
+                pick -= route.weight;
+                if (pick < 0) {
+                    ordered.add(route);
+                    available.remove(i);
+                    totalWeight -= route.weight;
+                    break;
+                }
+            }
+        }
+        ordered.addAll(available);
+        ordered.addAll(ejected);
+        return ordered;
+    }
+    
+    /**
+     * 是否为服务商侧错误：阿里云isp.开头的错误码、腾讯云InternalError和RequestLimitExceeded系列错误码
+     */
+    private static boolean isServerError(String code) {
+        return code != null
+            && (code.startsWith("isp.") || code.startsWith("InternalError") || code.startsWith("RequestLimitExceeded"));
+    }
+    
+    private String resolveTemplate(Route route, String templateCode) {
+        if (templateCode == null) {
+            return null;
+        }
+        Map<String, String> mapping = templates.get(templateCode);
+        if (mapping == null || !mapping.containsKey(route.name)) {
+            return templateCode;
+        }
+        return mapping.get(route.name);
+    }
+    
+    private List<SmsSendResult> sendBatch(Route route, List<String> phoneNumbers, String templateCode,
+                                          Map<String, String> params) {
+        if (route.service instanceof SmsBatchSender) {
+            return ((SmsBatchSender) route.service).sendBatch(phoneNumbers, templateCode, params);
+        }
+        List<SmsSendResult> results = new ArrayList<>(phoneNumbers.size());
+        for (String phoneNumber : phoneNumbers) {
+            results.add(SmsSendResult.builder()
+                .phoneNumber(phoneNumber)
+                .success(route.service.sendSms(phoneNumber, templateCode, params))
+                .build());
+        }
+        return results;
+    }
+    
+    /**
+     * 路由目标
+     */
+    private static final class Route {
+        private final String name;
+        private final SmsService service;
+        private final int weight;
+        private final ProviderStats stats;
+        
+        private Route(String name, SmsService service, int weight, ProviderStats stats) {
+            this.name = name;
+            this.service = service;
+            this.weight = weight;
+            this.stats = stats;
+        }
+    }
+} 
\ No newline at end of file
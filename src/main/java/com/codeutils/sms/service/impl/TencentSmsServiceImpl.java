@@ -1,6 +1,10 @@
 package com.codeutils.sms.service.impl;
 
+import com.codeutils.sms.batch.SmsBatchExecutor;
 import com.codeutils.sms.config.SmsProperties;
+import com.codeutils.sms.model.SmsBatchResult;
+import com.codeutils.sms.model.SmsSendResult;
+import com.codeutils.sms.service.SmsBatchSender;
 import com.codeutils.sms.service.SmsService;
 import com.google.gson.Gson;
 import com.tencentcloudapi.common.Credential;
@@ -9,23 +13,37 @@ import com.tencentcloudapi.common.profile.HttpProfile;
 import com.tencentcloudapi.sms.v20210111.SmsClient;
 import com.tencentcloudapi.sms.v20210111.models.SendSmsRequest;
 import com.tencentcloudapi.sms.v20210111.models.SendSmsResponse;
+import com.tencentcloudapi.sms.v20210111.models.SendStatus;
 import org.springframework.util.StringUtils;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
  * 腾讯云短信服务实现
  */
-public class TencentSmsServiceImpl implements SmsService {
+public class TencentSmsServiceImpl implements SmsService, SmsBatchSender {
+    
+    /**
+     * SendSms单次请求的手机号数上限
+     */
+    public static final int MAX_BATCH_SIZE = 200;
     
     private final SmsProperties.TencentSmsProperties tencentProperties;
     private final SmsClient client;
+    private final SmsBatchExecutor batchExecutor;
     private final Gson gson = new Gson();
     
     public TencentSmsServiceImpl(SmsProperties.TencentSmsProperties tencentProperties) {
+        this(tencentProperties, new SmsBatchExecutor(new SmsProperties.BatchProperties()));
+    }
+    
+    public TencentSmsServiceImpl(SmsProperties.TencentSmsProperties tencentProperties,
+                                 SmsBatchExecutor batchExecutor) {
         this.tencentProperties = tencentProperties;
+        this.batchExecutor = batchExecutor;
         
         try {
             // 实例化一个认证对象
@@ -94,6 +112,30 @@ public class TencentSmsServiceImpl implements SmsService {
     
     @Override
     public boolean batchSendSms(List<String> phoneNumbers, String templateCode, Map<String, String> params) {
+        return batchSendSmsWithResult(phoneNumbers, templateCode, params).isAllSuccess();
+    }
+    
+    @Override
+    public SmsBatchResult batchSendSmsWithResult(List<String> phoneNumbers, Map<String, String> params) {
+        return batchSendSmsWithResult(phoneNumbers, tencentProperties.getTemplateId(), params);
+    }
+    
+    @Override
+    public SmsBatchResult batchSendSmsWithResult(List<String> phoneNumbers, String templateCode,
+                                                 Map<String, String> params) {
+        return batchExecutor.execute(this, phoneNumbers, templateCode, params);
+    }
+    
+    @Override
+    public int getMaxBatchSize() {
+        return MAX_BATCH_SIZE;
+    }
+    
+    @Override
+    public List<SmsSendResult> sendBatch(List<String> phoneNumbers, String templateCode, Map<String, String> params) {
+        if (phoneNumbers.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("单次批量发送的手机号数不能超过" + MAX_BATCH_SIZE);
+        }
         try {
             // 如果没有指定模板ID，使用配置中的默认模板
             if (!StringUtils.hasText(templateCode)) {
@@ -119,16 +161,28 @@ public class TencentSmsServiceImpl implements SmsService {
             // 发送短信
             SendSmsResponse response = client.SendSms(req);
             
-            // 验证发送结果，所有手机号都成功才返回true
-            boolean allSuccess = true;
-            for (com.tencentcloudapi.sms.v20210111.models.SendStatus status : response.getSendStatusSet()) {
-                if (!"Ok".equals(status.getCode())) {
-                    allSuccess = false;
-                    break;
+            // 发送状态按手机号返回，顺序不保证与请求一致
+            Map<String, SendStatus> statusMap = new HashMap<>();
+            if (response.getSendStatusSet() != null) {
+                for (SendStatus status : response.getSendStatusSet()) {
+                    statusMap.put(status.getPhoneNumber(), status);
                 }
             }
-            
-            return allSuccess;
+            List<SmsSendResult> results = new ArrayList<>(phoneNumbers.size());
+            for (int i = 0; i < phoneNumbers.size(); i++) {
+                SendStatus status = statusMap.get(formattedPhoneNumbers[i]);
+                results.add(status == null
+                    ? SmsSendResult.builder().phoneNumber(phoneNumbers.get(i)).success(false)
+                        .message("未返回发送状态").build()
+                    : SmsSendResult.builder()
+                        .phoneNumber(phoneNumbers.get(i))
+                        .success("Ok".equals(status.getCode()))
+                        .code(status.getCode())
+                        .message(status.getMessage())
+                        .bizId(status.getSerialNo())
+                        .build());
+            }
+            return results;
         } catch (Exception e) {
             throw new RuntimeException("批量发送腾讯云短信失败", e);
         }
@@ -0,0 +1,227 @@
+package com.codeutils.sms.verification;
+
+import com.codeutils.sms.config.SmsProperties;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 内存验证码存储
+ * 按键的哈希分片，每个分片独立加锁；过期清理使用分片内的时间轮：条目按过期时刻挂到对应槽位的双向链表上，
+ * 单个后台线程每个刻度推进各分片的时间轮并删除到期条目，不为每个条目创建定时任务。
+ * 重新发送时复用原有条目，读取时再按过期时刻判断，清理的时效不影响校验结果
+ */
+public class InMemoryVerificationCodeStore implements VerificationCodeStore {
+    
+    private static final AtomicInteger POOL_COUNTER = new AtomicInteger();
+    
+    private final Shard[] shards;
+    private final long tickMillis;
+    private final ScheduledExecutorService ticker;
+    
+    public InMemoryVerificationCodeStore(SmsProperties.VerificationProperties properties) {
+        this.tickMillis = Math.max(properties.getTickMillis(), 1);
+        int wheelSize = powerOfTwo(properties.getWheelSize());
+        long currentTick = System.currentTimeMillis() / tickMillis;
+        this.shards = new Shard[powerOfTwo(properties.getShards())];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(wheelSize, currentTick);
+        }
+        String threadName = "codeutils-sms-verification-" + POOL_COUNTER.incrementAndGet();
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.ticker.scheduleAtFixedRate(this::expire, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    @Override
+    public boolean save(String key, String code, long ttlMillis, long cooldownMillis) {
+        long now = System.currentTimeMillis();
+        Shard shard = shard(key);
+        synchronized (shard) {
+            Entry entry = shard.entries.get(key);
+            if (entry == null) {
+                entry = new Entry(key);
+                shard.entries.put(key, entry);
+            } else if (now < entry.cooldownUntil) {
+                return false;
+            } else {
+                shard.unlink(entry);
+            }
+            entry.code = code;
+            entry.attempts = 0;
+            entry.codeExpireAt = now + ttlMillis;
+            entry.cooldownUntil = now + cooldownMillis;
+            // 验证码失效后冷却状态仍需保留到冷却结束
+            entry.expireAt = Math.max(entry.codeExpireAt, entry.cooldownUntil);
+            shard.link(entry, entry.expireAt / tickMillis);
+            return true;
+        }
+    }
+    
+    @Override
+    public VerificationResult verify(String key, String code, int maxAttempts) {
+        long now = System.currentTimeMillis();
+        Shard shard = shard(key);
+        synchronized (shard) {
+            Entry entry = shard.entries.get(key);
+            if (entry == null || now >= entry.codeExpireAt) {
+                return VerificationResult.NOT_FOUND;
+            }
+            if (entry.code == null) {
+                return entry.attempts >= maxAttempts
+                    ? VerificationResult.TOO_MANY_ATTEMPTS
+                    : VerificationResult.NOT_FOUND;
+            }
+            if (code != null && MessageDigest.isEqual(entry.code.getBytes(StandardCharsets.UTF_8),
+                code.getBytes(StandardCharsets.UTF_8))) {
+                entry.code = null;
+                return VerificationResult.SUCCESS;
+            }
+            if (++entry.attempts >= maxAttempts) {
+                entry.code = null;
+                return VerificationResult.TOO_MANY_ATTEMPTS;
+            }
+            return VerificationResult.MISMATCH;
+        }
+    }
+    
+    @Override
+    public void remove(String key) {
+        Shard shard = shard(key);
+        synchronized (shard) {
+            Entry entry = shard.entries.remove(key);
+            if (entry != null) {
+                shard.unlink(entry);
+            }
+        }
+    }
+    
+    /**
+     * 获取存储的条目数，包括验证码已失效但仍在冷却中的条目
+     * @return 条目数
+     */
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                size += shard.entries.size();
+            }
+        }
+        return size;
+    }
+    
+    /**
+     * 关闭过期清理线程
+     */
+    public void shutdown() {
+        ticker.shutdownNow();
+    }
+    
+    private void expire() {
+        long now = System.currentTimeMillis();
+        long currentTick = now / tickMillis;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                shard.advance(currentTick, now);
+            }
+        }
+    }
+    
+    private Shard shard(String key) {
+        int hash = key.hashCode();
+        return shards[(hash ^ (hash >>> 16)) & (shards.length - 1)];
+    }
+    
+    private static int powerOfTwo(int value) {
+        int n = Math.max(value, 1);
+        return n == 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+    }
+    
+    /**
+     * 分片：条目表和时间轮
+     */
+    private static final class Shard {
+        private final Map<String, Entry> entries = new HashMap<>();
+        private final Entry[] wheel;
+        private final int wheelMask;
+        private long processedTick;
+        
+        private Shard(int wheelSize, long currentTick) {
+            this.wheel = new Entry[wheelSize];
+            this.wheelMask = wheelSize - 1;
+            this.processedTick = currentTick - 1;
+        }
+        
+        private void link(Entry entry, long tick) {
+            int slot = (int) (tick & wheelMask);
+            entry.slot = slot;
+            entry.prev = null;
+            entry.next = wheel[slot];
+            if (wheel[slot] != null) {
+                wheel[slot].prev = entry;
+            }
+            wheel[slot] = entry;
+        }
+        
+        private void unlink(Entry entry) {
+            if (entry.prev != null) {
+                entry.prev.next = entry.next;
+            } else {
+                wheel[entry.slot] = entry.next;
+            }
+            if (entry.next != null) {
+                entry.next.prev = entry.prev;
+            }
+            entry.prev = null;
+            entry.next = null;
+        }
+        
+        /**
+         * 处理已经结束的刻度，落后超过一圈时每个槽位只需处理一次
+         */
+        private void advance(long currentTick, long now) {
+            long from = Math.max(processedTick + 1, currentTick - wheel.length);
+            for (long tick = from; tick < currentTick; tick++) {
+                Entry entry = wheel[(int) (tick & wheelMask)];
+                while (entry != null) {
+                    Entry next = entry.next;
+                    // 同一槽位上还有过期时刻在之后几圈的条目
+                    if (entry.expireAt <= now) {
+                        unlink(entry);
+                        entries.remove(entry.key);
+                    }
+                    entry = next;
+                }
+            }
+            processedTick = Math.max(processedTick, currentTick - 1);
+        }
+    }
+    
+    /**
+     * 验证码条目，同时作为时间轮链表节点
+     */
+    private static final class Entry {
+        private final String key;
+        private String code;
+        private int attempts;
+        private long codeExpireAt;
+        private long cooldownUntil;
+        private long expireAt;
+        private int slot;
+        private Entry prev;
+        private Entry next;
+        
+        private Entry(String key) {
+            this.key = key;
+        }
+    }
+} 
\ No newline at end of file
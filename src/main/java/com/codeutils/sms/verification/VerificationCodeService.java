@@ -0,0 +1,104 @@
+package com.codeutils.sms.verification;
+
+import com.codeutils.common.utils.IdUtils;
+import com.codeutils.sms.config.SmsProperties;
+import com.codeutils.sms.ratelimit.SmsRateLimitException;
+import com.codeutils.sms.service.SmsService;
+import org.springframework.util.StringUtils;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 短信验证码服务
+ * 生成数字验证码并通过短信发送，同一场景同一手机号在冷却时间内不能重复发送；
+ * 校验错误次数达到上限或校验通过后验证码失效。场景用于区分登录、注册等用途，互不影响
+ */
+public class VerificationCodeService {
+    
+    /**
+     * 默认场景
+     */
+    public static final String DEFAULT_SCENE = "default";
+    
+    private final SmsService smsService;
+    private final VerificationCodeStore store;
+    private final SmsProperties.VerificationProperties properties;
+    
+    public VerificationCodeService(SmsService smsService, VerificationCodeStore store,
+                                   SmsProperties.VerificationProperties properties) {
+        this.smsService = smsService;
+        this.store = store;
+        this.properties = properties;
+    }
+    
+    /**
+     * 发送验证码（默认场景）
+     * @param phoneNumber 手机号码
+     * @throws SmsRateLimitException 仍在冷却时间内
+     */
+    public void send(String phoneNumber) {
+        send(DEFAULT_SCENE, phoneNumber);
+    }
+    
+    /**
+     * 发送验证码
+     * @param scene 场景
+     * @param phoneNumber 手机号码
+     * @throws SmsRateLimitException 仍在冷却时间内
+     */
+    public void send(String scene, String phoneNumber) {
+        if (!StringUtils.hasText(phoneNumber)) {
+            throw new IllegalArgumentException("手机号码不能为空");
+        }
+        String key = key(scene, phoneNumber);
+        String code = IdUtils.randomNumeric(properties.getCodeLength());
+        if (!store.save(key, code, TimeUnit.SECONDS.toMillis(properties.getTtlSeconds()),
+            TimeUnit.SECONDS.toMillis(properties.getCooldownSeconds()))) {
+            throw new SmsRateLimitException("验证码发送过于频繁，请稍后再试");
+        }
+        
+        // 发送失败时删除验证码，允许立即重新发送
+        boolean success;
+        try {
+            Map<String, String> params = Collections.singletonMap(properties.getCodeParamName(), code);
+            success = smsService.sendSms(phoneNumber, properties.getTemplateCode(), params);
+        } catch (RuntimeException e) {
+            store.remove(key);
+            throw e;
+        }
+        if (!success) {
+            store.remove(key);
+            throw new RuntimeException("验证码短信发送失败");
+        }
+    }
+    
+    /**
+     * 校验验证码（默认场景）
+     * @param phoneNumber 手机号码
+     * @param code 用户输入的验证码
+     * @return 校验结果
+     */
+    public VerificationResult verify(String phoneNumber, String code) {
+        return verify(DEFAULT_SCENE, phoneNumber, code);
+    }
+    
+    /**
+     * 校验验证码
+     * @param scene 场景
+     * @param phoneNumber 手机号码
+     * @param code 用户输入的验证码
+     * @return 校验结果
+     */
+    public VerificationResult verify(String scene, String phoneNumber, String code) {
+        if (!StringUtils.hasText(phoneNumber)) {
+            throw new IllegalArgumentException("手机号码不能为空");
+        }
+        return store.verify(key(scene, phoneNumber), code, Math.max(properties.getMaxAttempts(), 1));
+    }
+    
+    private String key(String scene, String phoneNumber) {
+        return (StringUtils.hasText(scene) ? scene : DEFAULT_SCENE) + ":" + phoneNumber;
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.codeutils.sms.verification;
+
+/**
+ * 验证码存储
+ * 默认实现为单机内存存储 {@link InMemoryVerificationCodeStore}；多实例部署时可基于Redis等实现并注册为Bean，
+ * 替换默认实现。save和verify需各自原子执行（如Redis中使用Lua脚本），以保证冷却和错误次数限制在并发下有效
+ */
+public interface VerificationCodeStore {
+    
+    /**
+     * 保存验证码，覆盖原有验证码并清零错误次数
+     * @param key 存储键
+     * @param code 验证码
+     * @param ttlMillis 验证码有效期（毫秒）
+     * @param cooldownMillis 发送冷却时间（毫秒），上次保存后冷却时间内不允许再次保存
+     * @return 保存成功返回true，仍在冷却时间内返回false
+     */
+    boolean save(String key, String code, long ttlMillis, long cooldownMillis);
+    
+    /**
+     * 校验验证码，校验通过或错误次数达到上限时验证码失效
+     * @param key 存储键
+     * @param code 待校验的验证码
+     * @param maxAttempts 最大错误次数
+     * @return 校验结果
+     */
+    VerificationResult verify(String key, String code, int maxAttempts);
+    
+    /**
+     * 删除验证码及其冷却状态
+     * @param key 存储键
+     */
+    void remove(String key);
+} 
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.codeutils.sms.verification;
+
+/**
+ * 验证码校验结果
+ */
+public enum VerificationResult {
+    /**
+     * 校验通过，验证码随即失效
+     */
+    SUCCESS,
+    /**
+     * 验证码错误
+     */
+    MISMATCH,
+    /**
+     * 验证码不存在、已过期或已使用
+     */
+    NOT_FOUND,
+    /**
+     * 错误次数达到上限，验证码已失效，需重新发送
+     */
+    TOO_MANY_ATTEMPTS
+} 
\ No newline at end of file
@@ -0,0 +1,180 @@
+package com.codeutils.storage.async;
+
+import com.codeutils.storage.config.StorageProperties;
+import com.codeutils.storage.multipart.TransferThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 存储任务执行器
+ * 线程数和等待队列均有上限，队列满时立即拒绝而不是阻塞调用线程；
+ * 记录任务的排队耗时、执行耗时以及成功、失败、拒绝次数，可用于监控
+ */
+public class StorageTaskExecutor {
+    
+    private final ThreadPoolExecutor executor;
+    
+    private final LongAdder submittedCount = new LongAdder();
+    private final LongAdder completedCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAdder totalExecutionNanos = new LongAdder();
+    private final AtomicLong maxExecutionNanos = new AtomicLong();
+    
+    public StorageTaskExecutor(StorageProperties.AsyncProperties asyncProperties) {
+        int maxPoolSize = Math.max(asyncProperties.getMaxPoolSize(), 1);
+        int corePoolSize = Math.min(Math.max(asyncProperties.getCorePoolSize(), 1), maxPoolSize);
+        this.executor = new ThreadPoolExecutor(
+            corePoolSize, maxPoolSize, asyncProperties.getKeepAliveSeconds(), TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(Math.max(asyncProperties.getQueueCapacity(), 1)),
+            new TransferThreadFactory("storage-async"),
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+    
+    /**
+     * 提交任务
+     * @param task 任务
+     * @param <T> 结果类型
+     * @return 任务结果，队列已满时以 {@link RejectedExecutionException} 异常完成
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        long submitTime = System.nanoTime();
+        try {
+            executor.execute(() -> run(task, future, submitTime));
+            submittedCount.increment();
+        } catch (RejectedExecutionException e) {
+            rejectedCount.increment();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+    
+    private <T> void run(Callable<T> task, CompletableFuture<T> future, long submitTime) {
+        // 调用方已取消的任务不再执行
+        if (future.isDone()) {
+            return;
+        }
+        long startTime = System.nanoTime();
+        totalWaitNanos.add(startTime - submitTime);
+        try {
+            T result = task.call();
+            completedCount.increment();
+            future.complete(result);
+        } catch (Throwable e) {
+            failedCount.increment();
+            future.completeExceptionally(e);
+        } finally {
+            long elapsed = System.nanoTime() - startTime;
+            totalExecutionNanos.add(elapsed);
+            maxExecutionNanos.accumulateAndGet(elapsed, Math::max);
+        }
+    }
+    
+    /**
+     * 关闭执行器，已提交的任务继续执行
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+    
+    /**
+     * 获取正在执行任务的线程数
+     * @return 活动线程数
+     */
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+    
+    /**
+     * 获取当前线程数
+     * @return 线程数
+     */
+    public int getPoolSize() {
+        return executor.getPoolSize();
+    }
+    
+    /**
+     * 获取等待执行的任务数
+     * @return 排队任务数
+     */
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+    
+    /**
+     * 获取队列剩余容量
+     * @return 剩余容量
+     */
+    public int getQueueRemainingCapacity() {
+        return executor.getQueue().remainingCapacity();
+    }
+    
+    /**
+     * 获取已提交的任务数
+     * @return 已提交任务数
+     */
+    public long getSubmittedCount() {
+        return submittedCount.sum();
+    }
+    
+    /**
+     * 获取执行成功的任务数
+     * @return 成功任务数
+     */
+    public long getCompletedCount() {
+        return completedCount.sum();
+    }
+    
+    /**
+     * 获取执行失败的任务数
+     * @return 失败任务数
+     */
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+    
+    /**
+     * 获取因队列已满被拒绝的任务数
+     * @return 拒绝任务数
+     */
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+    
+    /**
+     * 获取任务平均排队耗时
+     * @return 平均排队耗时（毫秒）
+     */
+    public double getAverageWaitMillis() {
+        long finished = completedCount.sum() + failedCount.sum();
+        return finished == 0 ? 0 : totalWaitNanos.sum() / 1_000_000.0 / finished;
+    }
+    
+    /**
+     * 获取任务平均执行耗时
+     * @return 平均执行耗时（毫秒）
+     */
+    public double getAverageExecutionMillis() {
+        long finished = completedCount.sum() + failedCount.sum();
+        return finished == 0 ? 0 : totalExecutionNanos.sum() / 1_000_000.0 / finished;
+    }
+    
+    /**
+     * 获取任务最大执行耗时
+     * @return 最大执行耗时（毫秒）
+     */
+    public double getMaxExecutionMillis() {
+        return maxExecutionNanos.get() / 1_000_000.0;
+    }
+}
\ No newline at end of file
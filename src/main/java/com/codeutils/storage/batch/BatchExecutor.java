@@ -0,0 +1,154 @@
+package com.codeutils.storage.batch;
+
+import com.codeutils.storage.config.StorageProperties;
+import com.codeutils.storage.multipart.TransferThreadFactory;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 批量请求执行器
+ * 将批量查询拆分为单个请求并发执行，同一批次中同时进行的请求数不超过并发数，
+ * 完成一个再提交下一个，批次再大也不会积压任务；同时负责分页列举时的下一页预取
+ */
+public class BatchExecutor {
+    
+    /**
+     * 单页列举的对象数上限，各云厂商均为1000
+     */
+    public static final int MAX_LIST_PAGE_SIZE = 1000;
+    
+    private final int concurrency;
+    private final int listPageSize;
+    private final boolean listPrefetch;
+    private final ExecutorService executor;
+    
+    public BatchExecutor(StorageProperties.BatchProperties batchProperties) {
+        this.concurrency = Math.max(batchProperties.getConcurrency(), 1);
+        this.listPageSize = Math.min(Math.max(batchProperties.getListPageSize(), 1), MAX_LIST_PAGE_SIZE);
+        this.listPrefetch = batchProperties.isListPrefetch();
+        ThreadPoolExecutor threadPool = new ThreadPoolExecutor(
+            concurrency, concurrency, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+            new TransferThreadFactory("batch")
+        );
+        threadPool.allowCoreThreadTimeOut(true);
+        this.executor = threadPool;
+    }
+    
+    /**
+     * 并发执行批量请求
+     * @param keys 请求键（如文件URL），重复的键只执行一次
+     * @param task 单个请求
+     * @param <T> 结果类型
+     * @return 请求键 -> 结果，顺序与传入顺序一致
+     * @throws Exception 任一请求失败时取消其余请求并抛出该异常
+     */
+    public <T> Map<String, T> execute(Collection<String> keys, KeyedTask<T> task) throws Exception {
+        List<String> distinctKeys = new ArrayList<>(new LinkedHashSet<>(keys));
+        
+        Map<String, T> results = new LinkedHashMap<>();
+        for (String key : distinctKeys) {
+            results.put(key, null);
+        }
+        if (distinctKeys.isEmpty()) {
+            return results;
+        }
+        
+        CompletionService<Map.Entry<String, T>> completionService = new ExecutorCompletionService<>(executor);
+        List<Future<Map.Entry<String, T>>> futures = new ArrayList<>();
+        int submitted = 0;
+        int completed = 0;
+        try {
+            while (submitted < distinctKeys.size() && submitted < concurrency) {
+                futures.add(submit(completionService, distinctKeys.get(submitted++), task));
+            }
+            while (completed < submitted) {
+                Map.Entry<String, T> entry = completionService.take().get();
+                completed++;
+                results.put(entry.getKey(), entry.getValue());
+                if (submitted < distinctKeys.size()) {
+                    futures.add(submit(completionService, distinctKeys.get(submitted++), task));
+                }
+            }
+            return results;
+        } catch (ExecutionException e) {
+            cancelAll(futures);
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        } catch (InterruptedException e) {
+            cancelAll(futures);
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+    
+    /**
+     * 创建分页列表流，按配置在消费当前页时预取下一页，使用完毕后需关闭流以取消预取
+     * @param fetcher 分页拉取器
+     * @param <T> 元素类型
+     * @return 惰性求值的流
+     */
+    public <T> Stream<T> stream(PagedListIterator.PageFetcher<T> fetcher) {
+        PagedListIterator<T> iterator = new PagedListIterator<>(fetcher, listPrefetch ? executor : null);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+            Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(iterator::close);
+    }
+    
+    /**
+     * 获取单页列举的对象数
+     * @return 单页对象数
+     */
+    public int getListPageSize() {
+        return listPageSize;
+    }
+    
+    /**
+     * 关闭执行器
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+    
+    private <T> Future<Map.Entry<String, T>> submit(CompletionService<Map.Entry<String, T>> completionService,
+                                                    String key, KeyedTask<T> task) {
+        return completionService.submit(() -> new AbstractMap.SimpleImmutableEntry<>(key, task.apply(key)));
+    }
+    
+    private void cancelAll(List<? extends Future<?>> futures) {
+        for (Future<?> future : futures) {
+            future.cancel(true);
+        }
+    }
+    
+    /**
+     * 单个请求
+     * @param <T> 结果类型
+     */
+    public interface KeyedTask<T> {
+        
+        /**
+         * 执行请求
+         * @param key 请求键
+         * @return 结果
+         * @throws Exception 请求失败
+         */
+        T apply(String key) throws Exception;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,144 @@
+package com.codeutils.storage.batch;
+
+import java.io.Closeable;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * 分页列表迭代器
+ * 按续传标记逐页拉取，内存中只保留当前页；开启预取时在消费当前页的同时异步拉取下一页
+ * @param <T> 元素类型
+ */
+public class PagedListIterator<T> implements Iterator<T>, Closeable {
+    
+    private final PageFetcher<T> fetcher;
+    private final Executor prefetchExecutor;
+    
+    private Iterator<T> current = Collections.emptyIterator();
+    private String nextToken;
+    private boolean started;
+    private boolean finished;
+    private CompletableFuture<Page<T>> prefetched;
+    
+    /**
+     * @param fetcher 分页拉取器
+     * @param prefetchExecutor 预取执行器，为null时不预取
+     */
+    public PagedListIterator(PageFetcher<T> fetcher, Executor prefetchExecutor) {
+        this.fetcher = fetcher;
+        this.prefetchExecutor = prefetchExecutor;
+    }
+    
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            if (finished) {
+                return false;
+            }
+            Page<T> page = nextPage();
+            current = page.getItems().iterator();
+            nextToken = page.getNextToken();
+            if (nextToken == null) {
+                finished = true;
+            } else if (prefetchExecutor != null) {
+                String token = nextToken;
+                prefetched = CompletableFuture.supplyAsync(() -> fetch(token), prefetchExecutor);
+            }
+        }
+        return true;
+    }
+    
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+    
+    /**
+     * 停止迭代并取消尚未完成的预取
+     */
+    @Override
+    public void close() {
+        finished = true;
+        current = Collections.emptyIterator();
+        if (prefetched != null) {
+            prefetched.cancel(true);
+            prefetched = null;
+        }
+    }
+    
+    private Page<T> nextPage() {
+        if (prefetched != null) {
+            CompletableFuture<Page<T>> future = prefetched;
+            prefetched = null;
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                throw cause instanceof RuntimeException ? (RuntimeException) cause : e;
+            }
+        }
+        String token = started ? nextToken : null;
+        started = true;
+        return fetch(token);
+    }
+    
+    private Page<T> fetch(String token) {
+        try {
+            return fetcher.fetch(token);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("分页获取列表失败", e);
+        }
+    }
+    
+    /**
+     * 分页拉取器
+     * @param <T> 元素类型
+     */
+    public interface PageFetcher<T> {
+        
+        /**
+         * 拉取一页
+         * @param continuationToken 续传标记，第一页为null
+         * @return 当前页
+         * @throws Exception 拉取失败
+         */
+        Page<T> fetch(String continuationToken) throws Exception;
+    }
+    
+    /**
+     * 分页结果
+     * @param <T> 元素类型
+     */
+    public static class Page<T> {
+        
+        private final List<T> items;
+        private final String nextToken;
+        
+        /**
+         * @param items 当前页元素
+         * @param nextToken 下一页的续传标记，最后一页为null
+         */
+        public Page(List<T> items, String nextToken) {
+            this.items = items;
+            this.nextToken = nextToken;
+        }
+        
+        public List<T> getItems() {
+            return items;
+        }
+        
+        public String getNextToken() {
+            return nextToken;
+        }
+    }
+}
\ No newline at end of file
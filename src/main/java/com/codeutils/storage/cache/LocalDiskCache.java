@@ -0,0 +1,298 @@
+package com.codeutils.storage.cache;
+
+import com.codeutils.common.utils.EncryptUtils;
+import com.codeutils.storage.config.StorageProperties;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 本地磁盘缓存
+ * 文件按键的SHA-256摘要分两级目录存放，写入时先落临时文件再原子重命名；
+ * 同一个键的并发未命中只触发一次加载，其余请求等待同一结果；总大小超限时按最近最少使用淘汰
+ */
+public class LocalDiskCache {
+    
+    private static final String TEMP_SUFFIX = ".tmp";
+    
+    private final Path directory;
+    private final long maxSize;
+    private final long maxObjectSize;
+    
+    /**
+     * 摘要 -> 文件大小，按访问顺序排列
+     */
+    private final LinkedHashMap<String, Long> index = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, CompletableFuture<Path>> loading = new ConcurrentHashMap<>();
+    private long currentSize;
+    
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    
+    public LocalDiskCache(StorageProperties.CacheProperties cacheProperties) {
+        this.directory = Paths.get(cacheProperties.getDirectory()).toAbsolutePath();
+        this.maxSize = cacheProperties.getMaxSize();
+        this.maxObjectSize = Math.min(cacheProperties.getMaxObjectSize(), cacheProperties.getMaxSize());
+        try {
+            Files.createDirectories(directory);
+            loadIndex();
+        } catch (IOException e) {
+            throw new RuntimeException("初始化本地缓存目录失败: " + directory, e);
+        }
+    }
+    
+    /**
+     * 获取缓存文件，未命中时通过加载器写入缓存
+     * @param key 缓存键（对象名称）
+     * @param loader 加载器
+     * @return 缓存文件路径，文件超过单个大小上限时返回null
+     * @throws Exception 加载失败
+     */
+    public Path get(String key, ObjectLoader loader) throws Exception {
+        String digest = EncryptUtils.sha256(key);
+        Path path = resolvePath(digest);
+        if (lookup(digest, path)) {
+            hitCount.incrementAndGet();
+            return path;
+        }
+        
+        CompletableFuture<Path> future = new CompletableFuture<>();
+        CompletableFuture<Path> existing = loading.putIfAbsent(digest, future);
+        if (existing != null) {
+            hitCount.incrementAndGet();
+            return await(existing);
+        }
+        
+        try {
+            // 占位前可能已有其他线程完成加载
+            Path result;
+            if (lookup(digest, path)) {
+                hitCount.incrementAndGet();
+                result = path;
+            } else {
+                missCount.incrementAndGet();
+                result = load(digest, path, loader);
+            }
+            future.complete(result);
+            return result;
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(digest, future);
+        }
+    }
+    
+    /**
+     * 移除缓存
+     * @param key 缓存键（对象名称）
+     */
+    public void invalidate(String key) {
+        String digest = EncryptUtils.sha256(key);
+        boolean removed;
+        synchronized (index) {
+            Long size = index.remove(digest);
+            removed = size != null;
+            if (removed) {
+                currentSize -= size;
+            }
+        }
+        if (removed) {
+            deleteQuietly(resolvePath(digest));
+        }
+    }
+    
+    /**
+     * 获取当前缓存总大小
+     * @return 缓存总大小（字节）
+     */
+    public long getCurrentSize() {
+        synchronized (index) {
+            return currentSize;
+        }
+    }
+    
+    /**
+     * 获取命中次数
+     * @return 命中次数
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+    
+    /**
+     * 获取未命中次数
+     * @return 未命中次数
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+    
+    /**
+     * 获取淘汰次数
+     * @return 淘汰次数
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+    
+    /**
+     * 查找索引，文件已被外部删除时同步移除索引
+     */
+    private boolean lookup(String digest, Path path) {
+        synchronized (index) {
+            Long size = index.get(digest);
+            if (size == null) {
+                return false;
+            }
+            if (Files.exists(path)) {
+                return true;
+            }
+            index.remove(digest);
+            currentSize -= size;
+            return false;
+        }
+    }
+    
+    /**
+     * 加载文件到临时文件后原子重命名为缓存文件
+     */
+    private Path load(String digest, Path path, ObjectLoader loader) throws Exception {
+        if (loader.size() > maxObjectSize) {
+            return null;
+        }
+        
+        Files.createDirectories(path.getParent());
+        Path temp = path.resolveSibling(path.getFileName() + "." + UUID.randomUUID() + TEMP_SUFFIX);
+        try {
+            loader.load(temp);
+            long size = Files.size(temp);
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE);
+            register(digest, size);
+            return path;
+        } finally {
+            deleteQuietly(temp);
+        }
+    }
+    
+    /**
+     * 登记缓存文件并淘汰超出总大小的最久未使用文件
+     */
+    private void register(String digest, long size) {
+        List<String> victims = new ArrayList<>();
+        synchronized (index) {
+            Long previous = index.put(digest, size);
+            if (previous != null) {
+                currentSize -= previous;
+            }
+            currentSize += size;
+            
+            Iterator<Map.Entry<String, Long>> iterator = index.entrySet().iterator();
+            while (currentSize > maxSize && iterator.hasNext()) {
+                Map.Entry<String, Long> eldest = iterator.next();
+                if (eldest.getKey().equals(digest)) {
+                    continue;
+                }
+                currentSize -= eldest.getValue();
+                victims.add(eldest.getKey());
+                iterator.remove();
+            }
+        }
+        for (String victim : victims) {
+            evictionCount.incrementAndGet();
+            deleteQuietly(resolvePath(victim));
+        }
+    }
+    
+    /**
+     * 启动时扫描缓存目录重建索引，按修改时间由旧到新登记，并清理残留的临时文件
+     */
+    private void loadIndex() throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.walk(directory, 2)) {
+            files = stream.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+        List<Path> cached = new ArrayList<>();
+        for (Path file : files) {
+            if (file.getFileName().toString().endsWith(TEMP_SUFFIX)) {
+                deleteQuietly(file);
+            } else {
+                cached.add(file);
+            }
+        }
+        cached.sort(Comparator.comparingLong(file -> file.toFile().lastModified()));
+        for (Path file : cached) {
+            register(file.getFileName().toString(), file.toFile().length());
+        }
+    }
+    
+    /**
+     * 根据摘要计算缓存文件路径，取摘要前两位作为子目录
+     */
+    private Path resolvePath(String digest) {
+        return directory.resolve(digest.substring(0, 2)).resolve(digest);
+    }
+    
+    /**
+     * 等待其他线程的加载结果
+     */
+    private Path await(CompletableFuture<Path> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * 删除文件，忽略异常
+     */
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // 文件可能仍被占用，下次启动时重建索引会重新登记
+        }
+    }
+    
+    /**
+     * 缓存加载器
+     */
+    public interface ObjectLoader {
+        
+        /**
+         * 获取对象大小，用于判断是否可以缓存
+         * @return 对象大小（字节）
+         * @throws Exception 获取失败
+         */
+        long size() throws Exception;
+        
+        /**
+         * 将对象写入指定路径
+         * @param target 目标路径
+         * @throws Exception 写入失败
+         */
+        void load(Path target) throws Exception;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,165 @@
+package com.codeutils.storage.cache;
+
+import com.codeutils.storage.config.StorageProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 签名链接缓存
+ * 以存储空间、对象名称和分桶后的有效期为键缓存签名后的临时链接，链接在有效期的指定比例内被复用，
+ * 超过容量时按最近最少使用淘汰
+ */
+public class PresignedUrlCache {
+    
+    private final boolean enabled;
+    private final double reuseRatio;
+    private final long expireBucketSeconds;
+    private final Map<String, CachedUrl> entries;
+    
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    
+    public PresignedUrlCache(StorageProperties.UrlCacheProperties urlCacheProperties) {
+        this.enabled = urlCacheProperties.isEnabled() && urlCacheProperties.getMaxSize() > 0;
+        this.reuseRatio = Math.min(Math.max(urlCacheProperties.getReuseRatio(), 0D), 1D);
+        this.expireBucketSeconds = urlCacheProperties.getExpireBucketSeconds();
+        int maxSize = urlCacheProperties.getMaxSize();
+        this.entries = new LinkedHashMap<String, CachedUrl>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedUrl> eldest) {
+                if (size() > maxSize) {
+                    evictionCount.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+    
+    /**
+     * 将有效期向下取整到分桶大小的整数倍，未启用缓存或有效期不足一个分桶时原样返回
+     * @param expireSeconds 申请的有效期（秒）
+     * @return 签名使用的有效期（秒）
+     */
+    public long bucketExpireSeconds(long expireSeconds) {
+        if (!enabled || expireBucketSeconds <= 0 || expireSeconds < expireBucketSeconds) {
+            return expireSeconds;
+        }
+        return expireSeconds - expireSeconds % expireBucketSeconds;
+    }
+    
+    /**
+     * 获取签名链接，缓存未命中或已超过复用期限时调用签名方法并缓存结果
+     * 调用方应先将文件URL规范化为对象名称，并用 {@link #bucketExpireSeconds(long)} 处理有效期，
+     * 同一对象的不同URL形式和相近的有效期才能命中同一条缓存
+     * @param namespace 命名空间，区分共用缓存的不同存储服务（如 oss:bucket）
+     * @param objectName 对象名称
+     * @param expireSeconds 链接有效期（秒）
+     * @param signer 签名方法
+     * @return 签名链接
+     * @throws Exception 签名失败
+     */
+    public String get(String namespace, String objectName, long expireSeconds, Callable<String> signer) throws Exception {
+        if (!enabled) {
+            return signer.call();
+        }
+        
+        String key = namespace + ":" + expireSeconds + ":" + objectName;
+        long now = System.currentTimeMillis();
+        CachedUrl cached;
+        synchronized (entries) {
+            cached = entries.get(key);
+        }
+        if (cached != null && now < cached.reuseUntil) {
+            hitCount.incrementAndGet();
+            return cached.url;
+        }
+        
+        missCount.incrementAndGet();
+        String url = signer.call();
+        long reuseUntil = now + (long) (expireSeconds * 1000 * reuseRatio);
+        synchronized (entries) {
+            entries.put(key, new CachedUrl(url, reuseUntil));
+        }
+        return url;
+    }
+    
+    /**
+     * 清空缓存
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+    
+    /**
+     * 是否启用
+     * @return 是否启用
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * 获取当前缓存条目数
+     * @return 缓存条目数
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+    
+    /**
+     * 获取命中次数
+     * @return 命中次数
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+    
+    /**
+     * 获取未命中次数
+     * @return 未命中次数
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+    
+    /**
+     * 获取淘汰次数
+     * @return 淘汰次数
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+    
+    /**
+     * 获取命中率
+     * @return 命中率，无请求时为0
+     */
+    public double getHitRate() {
+        long hits = hitCount.get();
+        long total = hits + missCount.get();
+        return total == 0 ? 0D : (double) hits / total;
+    }
+    
+    /**
+     * 缓存的签名链接
+     */
+    private static class CachedUrl {
+        
+        private final String url;
+        private final long reuseUntil;
+        
+        CachedUrl(String url, long reuseUntil) {
+            this.url = url;
+            this.reuseUntil = reuseUntil;
+        }
+    }
+}
\ No newline at end of file
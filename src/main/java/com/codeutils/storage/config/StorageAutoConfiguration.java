@@ -1,13 +1,26 @@
 package com.codeutils.storage.config;
 
 import com.codeutils.core.config.CodeUtilsProperties;
+import com.codeutils.storage.async.StorageTaskExecutor;
+import com.codeutils.storage.cache.PresignedUrlCache;
 import com.codeutils.storage.factory.StorageFactory;
+import com.codeutils.storage.factory.StorageServiceCustomizer;
+import com.codeutils.storage.multipart.SegmentedDownloader;
+import com.codeutils.storage.service.AsyncStorageService;
 import com.codeutils.storage.service.StorageService;
+import com.codeutils.storage.service.impl.AsyncStorageServiceImpl;
+import com.codeutils.storage.service.impl.MeteredStorageServiceImpl;
+import com.codeutils.storage.sync.DirectorySynchronizer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.stream.Collectors;
+
 /**
  * 存储服务自动配置类
  */
@@ -21,15 +34,69 @@ public class StorageAutoConfiguration {
         this.codeUtilsProperties = codeUtilsProperties;
     }
     
-    @Bean
+    @Bean(destroyMethod = "shutdown")
     @ConditionalOnMissingBean
-    public StorageFactory storageFactory() {
-        return new StorageFactory(codeUtilsProperties.getStorage());
+    public StorageFactory storageFactory(ObjectProvider<StorageServiceCustomizer> customizers) {
+        return new StorageFactory(codeUtilsProperties.getStorage(),
+            customizers.orderedStream().collect(Collectors.toList()));
     }
     
-    @Bean
+    /**
+     * 存储服务由工厂负责关闭
+     */
+    @Bean(destroyMethod = "")
     @ConditionalOnMissingBean
     public StorageService storageService(StorageFactory storageFactory) {
         return storageFactory.createStorageService();
     }
-} 
\ No newline at end of file
+    
+    @Bean
+    @ConditionalOnMissingBean
+    public PresignedUrlCache presignedUrlCache(StorageFactory storageFactory) {
+        return storageFactory.getPresignedUrlCache();
+    }
+    
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnMissingBean
+    public SegmentedDownloader segmentedDownloader(StorageService storageService) {
+        return new SegmentedDownloader(storageService, codeUtilsProperties.getStorage().getDownload());
+    }
+    
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnMissingBean
+    public DirectorySynchronizer directorySynchronizer(StorageService storageService) {
+        return new DirectorySynchronizer(storageService, codeUtilsProperties.getStorage().getSync());
+    }
+    
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnMissingBean
+    public StorageTaskExecutor storageTaskExecutor() {
+        return new StorageTaskExecutor(codeUtilsProperties.getStorage().getAsync());
+    }
+    
+    @Bean
+    @ConditionalOnMissingBean
+    public AsyncStorageService asyncStorageService(StorageService storageService,
+                                                   StorageTaskExecutor storageTaskExecutor) {
+        return new AsyncStorageServiceImpl(storageService, storageTaskExecutor);
+    }
+    
+    /**
+     * 存储监控指标配置，引入Micrometer且存在MeterRegistry时为每个存储类型添加监控指标
+     */
+    @Configuration
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    static class StorageMetricsConfiguration {
+        
+        @Bean
+        @ConditionalOnMissingBean(name = "storageMetricsCustomizer")
+        public StorageServiceCustomizer storageMetricsCustomizer(ObjectProvider<MeterRegistry> meterRegistry) {
+            return (type, storageService) -> {
+                MeterRegistry registry = meterRegistry.getIfAvailable();
+                return registry == null
+                    ? storageService
+                    : new MeteredStorageServiceImpl(storageService, registry, type);
+            };
+        }
+    }
+}
\ No newline at end of file
@@ -3,6 +3,9 @@ package com.codeutils.storage.config;
 import lombok.Data;
 import org.springframework.boot.context.properties.NestedConfigurationProperty;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * 文件存储配置属性
  */
@@ -10,7 +13,7 @@ import org.springframework.boot.context.properties.NestedConfigurationProperty;
 public class StorageProperties {
     
     /**
-     * 存储类型：oss(阿里云)、cos(腾讯云)、minio
+     * 存储类型：oss(阿里云)、cos(腾讯云)、minio、local(本地文件系统)、memory(内存)
      */
     private String type = "oss";
     
@@ -32,6 +35,90 @@ public class StorageProperties {
     @NestedConfigurationProperty
     private MinioProperties minio = new MinioProperties();
     
+    /**
+     * 本地文件系统配置
+     */
+    @NestedConfigurationProperty
+    private LocalProperties local = new LocalProperties();
+    
+    /**
+     * 内存存储配置
+     */
+    @NestedConfigurationProperty
+    private MemoryProperties memory = new MemoryProperties();
+    
+    /**
+     * 分片上传配置
+     */
+    @NestedConfigurationProperty
+    private MultipartProperties multipart = new MultipartProperties();
+    
+    /**
+     * 分段下载配置
+     */
+    @NestedConfigurationProperty
+    private DownloadProperties download = new DownloadProperties();
+    
+    /**
+     * 批量操作配置
+     */
+    @NestedConfigurationProperty
+    private BatchProperties batch = new BatchProperties();
+    
+    /**
+     * 异步存储服务配置
+     */
+    @NestedConfigurationProperty
+    private AsyncProperties async = new AsyncProperties();
+    
+    /**
+     * 签名链接缓存配置
+     */
+    @NestedConfigurationProperty
+    private UrlCacheProperties urlCache = new UrlCacheProperties();
+    
+    /**
+     * 本地磁盘缓存配置
+     */
+    @NestedConfigurationProperty
+    private CacheProperties cache = new CacheProperties();
+    
+    /**
+     * 内容寻址去重上传配置
+     */
+    @NestedConfigurationProperty
+    private DedupProperties dedup = new DedupProperties();
+    
+    /**
+     * 多存储复制配置
+     */
+    @NestedConfigurationProperty
+    private ReplicationProperties replication = new ReplicationProperties();
+    
+    /**
+     * 容错配置
+     */
+    @NestedConfigurationProperty
+    private ResilienceProperties resilience = new ResilienceProperties();
+    
+    /**
+     * 目录同步配置
+     */
+    @NestedConfigurationProperty
+    private SyncProperties sync = new SyncProperties();
+    
+    /**
+     * 客户端加密配置
+     */
+    @NestedConfigurationProperty
+    private EncryptionProperties encryption = new EncryptionProperties();
+    
+    /**
+     * 图片衍生图配置
+     */
+    @NestedConfigurationProperty
+    private ImageProperties image = new ImageProperties();
+    
     /**
      * 阿里云OSS配置
      */
@@ -56,6 +143,12 @@ public class StorageProperties {
          * 存储桶名称
          */
         private String bucketName;
+        
+        /**
+         * HTTP连接池和超时配置
+         */
+        @NestedConfigurationProperty
+        private HttpClientProperties http = new HttpClientProperties();
     }
     
     /**
@@ -82,6 +175,12 @@ public class StorageProperties {
          * 存储桶名称
          */
         private String bucketName;
+        
+        /**
+         * HTTP连接池和超时配置
+         */
+        @NestedConfigurationProperty
+        private HttpClientProperties http = new HttpClientProperties();
     }
     
     /**
@@ -108,5 +207,520 @@ public class StorageProperties {
          * 存储桶名称
          */
         private String bucketName;
+        
+        /**
+         * HTTP连接池和超时配置
+         */
+        @NestedConfigurationProperty
+        private HttpClientProperties http = new HttpClientProperties();
+    }
+    
+    /**
+     * HTTP连接池和超时配置
+     */
+    @Data
+    public static class HttpClientProperties {
+        /**
+         * 最大连接数
+         */
+        private int maxConnections = 1024;
+        
+        /**
+         * 建立连接超时时间（毫秒）
+         */
+        private int connectTimeoutMillis = 10000;
+        
+        /**
+         * 读写数据超时时间（毫秒）
+         */
+        private int socketTimeoutMillis = 50000;
+        
+        /**
+         * 从连接池获取连接的超时时间（毫秒），MinIO不支持
+         */
+        private int connectionRequestTimeoutMillis = 5000;
+        
+        /**
+         * 空闲连接保活时间（毫秒），超过后被关闭
+         */
+        private long idleConnectionTimeMillis = 60000;
+        
+        /**
+         * 保留的最大空闲连接数，仅MinIO使用，其余存储由连接池按最大连接数管理
+         */
+        private int maxIdleConnections = 64;
+    }
+    
+    /**
+     * 本地文件系统配置
+     */
+    @Data
+    public static class LocalProperties {
+        /**
+         * 存储根目录
+         */
+        private String rootPath = "./storage";
+        
+        /**
+         * 访问地址前缀，如 https://static.example.com/files
+         */
+        private String baseUrl = "";
+        
+        /**
+         * 临时链接签名密钥，为空时每次启动随机生成
+         */
+        private String secretKey;
+    }
+    
+    /**
+     * 内存存储配置
+     */
+    @Data
+    public static class MemoryProperties {
+        /**
+         * 总容量上限（字节），超出时按最近最少使用淘汰
+         */
+        private long maxSize = 256L * 1024 * 1024;
+        
+        /**
+         * 访问地址前缀
+         */
+        private String baseUrl = "memory://";
+        
+        /**
+         * 临时链接签名密钥，为空时每次启动随机生成
+         */
+        private String secretKey;
+    }
+    
+    /**
+     * 分片上传配置
+     */
+    @Data
+    public static class MultipartProperties {
+        /**
+         * 分片大小（字节），最小5MB
+         */
+        private long partSize = 8 * 1024 * 1024;
+        
+        /**
+         * 分片缓冲池容量，流式上传占用的堆内存上限为 partSize * bufferPoolSize
+         */
+        private int bufferPoolSize = 4;
+        
+        /**
+         * 本地文件启用并发分片上传的大小阈值（字节）
+         */
+        private long threshold = 32 * 1024 * 1024;
+        
+        /**
+         * 分片并发上传线程数
+         */
+        private int concurrency = 4;
+        
+        /**
+         * 单个分片上传失败后的重试次数
+         */
+        private int maxRetries = 2;
+        
+        /**
+         * 分片重试的初始退避时间（毫秒），每次重试翻倍并加入随机抖动
+         */
+        private long retryBackoffMillis = 200;
+        
+        /**
+         * 本地文件分片上传失败后保留已上传分片的时间（秒），期间以相同对象名重新上传同一文件时从上次成功的分片继续；
+         * 为0时失败后立即取消分片上传
+         */
+        private long resumeTtlSeconds = 3600;
+    }
+    
+    /**
+     * 分段下载配置
+     */
+    @Data
+    public static class DownloadProperties {
+        /**
+         * 分段大小（字节）
+         */
+        private long segmentSize = 8 * 1024 * 1024;
+        
+        /**
+         * 分段并发下载线程数
+         */
+        private int concurrency = 4;
+    }
+    
+    /**
+     * 批量操作配置
+     */
+    @Data
+    public static class BatchProperties {
+        /**
+         * 批量查询文件信息时的并发请求数
+         */
+        private int concurrency = 16;
+        
+        /**
+         * 列举对象时的单页大小，最大1000
+         */
+        private int listPageSize = 1000;
+        
+        /**
+         * 列举对象时是否在消费当前页的同时预取下一页
+         */
+        private boolean listPrefetch = true;
+    }
+    
+    /**
+     * 异步存储服务配置
+     */
+    @Data
+    public static class AsyncProperties {
+        /**
+         * 核心线程数
+         */
+        private int corePoolSize = 4;
+        
+        /**
+         * 最大线程数
+         */
+        private int maxPoolSize = 16;
+        
+        /**
+         * 等待队列容量，队列满时新任务被拒绝
+         */
+        private int queueCapacity = 1000;
+        
+        /**
+         * 空闲线程存活时间（秒）
+         */
+        private long keepAliveSeconds = 60;
+    }
+    
+    /**
+     * 签名链接缓存配置
+     */
+    @Data
+    public static class UrlCacheProperties {
+        /**
+         * 是否启用，启用后返回的链接剩余有效期不少于分桶后有效期的 (1 - reuseRatio)
+         */
+        private boolean enabled = false;
+        
+        /**
+         * 最大缓存条目数
+         */
+        private int maxSize = 10000;
+        
+        /**
+         * 复用比例，链接在有效期的该比例之内被复用，超过后重新签名
+         */
+        private double reuseRatio = 0.5;
+        
+        /**
+         * 有效期分桶大小（秒），有效期向下取整到该值的整数倍后再签名和缓存，
+         * 使不同有效期的请求共用链接；小于等于0时不分桶
+         */
+        private long expireBucketSeconds = 60;
+    }
+    
+    /**
+     * 本地磁盘缓存配置
+     */
+    @Data
+    public static class CacheProperties {
+        /**
+         * 是否启用，启用后下载的文件缓存到本地磁盘，适用于模板、图标等不会被覆盖的热点文件
+         */
+        private boolean enabled = false;
+        
+        /**
+         * 缓存目录
+         */
+        private String directory = System.getProperty("java.io.tmpdir") + "/codeutils-storage-cache";
+        
+        /**
+         * 缓存总大小上限（字节）
+         */
+        private long maxSize = 1024L * 1024 * 1024;
+        
+        /**
+         * 单个文件大小上限（字节），超过的文件不缓存
+         */
+        private long maxObjectSize = 64L * 1024 * 1024;
+    }
+    
+    /**
+     * 内容寻址去重上传配置
+     * 开启后未指定文件名的上传以内容的SHA-256摘要命名，相同内容只存储一份；
+     * 同一对象可能被多处引用，删除前需确认没有其他引用
+     */
+    @Data
+    public static class DedupProperties {
+        /**
+         * 是否开启去重上传
+         */
+        private boolean enabled = false;
+        
+        /**
+         * 去重对象的名称前缀，上传时指定了路径则使用该路径
+         */
+        private String prefix = "cas/";
+        
+        /**
+         * 内容不超过该大小时在内存中暂存，否则暂存到临时文件（字节）
+         */
+        private long memoryThreshold = 1024 * 1024;
+        
+        /**
+         * 临时文件目录
+         */
+        private String spoolDirectory = System.getProperty("java.io.tmpdir");
+    }
+    
+    /**
+     * 多存储复制配置
+     * 写入主存储后异步复制到从存储；读取主存储超过分位数延迟时向从存储发起对冲请求，主存储失败时切换到从存储
+     */
+    @Data
+    public static class ReplicationProperties {
+        /**
+         * 是否开启多存储复制，主存储为 type 指定的存储
+         */
+        private boolean enabled = false;
+        
+        /**
+         * 从存储类型列表，如 minio，使用对应存储类型的配置
+         */
+        private List<String> secondaries = new ArrayList<>();
+        
+        /**
+         * 是否开启对冲读取
+         */
+        private boolean hedgeEnabled = true;
+        
+        /**
+         * 触发对冲读取的主存储延迟分位数
+         */
+        private double hedgePercentile = 0.95;
+        
+        /**
+         * 对冲等待时间下限（毫秒）
+         */
+        private long hedgeMinDelayMillis = 20;
+        
+        /**
+         * 统计延迟的滑动窗口大小（样本数）
+         */
+        private int latencyWindowSize = 1024;
+        
+        /**
+         * 读取线程数上限，线程用尽时直接在调用线程读取主存储
+         */
+        private int readConcurrency = 64;
+        
+        /**
+         * 异步复制线程数，同一对象的复制和删除固定由其中一个线程按顺序执行
+         */
+        private int replicationConcurrency = 4;
+        
+        /**
+         * 异步复制队列总容量，平均分配给各复制线程，队列满时放弃复制并记录为待修复
+         */
+        private int replicationQueueCapacity = 10000;
+        
+        /**
+         * 每个从存储复制或删除的最大尝试次数，均失败后记录为待修复
+         */
+        private int replicationMaxAttempts = 3;
+        
+        /**
+         * 复制重试的初始退避时间（毫秒）
+         */
+        private long replicationBackoffMillis = 200;
+        
+        /**
+         * 每个从存储最多记录的待修复对象数，超出后只计入失败次数
+         */
+        private int failedRecordCapacity = 10000;
+        
+        /**
+         * 主存储读回的内容不超过该大小时在内存中暂存，否则暂存到临时文件（字节）
+         */
+        private long memoryThreshold = 1024 * 1024;
+        
+        /**
+         * 临时文件目录
+         */
+        private String spoolDirectory = System.getProperty("java.io.tmpdir");
+    }
+    
+    /**
+     * 容错配置
+     * 每个存储后端一个熔断器，失败率超过阈值时快速失败；幂等操作遇到暂时性故障时按带抖动的指数退避重试
+     */
+    @Data
+    public static class ResilienceProperties {
+        /**
+         * 是否开启重试和熔断
+         */
+        private boolean enabled = false;
+        
+        /**
+         * 幂等操作的最大尝试次数（含首次）
+         */
+        private int maxAttempts = 3;
+        
+        /**
+         * 初始退避时间（毫秒）
+         */
+        private long initialBackoffMillis = 100;
+        
+        /**
+         * 退避时间上限（毫秒）
+         */
+        private long maxBackoffMillis = 5000;
+        
+        /**
+         * 退避时间倍数
+         */
+        private double backoffMultiplier = 2.0;
+        
+        /**
+         * 熔断失败率阈值，0到1之间
+         */
+        private double failureRateThreshold = 0.5;
+        
+        /**
+         * 计算失败率所需的最少调用次数
+         */
+        private int minimumCalls = 20;
+        
+        /**
+         * 统计失败率的滑动窗口大小（调用次数）
+         */
+        private int slidingWindowSize = 100;
+        
+        /**
+         * 熔断打开时长（毫秒），之后进入半开状态放行试探调用
+         */
+        private long openDurationMillis = 30000;
+        
+        /**
+         * 半开状态放行的试探调用数，全部成功后关闭熔断
+         */
+        private int halfOpenPermittedCalls = 5;
+    }
+    
+    /**
+     * 目录同步配置
+     */
+    @Data
+    public static class SyncProperties {
+        /**
+         * 同时比较和上传的文件数
+         */
+        private int concurrency = 8;
+        
+        /**
+         * 大小相同且远端ETag为内容MD5时是否按MD5比较，关闭或ETag不可用时按修改时间比较
+         */
+        private boolean checksum = true;
+        
+        /**
+         * 默认是否删除本地已不存在的远端对象
+         */
+        private boolean deleteOrphans = false;
+    }
+    
+    /**
+     * 客户端加密配置
+     * 每个对象使用独立的数据密钥分块加密，数据密钥由主密钥加密后保存在对象头部
+     */
+    @Data
+    public static class EncryptionProperties {
+        /**
+         * 是否开启客户端加密
+         */
+        private boolean enabled = false;
+        
+        /**
+         * Base64编码的主密钥（128、192或256位），可通过 AESUtils.generateKey(256) 生成
+         */
+        private String masterKey;
+    }
+    
+    /**
+     * 图片衍生图配置
+     * 原图上传成功后在有界线程池中生成缩略图等衍生图，衍生图对象名为 原对象名去掉扩展名 + "_" + 名称 + "." + 格式
+     */
+    @Data
+    public static class ImageProperties {
+        /**
+         * 是否开启衍生图生成
+         */
+        private boolean enabled = false;
+        
+        /**
+         * 解码和缩放的线程数
+         */
+        private int concurrency = 2;
+        
+        /**
+         * 等待生成的原图数量上限，队列满时放弃生成并计入拒绝次数
+         */
+        private int queueCapacity = 32;
+        
+        /**
+         * 衍生图上传线程数
+         */
+        private int uploadConcurrency = 4;
+        
+        /**
+         * 生成衍生图的原图大小上限（字节），超过时不生成
+         */
+        private long maxSourceBytes = 10 * 1024 * 1024;
+        
+        /**
+         * 原图像素数上限，超过时不解码，防止解压炸弹
+         */
+        private long maxSourcePixels = 40_000_000L;
+        
+        /**
+         * 衍生图列表
+         */
+        private List<DerivativeProperties> derivatives = new ArrayList<>();
+    }
+    
+    /**
+     * 衍生图配置
+     */
+    @Data
+    public static class DerivativeProperties {
+        /**
+         * 名称，如 thumb
+         */
+        private String name;
+        
+        /**
+         * 最大宽度，0表示不限制；按比例缩放到不超过宽高限制，不放大
+         */
+        private int width;
+        
+        /**
+         * 最大高度，0表示不限制
+         */
+        private int height;
+        
+        /**
+         * 输出格式，需有对应的ImageIO写入器，如 jpg、png
+         */
+        private String format = "jpg";
+        
+        /**
+         * JPEG压缩质量，0到1之间
+         */
+        private float quality = 0.85f;
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.codeutils.storage.crypto;
+
+import javax.crypto.SecretKey;
+
+/**
+ * 单个对象的数据密钥及分块加密参数，解析自对象头部
+ */
+final class DataKey {
+    
+    final SecretKey secretKey;
+    final byte[] noncePrefix;
+    final int chunkSize;
+    
+    DataKey(SecretKey secretKey, byte[] noncePrefix, int chunkSize) {
+        this.secretKey = secretKey;
+        this.noncePrefix = noncePrefix;
+        this.chunkSize = chunkSize;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,119 @@
+package com.codeutils.storage.crypto;
+
+import org.apache.commons.io.IOUtils;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.security.GeneralSecurityException;
+
+/**
+ * 分块解密输入流，逐块读取密文并校验认证标签
+ * 最后一块的序号已知时（按范围读取）直接按序号判断，否则读满一块后预读一个字节判断是否已到末尾
+ */
+class DecryptingInputStream extends InputStream {
+    
+    private final PushbackInputStream in;
+    private final DataKey key;
+    private final long finalChunkIndex;
+    private final Cipher cipher;
+    private final byte[] cipherBuffer;
+    private final byte[] plainBuffer;
+    private int position;
+    private int limit;
+    private long chunkIndex;
+    private boolean finished;
+    
+    /**
+     * @param in 从某一分块开始的密文
+     * @param key 数据密钥
+     * @param firstChunkIndex 第一个分块的序号
+     * @param finalChunkIndex 对象最后一个分块的序号，未知时为-1
+     */
+    DecryptingInputStream(InputStream in, DataKey key, long firstChunkIndex, long finalChunkIndex) {
+        this.in = new PushbackInputStream(in, 1);
+        this.key = key;
+        this.chunkIndex = firstChunkIndex;
+        this.finalChunkIndex = finalChunkIndex;
+        try {
+            this.cipher = Cipher.getInstance(EnvelopeEncryption.CIPHER_ALGORITHM);
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("初始化解密算法失败", e);
+        }
+        this.cipherBuffer = new byte[key.chunkSize + EnvelopeEncryption.TAG_LENGTH];
+        this.plainBuffer = new byte[key.chunkSize];
+    }
+    
+    @Override
+    public int read() throws IOException {
+        if (position >= limit && !nextChunk()) {
+            return -1;
+        }
+        return plainBuffer[position++] & 0xFF;
+    }
+    
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (position >= limit && !nextChunk()) {
+            return -1;
+        }
+        int count = Math.min(len, limit - position);
+        System.arraycopy(plainBuffer, position, b, off, count);
+        position += count;
+        return count;
+    }
+    
+    @Override
+    public int available() {
+        return limit - position;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+    
+    private boolean nextChunk() throws IOException {
+        if (finished) {
+            return false;
+        }
+        int length = IOUtils.read(in, cipherBuffer);
+        if (length == 0 && finalChunkIndex >= 0) {
+            // 按范围读取时读到范围末尾即结束
+            finished = true;
+            return false;
+        }
+        if (length < EnvelopeEncryption.TAG_LENGTH) {
+            throw new IOException("加密数据不完整");
+        }
+        boolean last;
+        if (finalChunkIndex >= 0) {
+            last = chunkIndex == finalChunkIndex;
+        } else if (length < cipherBuffer.length) {
+            last = true;
+        } else {
+            int next = in.read();
+            last = next < 0;
+            if (!last) {
+                in.unread(next);
+            }
+        }
+        try {
+            cipher.init(Cipher.DECRYPT_MODE, key.secretKey, new GCMParameterSpec(
+                EnvelopeEncryption.TAG_LENGTH_BITS, EnvelopeEncryption.chunkIv(key.noncePrefix, chunkIndex)));
+            cipher.updateAAD(EnvelopeEncryption.chunkAad(last));
+            limit = cipher.doFinal(cipherBuffer, 0, length, plainBuffer, 0);
+        } catch (GeneralSecurityException e) {
+            throw new IOException("解密失败，数据被篡改或截断", e);
+        }
+        position = 0;
+        chunkIndex++;
+        finished = last;
+        return limit > 0 || nextChunk();
+    }
+}
\ No newline at end of file
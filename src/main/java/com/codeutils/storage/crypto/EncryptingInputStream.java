@@ -0,0 +1,102 @@
+package com.codeutils.storage.crypto;
+
+import org.apache.commons.io.IOUtils;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.GeneralSecurityException;
+
+/**
+ * 分块加密输入流，先输出对象头部，再逐块读取明文并输出密文
+ * 读满一块后预读一个字节判断是否为最后一块，预读的字节留到下一块
+ */
+class EncryptingInputStream extends InputStream {
+    
+    private final InputStream in;
+    private final DataKey key;
+    private final Cipher cipher;
+    private final byte[] plainBuffer;
+    private final byte[] outBuffer;
+    private int position;
+    private int limit;
+    private long chunkIndex;
+    private int carry = -1;
+    private boolean finished;
+    
+    EncryptingInputStream(InputStream in, byte[] header, DataKey key) {
+        this.in = in;
+        this.key = key;
+        try {
+            this.cipher = Cipher.getInstance(EnvelopeEncryption.CIPHER_ALGORITHM);
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("初始化加密算法失败", e);
+        }
+        this.plainBuffer = new byte[key.chunkSize];
+        this.outBuffer = new byte[Math.max(key.chunkSize + EnvelopeEncryption.TAG_LENGTH, header.length)];
+        System.arraycopy(header, 0, outBuffer, 0, header.length);
+        this.limit = header.length;
+    }
+    
+    @Override
+    public int read() throws IOException {
+        if (position >= limit && !nextChunk()) {
+            return -1;
+        }
+        return outBuffer[position++] & 0xFF;
+    }
+    
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (position >= limit && !nextChunk()) {
+            return -1;
+        }
+        int count = Math.min(len, limit - position);
+        System.arraycopy(outBuffer, position, b, off, count);
+        position += count;
+        return count;
+    }
+    
+    @Override
+    public int available() {
+        return limit - position;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+    
+    private boolean nextChunk() throws IOException {
+        if (finished) {
+            return false;
+        }
+        int length = 0;
+        if (carry >= 0) {
+            plainBuffer[length++] = (byte) carry;
+            carry = -1;
+        }
+        length += IOUtils.read(in, plainBuffer, length, plainBuffer.length - length);
+        boolean last = length < plainBuffer.length;
+        if (!last) {
+            carry = in.read();
+            last = carry < 0;
+        }
+        try {
+            cipher.init(Cipher.ENCRYPT_MODE, key.secretKey, new GCMParameterSpec(
+                EnvelopeEncryption.TAG_LENGTH_BITS, EnvelopeEncryption.chunkIv(key.noncePrefix, chunkIndex)));
+            cipher.updateAAD(EnvelopeEncryption.chunkAad(last));
+            limit = cipher.doFinal(plainBuffer, 0, length, outBuffer, 0);
+        } catch (GeneralSecurityException e) {
+            throw new IOException("分块加密失败", e);
+        }
+        position = 0;
+        chunkIndex++;
+        finished = last;
+        return true;
+    }
+}
\ No newline at end of file
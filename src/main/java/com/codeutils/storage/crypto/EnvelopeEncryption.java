@@ -0,0 +1,242 @@
+package com.codeutils.storage.crypto;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * 信封加密
+ * 每个对象生成独立的256位数据密钥，数据密钥由主密钥以AES-GCM加密后写入对象头部；
+ * 对象内容按固定大小分块，每块以数据密钥单独做AES-GCM加密，加解密只占用一个分块的缓冲区。
+ * <p>
+ * 对象格式：魔数(4) | 分块大小(4) | 随机数前缀(8) | 密钥IV(12) | 加密的数据密钥(48) | 分块1 | 分块2 | ...，
+ * 每个分块为密文加16字节认证标签。分块IV由随机数前缀和分块序号组成，附加数据标记是否为最后一块，
+ * 分块被调换、删除或截断时认证失败
+ */
+public class EnvelopeEncryption {
+    
+    /**
+     * 明文分块大小（64KB）
+     */
+    public static final int CHUNK_SIZE = 64 * 1024;
+    
+    static final String CIPHER_ALGORITHM = "AES/GCM/NoPadding";
+    static final int TAG_LENGTH = 16;
+    static final int TAG_LENGTH_BITS = TAG_LENGTH * 8;
+    static final int NONCE_PREFIX_LENGTH = 8;
+    
+    private static final String KEY_ALGORITHM = "AES";
+    private static final byte[] MAGIC = {'C', 'U', 'E', 1};
+    private static final int DATA_KEY_LENGTH = 32;
+    private static final int KEY_IV_LENGTH = 12;
+    
+    /**
+     * 加密数据密钥时作为附加数据的头部前缀：魔数、分块大小、随机数前缀
+     */
+    private static final int AAD_LENGTH = MAGIC.length + 4 + NONCE_PREFIX_LENGTH;
+    
+    /**
+     * 对象头部长度
+     */
+    public static final int HEADER_LENGTH = AAD_LENGTH + KEY_IV_LENGTH + DATA_KEY_LENGTH + TAG_LENGTH;
+    
+    /**
+     * 加密对象的最小长度，即空内容加密后的长度
+     */
+    public static final int MIN_CIPHERTEXT_LENGTH = HEADER_LENGTH + TAG_LENGTH;
+    
+    private final SecretKey masterKey;
+    private final SecureRandom secureRandom = new SecureRandom();
+    
+    /**
+     * @param masterKey Base64编码的主密钥，长度为128、192或256位
+     */
+    public EnvelopeEncryption(String masterKey) {
+        if (!StringUtils.hasText(masterKey)) {
+            throw new IllegalArgumentException("未配置加密主密钥");
+        }
+        byte[] key = Base64.getDecoder().decode(masterKey.trim());
+        if (key.length != 16 && key.length != 24 && key.length != 32) {
+            throw new IllegalArgumentException("加密主密钥长度必须为128、192或256位");
+        }
+        this.masterKey = new SecretKeySpec(key, KEY_ALGORITHM);
+    }
+    
+    /**
+     * 加密输入流，返回的流依次输出对象头部和各分块密文
+     * @param plaintext 明文输入流，关闭返回的流时一并关闭
+     * @return 密文输入流
+     */
+    public InputStream encrypt(InputStream plaintext) {
+        byte[] dataKey = new byte[DATA_KEY_LENGTH];
+        byte[] noncePrefix = new byte[NONCE_PREFIX_LENGTH];
+        byte[] keyIv = new byte[KEY_IV_LENGTH];
+        secureRandom.nextBytes(dataKey);
+        secureRandom.nextBytes(noncePrefix);
+        secureRandom.nextBytes(keyIv);
+        
+        ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+        header.put(MAGIC).putInt(CHUNK_SIZE).put(noncePrefix).put(keyIv);
+        try {
+            Cipher cipher = Cipher.getInstance(CIPHER_ALGORITHM);
+            cipher.init(Cipher.ENCRYPT_MODE, masterKey, new GCMParameterSpec(TAG_LENGTH_BITS, keyIv));
+            cipher.updateAAD(header.array(), 0, AAD_LENGTH);
+            header.put(cipher.doFinal(dataKey));
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("加密数据密钥失败", e);
+        }
+        DataKey key = new DataKey(new SecretKeySpec(dataKey, KEY_ALGORITHM), noncePrefix, CHUNK_SIZE);
+        return new EncryptingInputStream(plaintext, header.array(), key);
+    }
+    
+    /**
+     * 解密完整对象的输入流
+     * @param ciphertext 密文输入流，关闭返回的流时一并关闭
+     * @return 明文输入流，读取到被篡改或截断的数据时抛出IOException
+     * @throws IOException 头部无效或数据密钥解密失败
+     */
+    public InputStream decrypt(InputStream ciphertext) throws IOException {
+        return new DecryptingInputStream(ciphertext, readHeader(ciphertext), 0, -1);
+    }
+    
+    /**
+     * 按明文范围解密，只读取覆盖该范围的分块
+     * @param reader 密文范围读取
+     * @param ciphertextLength 密文总长度
+     * @param offset 明文起始位置
+     * @param length 明文读取长度，小于0时读取到末尾
+     * @return 明文输入流
+     * @throws IOException 读取或解密失败
+     */
+    public InputStream decryptRange(RangeReader reader, long ciphertextLength, long offset, long length)
+        throws IOException {
+        long plaintextLength = plaintextLength(ciphertextLength);
+        if (offset < 0 || offset > plaintextLength) {
+            throw new IllegalArgumentException("读取位置超出文件范围: " + offset);
+        }
+        long end = length < 0 ? plaintextLength : Math.min(plaintextLength, offset + length);
+        
+        DataKey key;
+        try (InputStream headerStream = reader.read(0, HEADER_LENGTH)) {
+            key = readHeader(headerStream);
+        }
+        if (end == offset) {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+        
+        long encryptedChunkSize = CHUNK_SIZE + TAG_LENGTH;
+        long firstChunk = offset / CHUNK_SIZE;
+        long lastChunk = (end - 1) / CHUNK_SIZE;
+        long start = HEADER_LENGTH + firstChunk * encryptedChunkSize;
+        long stop = Math.min(ciphertextLength, HEADER_LENGTH + (lastChunk + 1) * encryptedChunkSize);
+        
+        InputStream decrypted = new DecryptingInputStream(reader.read(start, stop - start), key,
+            firstChunk, chunkCount(plaintextLength) - 1);
+        try {
+            IOUtils.skipFully(decrypted, offset - firstChunk * CHUNK_SIZE);
+        } catch (IOException e) {
+            decrypted.close();
+            throw e;
+        }
+        return new BoundedInputStream(decrypted, end - offset);
+    }
+    
+    /**
+     * 计算密文长度
+     * @param plaintextLength 明文长度
+     * @return 密文长度
+     */
+    public long ciphertextLength(long plaintextLength) {
+        return HEADER_LENGTH + plaintextLength + chunkCount(plaintextLength) * TAG_LENGTH;
+    }
+    
+    /**
+     * 根据密文长度计算明文长度
+     * @param ciphertextLength 密文长度
+     * @return 明文长度
+     */
+    public long plaintextLength(long ciphertextLength) {
+        long body = ciphertextLength - HEADER_LENGTH;
+        if (ciphertextLength < MIN_CIPHERTEXT_LENGTH) {
+            throw new IllegalArgumentException("不是有效的加密对象，长度: " + ciphertextLength);
+        }
+        long chunks = (body + CHUNK_SIZE + TAG_LENGTH - 1) / (CHUNK_SIZE + TAG_LENGTH);
+        return body - chunks * TAG_LENGTH;
+    }
+    
+    /**
+     * 明文对应的分块数，空内容也有一个分块
+     */
+    private long chunkCount(long plaintextLength) {
+        return Math.max((plaintextLength + CHUNK_SIZE - 1) / CHUNK_SIZE, 1);
+    }
+    
+    /**
+     * 读取对象头部并解密数据密钥
+     */
+    private DataKey readHeader(InputStream inputStream) throws IOException {
+        byte[] header = new byte[HEADER_LENGTH];
+        if (IOUtils.read(inputStream, header) != HEADER_LENGTH
+            || !Arrays.equals(Arrays.copyOf(header, MAGIC.length), MAGIC)) {
+            throw new IOException("不是有效的加密对象");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(header, MAGIC.length, HEADER_LENGTH - MAGIC.length);
+        int chunkSize = buffer.getInt();
+        if (chunkSize != CHUNK_SIZE) {
+            throw new IOException("不支持的加密分块大小: " + chunkSize);
+        }
+        byte[] noncePrefix = new byte[NONCE_PREFIX_LENGTH];
+        byte[] keyIv = new byte[KEY_IV_LENGTH];
+        buffer.get(noncePrefix).get(keyIv);
+        try {
+            Cipher cipher = Cipher.getInstance(CIPHER_ALGORITHM);
+            cipher.init(Cipher.DECRYPT_MODE, masterKey, new GCMParameterSpec(TAG_LENGTH_BITS, keyIv));
+            cipher.updateAAD(header, 0, AAD_LENGTH);
+            byte[] dataKey = cipher.doFinal(header, buffer.position(), buffer.remaining());
+            return new DataKey(new SecretKeySpec(dataKey, KEY_ALGORITHM), noncePrefix, chunkSize);
+        } catch (GeneralSecurityException e) {
+            throw new IOException("解密数据密钥失败，主密钥不匹配或头部被篡改", e);
+        }
+    }
+    
+    /**
+     * 分块IV：随机数前缀(8) + 分块序号(4)
+     */
+    static byte[] chunkIv(byte[] noncePrefix, long chunkIndex) {
+        return ByteBuffer.allocate(NONCE_PREFIX_LENGTH + 4).put(noncePrefix).putInt((int) chunkIndex).array();
+    }
+    
+    /**
+     * 分块附加数据，标记是否为最后一块
+     */
+    static byte[] chunkAad(boolean last) {
+        return new byte[]{(byte) (last ? 1 : 0)};
+    }
+    
+    /**
+     * 密文范围读取
+     */
+    public interface RangeReader {
+        
+        /**
+         * 读取密文的指定范围
+         * @param offset 起始位置
+         * @param length 长度
+         * @return 输入流
+         */
+        InputStream read(long offset, long length);
+    }
+}
\ No newline at end of file
@@ -1,10 +1,28 @@
 package com.codeutils.storage.factory;
 
+import com.codeutils.storage.batch.BatchExecutor;
+import com.codeutils.storage.cache.PresignedUrlCache;
 import com.codeutils.storage.config.StorageProperties;
+import com.codeutils.storage.crypto.EnvelopeEncryption;
+import com.codeutils.storage.image.ImageDerivativeGenerator;
 import com.codeutils.storage.service.StorageService;
+import com.codeutils.storage.service.impl.CachingStorageServiceImpl;
 import com.codeutils.storage.service.impl.CosStorageServiceImpl;
+import com.codeutils.storage.service.impl.DeduplicatingStorageServiceImpl;
+import com.codeutils.storage.service.impl.DerivativeStorageServiceImpl;
+import com.codeutils.storage.service.impl.EncryptingStorageServiceImpl;
+import com.codeutils.storage.service.impl.LocalStorageServiceImpl;
+import com.codeutils.storage.service.impl.MemoryStorageServiceImpl;
 import com.codeutils.storage.service.impl.MinioStorageServiceImpl;
 import com.codeutils.storage.service.impl.OssStorageServiceImpl;
+import com.codeutils.storage.service.impl.ReplicatedStorageServiceImpl;
+import com.codeutils.storage.service.impl.ResilientStorageServiceImpl;
+import okhttp3.OkHttpClient;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * 存储服务工厂类
@@ -12,9 +30,29 @@ import com.codeutils.storage.service.impl.OssStorageServiceImpl;
 public class StorageFactory {
     
     private final StorageProperties storageProperties;
+    private final PresignedUrlCache presignedUrlCache;
+    private final BatchExecutor batchExecutor;
+    private final List<StorageServiceCustomizer> customizers;
+    
+    /**
+     * 由本工厂创建的存储服务，关闭工厂时统一释放
+     */
+    private final List<StorageService> createdServices = new CopyOnWriteArrayList<>();
+    
+    /**
+     * 所有MinIO存储服务共享的HTTP客户端，首次创建MinIO存储服务时初始化
+     */
+    private OkHttpClient minioHttpClient;
     
     public StorageFactory(StorageProperties storageProperties) {
+        this(storageProperties, Collections.emptyList());
+    }
+    
+    public StorageFactory(StorageProperties storageProperties, List<StorageServiceCustomizer> customizers) {
         this.storageProperties = storageProperties;
+        this.customizers = new ArrayList<>(customizers);
+        this.presignedUrlCache = new PresignedUrlCache(storageProperties.getUrlCache());
+        this.batchExecutor = new BatchExecutor(storageProperties.getBatch());
     }
     
     /**
@@ -22,17 +60,115 @@ public class StorageFactory {
      * @return 存储服务实现
      */
     public StorageService createStorageService() {
-        String type = storageProperties.getType();
+        StorageService storageService = createStorageService(storageProperties.getType());
         
+        StorageProperties.ReplicationProperties replication = storageProperties.getReplication();
+        if (replication.isEnabled() && !replication.getSecondaries().isEmpty()) {
+            List<StorageService> secondaries = new ArrayList<>();
+            for (String type : replication.getSecondaries()) {
+                secondaries.add(createStorageService(type));
+            }
+            storageService = register(new ReplicatedStorageServiceImpl(storageService, secondaries, replication));
+        }
+        if (storageProperties.getCache().isEnabled()) {
+            storageService = register(new CachingStorageServiceImpl(storageService, storageProperties.getCache()));
+        }
+        // 加密位于缓存之外，本地磁盘缓存和各存储中保存的都是密文
+        if (storageProperties.getEncryption().isEnabled()) {
+            storageService = register(new EncryptingStorageServiceImpl(storageService,
+                new EnvelopeEncryption(storageProperties.getEncryption().getMasterKey())));
+        }
+        // 去重位于加密之外，按明文摘要命名对象；每次加密的密文都不同，在加密之内去重永远不会命中
+        if (storageProperties.getDedup().isEnabled()) {
+            storageService = register(
+                new DeduplicatingStorageServiceImpl(storageService, storageProperties.getDedup()));
+        }
+        // 衍生图需要读取明文原图，位于加密之外；衍生图经由下层服务上传，同样会被加密和复制
+        StorageProperties.ImageProperties image = storageProperties.getImage();
+        if (image.isEnabled() && !image.getDerivatives().isEmpty()) {
+            storageService = register(new DerivativeStorageServiceImpl(storageService,
+                new ImageDerivativeGenerator(storageService, image)));
+        }
+        return storageService;
+    }
+    
+    /**
+     * 创建指定类型的存储服务实例，只附加容错装饰并应用定制器，不附加缓存等装饰
+     * @param type 存储类型
+     * @return 存储服务实现
+     */
+    public StorageService createStorageService(String type) {
+        StorageService storageService = doCreateStorageService(type);
+        if (storageProperties.getResilience().isEnabled()) {
+            storageService = register(
+                new ResilientStorageServiceImpl(storageService, storageProperties.getResilience(), type));
+        }
+        for (StorageServiceCustomizer customizer : customizers) {
+            StorageService customized = customizer.customize(type, storageService);
+            if (customized != storageService) {
+                storageService = register(customized);
+            }
+        }
+        return storageService;
+    }
+    
+    private StorageService doCreateStorageService(String type) {
         switch (type.toLowerCase()) {
             case "oss":
-                return new OssStorageServiceImpl(storageProperties.getOss());
+                return register(new OssStorageServiceImpl(storageProperties.getOss(),
+                    storageProperties.getMultipart(), presignedUrlCache, batchExecutor));
             case "cos":
-                return new CosStorageServiceImpl(storageProperties.getCos());
+                return register(new CosStorageServiceImpl(storageProperties.getCos(),
+                    storageProperties.getMultipart(), presignedUrlCache, batchExecutor));
             case "minio":
-                return new MinioStorageServiceImpl(storageProperties.getMinio());
+                return register(new MinioStorageServiceImpl(storageProperties.getMinio(),
+                    storageProperties.getMultipart(), presignedUrlCache, batchExecutor, getMinioHttpClient()));
+            case "local":
+                return register(new LocalStorageServiceImpl(storageProperties.getLocal()));
+            case "memory":
+                return register(new MemoryStorageServiceImpl(storageProperties.getMemory()));
             default:
                 throw new IllegalArgumentException("不支持的存储类型: " + type);
         }
     }
-} 
\ No newline at end of file
+    
+    /**
+     * 关闭本工厂创建的所有存储服务及共享的线程池和HTTP客户端
+     */
+    public synchronized void shutdown() {
+        // 先关闭装饰类，再关闭被装饰的存储服务
+        for (int i = createdServices.size() - 1; i >= 0; i--) {
+            try {
+                createdServices.get(i).shutdown();
+            } catch (RuntimeException ignored) {
+                // 继续释放其余存储服务
+            }
+        }
+        createdServices.clear();
+        batchExecutor.shutdown();
+        if (minioHttpClient != null) {
+            MinioStorageServiceImpl.closeHttpClient(minioHttpClient);
+            minioHttpClient = null;
+        }
+    }
+    
+    private <T extends StorageService> T register(T storageService) {
+        createdServices.add(storageService);
+        return storageService;
+    }
+    
+    private synchronized OkHttpClient getMinioHttpClient() {
+        if (minioHttpClient == null) {
+            minioHttpClient = MinioStorageServiceImpl.createHttpClient(storageProperties.getMinio().getHttp());
+        }
+        return minioHttpClient;
+    }
+    
+    /**
+     * 获取签名链接缓存，可用于查看命中统计
+     * @return 签名链接缓存
+     */
+    public PresignedUrlCache getPresignedUrlCache() {
+        return presignedUrlCache;
+    }
+}
\ No newline at end of file
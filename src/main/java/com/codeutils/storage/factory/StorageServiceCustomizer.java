@@ -0,0 +1,19 @@
+package com.codeutils.storage.factory;
+
+import com.codeutils.storage.service.StorageService;
+
+/**
+ * 存储服务定制器
+ * 工厂每创建一个存储类型的实例都会依次调用，可返回包装后的实例，如添加监控指标
+ */
+@FunctionalInterface
+public interface StorageServiceCustomizer {
+    
+    /**
+     * 定制存储服务
+     * @param type 存储类型
+     * @param storageService 存储服务
+     * @return 定制后的存储服务
+     */
+    StorageService customize(String type, StorageService storageService);
+}
\ No newline at end of file
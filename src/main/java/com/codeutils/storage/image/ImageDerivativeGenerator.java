@@ -0,0 +1,257 @@
+package com.codeutils.storage.image;
+
+import com.codeutils.storage.config.StorageProperties;
+import com.codeutils.storage.model.UploadOptions;
+import com.codeutils.storage.multipart.TransferThreadFactory;
+import com.codeutils.storage.service.StorageService;
+import org.springframework.util.StringUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 图片衍生图生成器
+ * 原图只解码一次，各衍生图按尺寸从大到小依次从上一个衍生图逐级缩小，编码后在独立线程池中并发上传；
+ * 解码线程数和等待队列均有上限，队列满时放弃生成而不阻塞上传线程。
+ * 一个原图的衍生图全部上传完成后才处理下一个，同时占用的内存不超过 解码线程数 × 单张图片的解码内存
+ */
+public class ImageDerivativeGenerator {
+    
+    private final StorageService storageService;
+    private final List<StorageProperties.DerivativeProperties> derivatives;
+    private final long maxSourceBytes;
+    private final long maxSourcePixels;
+    private final Set<String> imageSuffixes;
+    private final ThreadPoolExecutor workerExecutor;
+    private final ThreadPoolExecutor uploadExecutor;
+    
+    private final LongAdder submittedCount = new LongAdder();
+    private final LongAdder completedCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    
+    /**
+     * @param storageService 上传衍生图使用的存储服务
+     * @param imageProperties 衍生图配置
+     */
+    public ImageDerivativeGenerator(StorageService storageService, StorageProperties.ImageProperties imageProperties) {
+        for (StorageProperties.DerivativeProperties derivative : imageProperties.getDerivatives()) {
+            if (!StringUtils.hasText(derivative.getName())) {
+                throw new IllegalArgumentException("衍生图名称不能为空");
+            }
+            if (!ImageScaler.canWrite(derivative.getFormat())) {
+                throw new IllegalArgumentException("不支持的图片格式: " + derivative.getFormat());
+            }
+        }
+        this.storageService = storageService;
+        this.derivatives = new ArrayList<>(imageProperties.getDerivatives());
+        this.maxSourceBytes = imageProperties.getMaxSourceBytes();
+        this.maxSourcePixels = imageProperties.getMaxSourcePixels();
+        this.imageSuffixes = new HashSet<>();
+        for (String suffix : ImageIO.getReaderFileSuffixes()) {
+            imageSuffixes.add(suffix.toLowerCase(Locale.ROOT));
+        }
+        
+        int concurrency = Math.max(imageProperties.getConcurrency(), 1);
+        this.workerExecutor = new ThreadPoolExecutor(
+            concurrency, concurrency, 60L, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(Math.max(imageProperties.getQueueCapacity(), 1)),
+            new TransferThreadFactory("image"),
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.workerExecutor.allowCoreThreadTimeOut(true);
+        int uploadConcurrency = Math.max(imageProperties.getUploadConcurrency(), 1);
+        this.uploadExecutor = new ThreadPoolExecutor(
+            uploadConcurrency, uploadConcurrency, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+            new TransferThreadFactory("image-upload")
+        );
+        this.uploadExecutor.allowCoreThreadTimeOut(true);
+    }
+    
+    /**
+     * 判断上传的文件是否需要生成衍生图
+     * @param fileName 文件名，用于按扩展名判断
+     * @param contentType 文件类型，可为空
+     * @param size 文件大小，未知时为 {@link StorageService#UNKNOWN_LENGTH}
+     * @return 配置了衍生图、是图片且大小未超过上限时返回true
+     */
+    public boolean accepts(String fileName, String contentType, long size) {
+        if (derivatives.isEmpty() || size > maxSourceBytes) {
+            return false;
+        }
+        if (contentType != null && contentType.toLowerCase(Locale.ROOT).startsWith("image/")) {
+            return true;
+        }
+        return fileName != null && fileName.contains(".")
+            && imageSuffixes.contains(fileName.substring(fileName.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT));
+    }
+    
+    /**
+     * 获取原图大小上限
+     * @return 原图大小上限（字节）
+     */
+    public long getMaxSourceBytes() {
+        return maxSourceBytes;
+    }
+    
+    /**
+     * 提交衍生图生成任务
+     * @param objectName 原图对象名称
+     * @param source 原图数据
+     * @return 衍生图名称 -> 衍生图URL，队列已满时以 {@link RejectedExecutionException} 异常完成
+     */
+    public CompletableFuture<Map<String, String>> submit(String objectName, byte[] source) {
+        CompletableFuture<Map<String, String>> future = new CompletableFuture<>();
+        try {
+            workerExecutor.execute(() -> {
+                try {
+                    future.complete(generate(objectName, source));
+                    completedCount.increment();
+                } catch (Throwable e) {
+                    failedCount.increment();
+                    future.completeExceptionally(e);
+                }
+            });
+            submittedCount.increment();
+        } catch (RejectedExecutionException e) {
+            rejectedCount.increment();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+    
+    /**
+     * 计算衍生图对象名称
+     * @param objectName 原图对象名称
+     * @param derivative 衍生图配置
+     * @return 衍生图对象名称
+     */
+    public String derivativeObjectName(String objectName, StorageProperties.DerivativeProperties derivative) {
+        int slash = objectName.lastIndexOf('/');
+        int dot = objectName.lastIndexOf('.');
+        String baseName = dot > slash ? objectName.substring(0, dot) : objectName;
+        return baseName + "_" + derivative.getName() + "." + derivative.getFormat().toLowerCase(Locale.ROOT);
+    }
+    
+    /**
+     * 获取已提交的生成任务数
+     * @return 已提交任务数
+     */
+    public long getSubmittedCount() {
+        return submittedCount.sum();
+    }
+    
+    /**
+     * 获取生成成功的原图数
+     * @return 成功任务数
+     */
+    public long getCompletedCount() {
+        return completedCount.sum();
+    }
+    
+    /**
+     * 获取生成失败的原图数
+     * @return 失败任务数
+     */
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+    
+    /**
+     * 获取因队列已满被拒绝的原图数
+     * @return 拒绝任务数
+     */
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+    
+    /**
+     * 关闭线程池，丢弃尚未开始的任务
+     */
+    public void shutdown() {
+        workerExecutor.shutdownNow();
+        uploadExecutor.shutdownNow();
+    }
+    
+    /**
+     * 解码原图，依次生成各衍生图并提交上传，等待全部上传完成
+     */
+    private Map<String, String> generate(String objectName, byte[] source) throws Exception {
+        BufferedImage original = ImageScaler.decode(source, maxSourcePixels);
+        
+        List<Target> targets = new ArrayList<>(derivatives.size());
+        for (StorageProperties.DerivativeProperties derivative : derivatives) {
+            int[] size = ImageScaler.fit(original.getWidth(), original.getHeight(),
+                derivative.getWidth(), derivative.getHeight());
+            targets.add(new Target(derivative, size[0], size[1]));
+        }
+        targets.sort(Comparator.comparingLong((Target target) -> (long) target.width * target.height).reversed());
+        
+        List<CompletableFuture<String>> uploads = new ArrayList<>(targets.size());
+        try {
+            BufferedImage current = original;
+            for (Target target : targets) {
+                // 宽高比限制不同时上一个衍生图可能在某一边小于目标，此时从原图缩小
+                BufferedImage base = current.getWidth() >= target.width && current.getHeight() >= target.height
+                    ? current : original;
+                current = ImageScaler.scale(base, target.width, target.height);
+                uploads.add(upload(objectName, target.derivative, ImageScaler.encode(current,
+                    target.derivative.getFormat(), target.derivative.getQuality())));
+            }
+            CompletableFuture.allOf(uploads.toArray(new CompletableFuture<?>[0])).join();
+        } catch (Exception e) {
+            for (CompletableFuture<String> upload : uploads) {
+                upload.cancel(false);
+            }
+            throw e;
+        }
+        
+        Map<String, String> result = new LinkedHashMap<>();
+        for (int i = 0; i < targets.size(); i++) {
+            result.put(targets.get(i).derivative.getName(), uploads.get(i).join());
+        }
+        return result;
+    }
+    
+    private CompletableFuture<String> upload(String objectName, StorageProperties.DerivativeProperties derivative,
+                                             byte[] data) {
+        String format = derivative.getFormat().toLowerCase(Locale.ROOT);
+        UploadOptions options = UploadOptions.builder()
+            .fileName(derivativeObjectName(objectName, derivative))
+            .contentType("image/" + (ImageScaler.isJpeg(format) ? "jpeg" : format))
+            .build();
+        return CompletableFuture.supplyAsync(
+            () -> storageService.uploadStream(new ByteArrayInputStream(data), data.length, options), uploadExecutor);
+    }
+    
+    /**
+     * 衍生图及其目标尺寸
+     */
+    private static final class Target {
+        private final StorageProperties.DerivativeProperties derivative;
+        private final int width;
+        private final int height;
+        
+        private Target(StorageProperties.DerivativeProperties derivative, int width, int height) {
+            this.derivative = derivative;
+            this.width = width;
+            this.height = height;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.codeutils.storage.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * 文件元数据模型
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileMetadata {
+    
+    /**
+     * 对象名称
+     */
+    private String objectName;
+    
+    /**
+     * 文件大小（字节）
+     */
+    private long size;
+    
+    /**
+     * ETag
+     */
+    private String etag;
+    
+    /**
+     * 最后修改时间
+     */
+    private Date lastModified;
+    
+    /**
+     * 文件类型（Content-Type）
+     */
+    private String contentType;
+}
\ No newline at end of file
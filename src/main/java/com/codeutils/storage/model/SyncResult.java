@@ -0,0 +1,47 @@
+package com.codeutils.storage.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 目录同步结果模型
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncResult {
+    
+    /**
+     * 已上传的对象名称
+     */
+    private List<String> uploaded;
+    
+    /**
+     * 未发生变化而跳过的文件数
+     */
+    private int skipped;
+    
+    /**
+     * 已删除的远端对象名称
+     */
+    private List<String> deleted;
+    
+    /**
+     * 同步失败的对象名称 -> 异常
+     */
+    private Map<String, Exception> failed;
+    
+    /**
+     * 是否全部同步成功
+     * @return 没有失败的对象时返回true
+     */
+    public boolean isSuccess() {
+        return failed == null || failed.isEmpty();
+    }
+}
\ No newline at end of file
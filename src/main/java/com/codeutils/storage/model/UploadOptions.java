@@ -0,0 +1,36 @@
+package com.codeutils.storage.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 上传选项模型
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadOptions {
+    
+    /**
+     * 指定文件名，为空时自动生成
+     */
+    private String fileName;
+    
+    /**
+     * 原始文件名，自动生成文件名时用于保留扩展名
+     */
+    private String originalFilename;
+    
+    /**
+     * 存储路径
+     */
+    private String path;
+    
+    /**
+     * 文件类型（Content-Type）
+     */
+    private String contentType;
+}
\ No newline at end of file
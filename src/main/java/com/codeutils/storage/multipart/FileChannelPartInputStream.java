@@ -0,0 +1,86 @@
+package com.codeutils.storage.multipart;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * 文件分片输入流
+ * 通过 {@link FileChannel#read(ByteBuffer, long)} 按位置读取文件的指定区间，直接写入调用方的缓冲区，
+ * 多个分片可共享同一个通道并发读取；支持mark/reset，便于SDK重试时重新发送分片
+ */
+class FileChannelPartInputStream extends InputStream {
+    
+    private final FileChannel channel;
+    private final long end;
+    private long position;
+    private long mark;
+    
+    FileChannelPartInputStream(FileChannel channel, long start, long length) {
+        this.channel = channel;
+        this.end = start + length;
+        this.position = start;
+        this.mark = start;
+    }
+    
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        int read = read(single, 0, 1);
+        return read < 0 ? -1 : single[0] & 0xFF;
+    }
+    
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        long remaining = end - position;
+        if (remaining <= 0) {
+            return -1;
+        }
+        ByteBuffer target = ByteBuffer.wrap(b, off, (int) Math.min(len, remaining));
+        int read = channel.read(target, position);
+        if (read < 0) {
+            return -1;
+        }
+        position += read;
+        return read;
+    }
+    
+    @Override
+    public long skip(long n) {
+        long skipped = Math.max(0, Math.min(n, end - position));
+        position += skipped;
+        return skipped;
+    }
+    
+    @Override
+    public int available() {
+        return (int) Math.min(end - position, Integer.MAX_VALUE);
+    }
+    
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+    
+    @Override
+    public synchronized void mark(int readLimit) {
+        mark = position;
+    }
+    
+    @Override
+    public synchronized void reset() {
+        position = mark;
+    }
+    
+    /**
+     * 通道由上传引擎统一关闭，关闭分片流不影响其他分片
+     */
+    @Override
+    public void close() {
+        // 不关闭共享的文件通道
+    }
+}
\ No newline at end of file
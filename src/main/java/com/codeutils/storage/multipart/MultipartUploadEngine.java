@@ -0,0 +1,363 @@
+package com.codeutils.storage.multipart;
+
+import com.codeutils.storage.config.StorageProperties;
+import com.codeutils.storage.model.UploadOptions;
+import com.codeutils.storage.resilience.Backoff;
+import com.codeutils.storage.service.StorageService;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 分片上传引擎
+ * 流式上传时按分片大小读取数据，缓冲区来自有上限的缓冲池，上传任意大小的流占用的堆内存恒定；
+ * 本地大文件按位置切分为分片，在有界线程池中并发上传。
+ * 分片失败后按带抖动的指数退避重试；本地文件上传最终失败时保留已上传的分片一段时间，
+ * 以相同对象名重新上传同一文件时从上次成功的分片继续
+ */
+public class MultipartUploadEngine {
+    
+    /**
+     * 最小分片大小（5MB），各云厂商对非最后分片的最低要求
+     */
+    public static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+    
+    /**
+     * 最大分片大小，受单个字节数组长度限制
+     */
+    public static final long MAX_PART_SIZE = 1024L * 1024 * 1024;
+    
+    /**
+     * 单个对象的最大分片数
+     */
+    public static final int MAX_PART_COUNT = 10000;
+    
+    /**
+     * 分片重试退避时间上限（毫秒）
+     */
+    private static final long MAX_RETRY_BACKOFF_MILLIS = 10000;
+    
+    private final int partSize;
+    private final long threshold;
+    private final int maxRetries;
+    private final Backoff retryBackoff;
+    private final long resumeTtlNanos;
+    private final PartBufferPool bufferPool;
+    private final ExecutorService partExecutor;
+    
+    /**
+     * 上传失败后保留的断点，键由对象名称和文件路径、大小、修改时间组成
+     */
+    private final Map<String, UploadCheckpoint> checkpoints = new ConcurrentHashMap<>();
+    
+    public MultipartUploadEngine(StorageProperties.MultipartProperties multipartProperties) {
+        this.partSize = (int) Math.min(Math.max(multipartProperties.getPartSize(), MIN_PART_SIZE), MAX_PART_SIZE);
+        this.threshold = Math.max(multipartProperties.getThreshold(), partSize);
+        this.maxRetries = Math.max(multipartProperties.getMaxRetries(), 0);
+        this.retryBackoff = new Backoff(multipartProperties.getRetryBackoffMillis(), MAX_RETRY_BACKOFF_MILLIS, 2.0);
+        this.resumeTtlNanos = TimeUnit.SECONDS.toNanos(Math.max(multipartProperties.getResumeTtlSeconds(), 0));
+        this.bufferPool = new PartBufferPool(partSize, Math.max(multipartProperties.getBufferPoolSize(), 1));
+        
+        int concurrency = Math.max(multipartProperties.getConcurrency(), 1);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            concurrency, concurrency, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+            new TransferThreadFactory("multipart")
+        );
+        executor.allowCoreThreadTimeOut(true);
+        this.partExecutor = executor;
+    }
+    
+    /**
+     * 获取分片大小
+     * @return 分片大小
+     */
+    public int getPartSize() {
+        return partSize;
+    }
+    
+    /**
+     * 判断文件是否需要分片上传
+     * @param fileSize 文件大小
+     * @return 是否超过分片上传阈值
+     */
+    public boolean requiresMultipart(long fileSize) {
+        return fileSize > threshold;
+    }
+    
+    /**
+     * 并发分片上传本地文件
+     * 各分片通过文件通道按位置读取，不经过中间字节数组，分片失败按配置重试；
+     * 存在同一文件未过期的断点时沿用其上传ID，只上传尚未成功的分片
+     * @param uploader 分片上传操作
+     * @param objectName 对象名称
+     * @param file 本地文件
+     * @param options 上传选项
+     * @param <P> 分片上传结果类型
+     * @throws Exception 上传失败
+     */
+    @SuppressWarnings("unchecked")
+    public <P> void uploadFile(MultipartUploader<P> uploader, String objectName, File file,
+                               UploadOptions options) throws Exception {
+        purgeExpiredCheckpoints();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            // 分片数超过上限时放大分片
+            long filePartSize = Math.max(partSize, (fileSize + MAX_PART_COUNT - 1) / MAX_PART_COUNT);
+            int partCount = (int) Math.max((fileSize + filePartSize - 1) / filePartSize, 1);
+            
+            String checkpointKey = objectName + "\n" + file.getAbsolutePath() + "\n" + fileSize + "\n" + file.lastModified();
+            UploadCheckpoint checkpoint = checkpoints.remove(checkpointKey);
+            String uploadId;
+            Map<Integer, P> completedParts;
+            if (checkpoint != null) {
+                uploadId = checkpoint.uploadId;
+                completedParts = (Map<Integer, P>) checkpoint.completedParts;
+            } else {
+                uploadId = uploader.initiate(objectName, options);
+                completedParts = new ConcurrentHashMap<>();
+            }
+            int resumedPartCount = completedParts.size();
+            
+            List<Future<P>> futures = new ArrayList<>(partCount);
+            AtomicBoolean aborted = new AtomicBoolean();
+            try {
+                for (int i = 0; i < partCount; i++) {
+                    int partNumber = i + 1;
+                    if (completedParts.containsKey(partNumber)) {
+                        continue;
+                    }
+                    long position = i * filePartSize;
+                    long length = Math.min(filePartSize, fileSize - position);
+                    futures.add(partExecutor.submit(() -> {
+                        if (aborted.get()) {
+                            return null;
+                        }
+                        P part = uploadPartWithRetry(() -> uploader.uploadPart(objectName, uploadId, partNumber,
+                            new FileChannelPartInputStream(channel, position, length), length));
+                        completedParts.put(partNumber, part);
+                        return part;
+                    }));
+                }
+                
+                for (Future<P> future : futures) {
+                    getResult(future);
+                }
+                List<P> parts = new ArrayList<>(partCount);
+                for (int partNumber = 1; partNumber <= partCount; partNumber++) {
+                    parts.add(completedParts.get(partNumber));
+                }
+                uploader.complete(objectName, uploadId, parts);
+            } catch (Exception e) {
+                cancelAndAwait(futures, aborted);
+                // 续传没有任何进展时说明断点已失效（如上传ID过期），不再保留
+                if (resumeTtlNanos > 0 && completedParts.size() > resumedPartCount) {
+                    checkpoints.put(checkpointKey, new UploadCheckpoint(uploader, objectName, uploadId, completedParts));
+                } else {
+                    abortQuietly(uploader, objectName, uploadId);
+                }
+                throw e;
+            }
+        }
+    }
+    
+    /**
+     * 关闭分片上传线程池
+     */
+    public void shutdown() {
+        partExecutor.shutdownNow();
+        Iterator<UploadCheckpoint> iterator = checkpoints.values().iterator();
+        while (iterator.hasNext()) {
+            UploadCheckpoint checkpoint = iterator.next();
+            iterator.remove();
+            abortQuietly(checkpoint.uploader, checkpoint.objectName, checkpoint.uploadId);
+        }
+    }
+    
+    /**
+     * 流式上传
+     * 已知长度且不超过分片大小时直接单次上传，否则按分片读取，不足一个分片的流退化为单次上传；
+     * 超过分片大小 × {@link #MAX_PART_COUNT} 的流无法完成分片上传，已知长度时直接拒绝，未知长度时在分片数超限时失败；
+     * 分片失败时从仍在缓冲区中的数据重试该分片，已上传的分片保持不变
+     * @param uploader 分片上传操作
+     * @param objectName 对象名称
+     * @param inputStream 输入流
+     * @param contentLength 内容长度，未知时为 {@link StorageService#UNKNOWN_LENGTH}
+     * @param options 上传选项
+     * @param <P> 分片上传结果类型
+     * @throws Exception 上传失败
+     */
+    public <P> void uploadStream(MultipartUploader<P> uploader, String objectName, InputStream inputStream,
+                                 long contentLength, UploadOptions options) throws Exception {
+        if (contentLength > (long) partSize * MAX_PART_COUNT) {
+            throw new IllegalArgumentException("文件大小超过流式上传上限: " + contentLength);
+        }
+        if (contentLength >= 0 && contentLength <= partSize) {
+            uploader.putObject(objectName, inputStream, contentLength, options);
+            return;
+        }
+        
+        byte[] buffer = bufferPool.acquire();
+        try {
+            int length = readFully(inputStream, buffer);
+            if (length < buffer.length) {
+                uploader.putObject(objectName, new ByteArrayInputStream(buffer, 0, length), length, options);
+                return;
+            }
+            
+            String uploadId = uploader.initiate(objectName, options);
+            try {
+                List<P> parts = new ArrayList<>();
+                int partNumber = 1;
+                while (length > 0) {
+                    if (partNumber > MAX_PART_COUNT) {
+                        throw new IOException("分片数超过上限: " + MAX_PART_COUNT);
+                    }
+                    int currentPartNumber = partNumber++;
+                    int currentLength = length;
+                    parts.add(uploadPartWithRetry(() -> uploader.uploadPart(objectName, uploadId, currentPartNumber,
+                        new ByteArrayInputStream(buffer, 0, currentLength), currentLength)));
+                    length = length < buffer.length ? 0 : readFully(inputStream, buffer);
+                }
+                uploader.complete(objectName, uploadId, parts);
+            } catch (Exception e) {
+                abortQuietly(uploader, objectName, uploadId);
+                throw e;
+            }
+        } finally {
+            bufferPool.release(buffer);
+        }
+    }
+    
+    /**
+     * 上传单个分片，失败后按配置退避重试，每次重试重新创建分片输入流
+     */
+    private <P> P uploadPartWithRetry(Callable<P> partUpload) throws Exception {
+        Exception lastException = null;
+        for (int attempt = 0; attempt <= maxRetries; attempt++) {
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            if (attempt > 0) {
+                retryBackoff.await(attempt - 1);
+            }
+            try {
+                return partUpload.call();
+            } catch (Exception e) {
+                lastException = e;
+            }
+        }
+        if (lastException == null) {
+            throw new InterruptedException("分片上传被中断");
+        }
+        throw lastException;
+    }
+    
+    /**
+     * 获取分片上传结果，展开执行异常
+     */
+    private <P> P getResult(Future<P> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * 取消尚未开始的分片，并等待已开始的分片结束，避免取消上传后仍有分片写入
+     */
+    private <P> void cancelAndAwait(List<Future<P>> futures, AtomicBoolean aborted) {
+        // 不调用cancel：已取消的Future的get会立即返回，无法等到正在执行的分片结束
+        aborted.set(true);
+        for (Future<P> future : futures) {
+            try {
+                future.get();
+            } catch (Exception ignored) {
+                // 只等待结束，结果和异常均已无意义
+            }
+        }
+    }
+    
+    /**
+     * 尽量填满缓冲区
+     * @param inputStream 输入流
+     * @param buffer 缓冲区
+     * @return 实际读取的字节数，小于缓冲区长度表示流已结束
+     * @throws IOException 读取失败
+     */
+    private int readFully(InputStream inputStream, byte[] buffer) throws IOException {
+        int total = 0;
+        while (total < buffer.length) {
+            int read = inputStream.read(buffer, total, buffer.length - total);
+            if (read < 0) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+    
+    /**
+     * 取消分片上传，忽略取消过程中的异常
+     */
+    private <P> void abortQuietly(MultipartUploader<P> uploader, String objectName, String uploadId) {
+        try {
+            uploader.abort(objectName, uploadId);
+        } catch (Exception ignored) {
+            // 取消失败不影响原始异常的抛出
+        }
+    }
+    
+    /**
+     * 清理过期的断点并取消对应的分片上传
+     */
+    private void purgeExpiredCheckpoints() {
+        long now = System.nanoTime();
+        for (Map.Entry<String, UploadCheckpoint> entry : checkpoints.entrySet()) {
+            UploadCheckpoint checkpoint = entry.getValue();
+            if (now - checkpoint.createdAt >= resumeTtlNanos && checkpoints.remove(entry.getKey(), checkpoint)) {
+                abortQuietly(checkpoint.uploader, checkpoint.objectName, checkpoint.uploadId);
+            }
+        }
+    }
+    
+    /**
+     * 分片上传断点，记录上传ID和已成功的分片
+     */
+    private static final class UploadCheckpoint {
+        private final MultipartUploader<?> uploader;
+        private final String objectName;
+        private final String uploadId;
+        private final Map<Integer, ?> completedParts;
+        private final long createdAt = System.nanoTime();
+        
+        private UploadCheckpoint(MultipartUploader<?> uploader, String objectName, String uploadId,
+                                 Map<Integer, ?> completedParts) {
+            this.uploader = uploader;
+            this.objectName = objectName;
+            this.uploadId = uploadId;
+            this.completedParts = completedParts;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,61 @@
+package com.codeutils.storage.multipart;
+
+import com.codeutils.storage.model.UploadOptions;
+
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * 分片上传操作接口，由各存储服务实现适配对应的SDK
+ * @param <P> 分片上传结果类型（如PartETag）
+ */
+public interface MultipartUploader<P> {
+    
+    /**
+     * 单次请求上传对象
+     * @param objectName 对象名称
+     * @param inputStream 输入流
+     * @param size 对象大小
+     * @param options 上传选项
+     * @throws Exception 上传失败
+     */
+    void putObject(String objectName, InputStream inputStream, long size, UploadOptions options) throws Exception;
+    
+    /**
+     * 初始化分片上传
+     * @param objectName 对象名称
+     * @param options 上传选项
+     * @return 上传ID
+     * @throws Exception 初始化失败
+     */
+    String initiate(String objectName, UploadOptions options) throws Exception;
+    
+    /**
+     * 上传分片
+     * @param objectName 对象名称
+     * @param uploadId 上传ID
+     * @param partNumber 分片序号，从1开始
+     * @param inputStream 分片数据
+     * @param partSize 分片大小
+     * @return 分片上传结果
+     * @throws Exception 上传失败
+     */
+    P uploadPart(String objectName, String uploadId, int partNumber, InputStream inputStream, long partSize) throws Exception;
+    
+    /**
+     * 完成分片上传
+     * @param objectName 对象名称
+     * @param uploadId 上传ID
+     * @param parts 按序号排列的分片上传结果
+     * @throws Exception 合并失败
+     */
+    void complete(String objectName, String uploadId, List<P> parts) throws Exception;
+    
+    /**
+     * 取消分片上传
+     * @param objectName 对象名称
+     * @param uploadId 上传ID
+     * @throws Exception 取消失败
+     */
+    void abort(String objectName, String uploadId) throws Exception;
+}
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.codeutils.storage.multipart;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 分片缓冲池
+ * 固定大小的缓冲区按需创建、循环复用，总数不超过容量上限，池满时借用方阻塞等待归还
+ */
+public class PartBufferPool {
+    
+    private final int bufferSize;
+    private final int capacity;
+    private final BlockingQueue<byte[]> buffers;
+    private final AtomicInteger allocated = new AtomicInteger();
+    
+    public PartBufferPool(int bufferSize, int capacity) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("缓冲区大小必须大于0");
+        }
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("缓冲池容量必须大于0");
+        }
+        this.bufferSize = bufferSize;
+        this.capacity = capacity;
+        this.buffers = new LinkedBlockingQueue<>(capacity);
+    }
+    
+    /**
+     * 借用缓冲区，池中无空闲且已达容量上限时阻塞
+     * @return 缓冲区
+     * @throws InterruptedException 等待时被中断
+     */
+    public byte[] acquire() throws InterruptedException {
+        byte[] buffer = buffers.poll();
+        if (buffer != null) {
+            return buffer;
+        }
+        int count;
+        while ((count = allocated.get()) < capacity) {
+            if (allocated.compareAndSet(count, count + 1)) {
+                return new byte[bufferSize];
+            }
+        }
+        return buffers.take();
+    }
+    
+    /**
+     * 归还缓冲区
+     * @param buffer 缓冲区
+     */
+    public void release(byte[] buffer) {
+        if (buffer != null && buffer.length == bufferSize) {
+            buffers.offer(buffer);
+        }
+    }
+    
+    /**
+     * 获取缓冲区大小
+     * @return 缓冲区大小
+     */
+    public int getBufferSize() {
+        return bufferSize;
+    }
+    
+    /**
+     * 获取缓冲池容量
+     * @return 缓冲池容量
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,183 @@
+package com.codeutils.storage.multipart;
+
+import com.codeutils.storage.config.StorageProperties;
+import com.codeutils.storage.model.FileMetadata;
+import com.codeutils.storage.service.StorageService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 分段并发下载器
+ * 基于 {@link StorageService#downloadRange} 并发下载多个字节范围，
+ * 各分段通过 {@link FileChannel#write(ByteBuffer, long)} 写入预分配文件的对应位置。
+ * 任一分段失败时通知其余分段尽快结束，等待全部分段结束后才关闭文件；
+ * 下载完成后再次查询文件信息，与开始时的ETag、大小和修改时间不一致时视为下载期间文件被覆盖，不返回拼接的内容
+ */
+public class SegmentedDownloader {
+    
+    /**
+     * 最小分段大小（1MB）
+     */
+    public static final long MIN_SEGMENT_SIZE = 1024L * 1024;
+    
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    
+    private final StorageService storageService;
+    private final long segmentSize;
+    private final ExecutorService segmentExecutor;
+    
+    public SegmentedDownloader(StorageService storageService, StorageProperties.DownloadProperties downloadProperties) {
+        this.storageService = storageService;
+        this.segmentSize = Math.max(downloadProperties.getSegmentSize(), MIN_SEGMENT_SIZE);
+        
+        int concurrency = Math.max(downloadProperties.getConcurrency(), 1);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            concurrency, concurrency, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+            new TransferThreadFactory("download")
+        );
+        executor.allowCoreThreadTimeOut(true);
+        this.segmentExecutor = executor;
+    }
+    
+    /**
+     * 分段并发下载文件到本地路径，不超过一个分段的文件直接流式下载
+     * @param fileUrl 文件URL
+     * @param targetPath 本地文件路径
+     * @return 文件大小
+     */
+    public long download(String fileUrl, Path targetPath) {
+        FileMetadata metadata = storageService.stat(fileUrl);
+        long fileSize = metadata.getSize();
+        if (fileSize <= segmentSize) {
+            return storageService.downloadTo(fileUrl, targetPath);
+        }
+        
+        try {
+            Path parent = targetPath.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (RandomAccessFile file = new RandomAccessFile(targetPath.toFile(), "rw")) {
+                file.setLength(fileSize);
+                FileChannel channel = file.getChannel();
+                
+                int segmentCount = (int) ((fileSize + segmentSize - 1) / segmentSize);
+                List<Future<?>> futures = new ArrayList<>(segmentCount);
+                AtomicBoolean aborted = new AtomicBoolean();
+                Exception failure = null;
+                try {
+                    for (int i = 0; i < segmentCount; i++) {
+                        long position = i * segmentSize;
+                        long length = Math.min(segmentSize, fileSize - position);
+                        futures.add(segmentExecutor.submit(() -> {
+                            downloadSegment(fileUrl, channel, position, length, aborted);
+                            return null;
+                        }));
+                    }
+                } catch (Exception e) {
+                    aborted.set(true);
+                    failure = e;
+                }
+                // 不中断分段线程：中断FileChannel上的写入会关闭通道；等待全部分段结束后才关闭文件
+                for (Future<?> future : futures) {
+                    try {
+                        getResult(future);
+                    } catch (Exception e) {
+                        aborted.set(true);
+                        if (failure == null) {
+                            failure = e;
+                        }
+                    }
+                }
+                if (failure != null) {
+                    throw failure;
+                }
+            }
+            verifyUnchanged(fileUrl, metadata);
+            return fileSize;
+        } catch (Exception e) {
+            try {
+                Files.deleteIfExists(targetPath);
+            } catch (IOException ignored) {
+                // 清理失败不影响原始异常的抛出
+            }
+            throw new RuntimeException("分段下载文件失败", e);
+        }
+    }
+    
+    /**
+     * 关闭分段下载线程池
+     */
+    public void shutdown() {
+        segmentExecutor.shutdownNow();
+    }
+    
+    /**
+     * 下载单个分段并写入文件的对应位置
+     */
+    private void downloadSegment(String fileUrl, FileChannel channel, long position, long length,
+                                 AtomicBoolean aborted) throws IOException {
+        if (aborted.get()) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER_SIZE);
+        long written = 0;
+        try (InputStream inputStream = storageService.downloadRange(fileUrl, position, length)) {
+            int read;
+            while (written < length && !aborted.get()
+                && (read = inputStream.read(buffer.array(), 0, (int) Math.min(buffer.capacity(), length - written))) >= 0) {
+                buffer.clear();
+                buffer.limit(read);
+                while (buffer.hasRemaining()) {
+                    written += channel.write(buffer, position + written);
+                }
+            }
+        }
+        if (written != length && !aborted.get()) {
+            throw new IOException("分段数据不完整，位置: " + position + "，期望: " + length + "，实际: " + written);
+        }
+    }
+    
+    /**
+     * 校验下载期间文件未被覆盖，存储不返回ETag时比较大小和修改时间
+     */
+    private void verifyUnchanged(String fileUrl, FileMetadata before) throws IOException {
+        FileMetadata after = storageService.stat(fileUrl);
+        if (after == null || after.getSize() != before.getSize()
+            || !Objects.equals(after.getEtag(), before.getEtag())
+            || !Objects.equals(after.getLastModified(), before.getLastModified())) {
+            throw new IOException("下载期间文件已被修改: " + fileUrl);
+        }
+    }
+    
+    /**
+     * 获取分段下载结果，展开执行异常
+     */
+    private void getResult(Future<?> future) throws Exception {
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.codeutils.storage.multipart;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 传输线程工厂，创建带名称前缀的守护线程
+ */
+public class TransferThreadFactory implements ThreadFactory {
+    
+    private static final AtomicInteger POOL_COUNTER = new AtomicInteger();
+    
+    private final String prefix;
+    private final AtomicInteger threadCounter = new AtomicInteger();
+    
+    public TransferThreadFactory(String name) {
+        this.prefix = "codeutils-" + name + "-" + POOL_COUNTER.incrementAndGet() + "-";
+    }
+    
+    @Override
+    public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, prefix + threadCounter.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    }
+}
\ No newline at end of file
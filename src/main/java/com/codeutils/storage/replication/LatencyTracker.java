@@ -0,0 +1,71 @@
+package com.codeutils.storage.replication;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 滑动窗口延迟统计
+ * 在定长环形缓冲区中记录最近的耗时样本，写入无锁；分位数按需排序计算，
+ * 每记录一定数量的样本才重新计算一次，读取时直接返回缓存值
+ */
+public class LatencyTracker {
+    
+    private final AtomicLongArray samples;
+    private final AtomicLong count = new AtomicLong();
+    private final double percentile;
+    private final int refreshInterval;
+    
+    private volatile long cachedPercentileNanos = -1;
+    private volatile long cachedAtCount;
+    
+    /**
+     * @param windowSize 窗口大小（样本数）
+     * @param percentile 分位数，如0.95
+     */
+    public LatencyTracker(int windowSize, double percentile) {
+        this.samples = new AtomicLongArray(Math.max(windowSize, 1));
+        this.percentile = Math.min(Math.max(percentile, 0), 1);
+        this.refreshInterval = Math.max(samples.length() / 16, 1);
+    }
+    
+    /**
+     * 记录一次耗时
+     * @param nanos 耗时（纳秒）
+     */
+    public void record(long nanos) {
+        long index = count.getAndIncrement();
+        samples.set((int) (index % samples.length()), nanos);
+    }
+    
+    /**
+     * 获取窗口内的分位数耗时
+     * @return 分位数耗时（纳秒），没有样本时返回-1
+     */
+    public long getPercentileNanos() {
+        long current = count.get();
+        if (current == 0) {
+            return -1;
+        }
+        if (cachedPercentileNanos < 0 || current - cachedAtCount >= refreshInterval) {
+            int size = (int) Math.min(current, samples.length());
+            long[] snapshot = new long[size];
+            for (int i = 0; i < size; i++) {
+                snapshot[i] = samples.get(i);
+            }
+            Arrays.sort(snapshot);
+            int rank = (int) Math.ceil(percentile * size) - 1;
+            cachedPercentileNanos = snapshot[Math.min(Math.max(rank, 0), size - 1)];
+            cachedAtCount = current;
+        }
+        return cachedPercentileNanos;
+    }
+    
+    /**
+     * 获取记录的样本总数
+     * @return 样本总数
+     */
+    public long getCount() {
+        return count.get();
+    }
+}
\ No newline at end of file
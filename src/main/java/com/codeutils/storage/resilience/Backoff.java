@@ -0,0 +1,47 @@
+package com.codeutils.storage.resilience;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 带随机抖动的指数退避
+ * 第n次重试的等待时间在 [0, min(上限, 初始值 × 倍数^n)] 内均匀随机，避免大量请求同时重试
+ */
+public class Backoff {
+    
+    private final long initialMillis;
+    private final long maxMillis;
+    private final double multiplier;
+    
+    /**
+     * @param initialMillis 初始等待上限（毫秒）
+     * @param maxMillis 等待上限（毫秒）
+     * @param multiplier 每次重试的倍数
+     */
+    public Backoff(long initialMillis, long maxMillis, double multiplier) {
+        this.initialMillis = Math.max(initialMillis, 0);
+        this.maxMillis = Math.max(maxMillis, this.initialMillis);
+        this.multiplier = Math.max(multiplier, 1);
+    }
+    
+    /**
+     * 计算等待时间
+     * @param attempt 已失败的次数，从0开始
+     * @return 等待时间（毫秒）
+     */
+    public long delayMillis(int attempt) {
+        double ceiling = Math.min(maxMillis, initialMillis * Math.pow(multiplier, attempt));
+        return ThreadLocalRandom.current().nextLong((long) ceiling + 1);
+    }
+    
+    /**
+     * 按退避时间等待
+     * @param attempt 已失败的次数，从0开始
+     * @throws InterruptedException 等待被中断
+     */
+    public void await(int attempt) throws InterruptedException {
+        long delay = delayMillis(attempt);
+        if (delay > 0) {
+            Thread.sleep(delay);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,144 @@
+package com.codeutils.storage.resilience;
+
+/**
+ * 基于调用次数滑动窗口的熔断器
+ * 窗口内调用数达到最小值且失败率超过阈值时打开，打开期间直接拒绝调用；
+ * 经过打开时长后进入半开状态，放行少量试探调用，全部成功则关闭，任一失败则重新打开
+ */
+public class CircuitBreaker {
+    
+    /**
+     * 熔断器状态
+     */
+    public enum State {
+        /**
+         * 关闭，正常放行
+         */
+        CLOSED,
+        /**
+         * 打开，拒绝调用
+         */
+        OPEN,
+        /**
+         * 半开，放行试探调用
+         */
+        HALF_OPEN
+    }
+    
+    private final String name;
+    private final double failureRateThreshold;
+    private final int minimumCalls;
+    private final long openDurationNanos;
+    private final int halfOpenPermittedCalls;
+    
+    private final boolean[] window;
+    private int windowIndex;
+    private int windowCount;
+    private int windowFailures;
+    
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenAttempts;
+    private int halfOpenSuccesses;
+    
+    /**
+     * @param name 名称，用于异常信息
+     * @param slidingWindowSize 滑动窗口大小（调用次数）
+     * @param minimumCalls 计算失败率所需的最少调用次数
+     * @param failureRateThreshold 失败率阈值，0到1之间
+     * @param openDurationMillis 打开时长（毫秒）
+     * @param halfOpenPermittedCalls 半开状态放行的试探调用数
+     */
+    public CircuitBreaker(String name, int slidingWindowSize, int minimumCalls, double failureRateThreshold,
+                          long openDurationMillis, int halfOpenPermittedCalls) {
+        this.name = name;
+        this.window = new boolean[Math.max(slidingWindowSize, 1)];
+        this.minimumCalls = Math.min(Math.max(minimumCalls, 1), window.length);
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationNanos = openDurationMillis * 1_000_000L;
+        this.halfOpenPermittedCalls = Math.max(halfOpenPermittedCalls, 1);
+    }
+    
+    /**
+     * 申请调用许可，未获得许可时抛出异常
+     * @throws CircuitBreakerOpenException 熔断器打开或半开状态的试探名额已用完
+     */
+    public synchronized void acquirePermission() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openDurationNanos) {
+            state = State.HALF_OPEN;
+            halfOpenAttempts = 0;
+            halfOpenSuccesses = 0;
+        }
+        if (state == State.OPEN || (state == State.HALF_OPEN && halfOpenAttempts >= halfOpenPermittedCalls)) {
+            throw new CircuitBreakerOpenException("存储服务熔断中: " + name);
+        }
+        if (state == State.HALF_OPEN) {
+            halfOpenAttempts++;
+        }
+    }
+    
+    /**
+     * 记录一次成功调用
+     */
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++halfOpenSuccesses >= halfOpenPermittedCalls) {
+                state = State.CLOSED;
+                resetWindow();
+            }
+            return;
+        }
+        record(false);
+    }
+    
+    /**
+     * 记录一次失败调用
+     */
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        if (state == State.CLOSED) {
+            record(true);
+            if (windowCount >= minimumCalls && (double) windowFailures / windowCount >= failureRateThreshold) {
+                open();
+            }
+        }
+    }
+    
+    /**
+     * 获取当前状态
+     * @return 熔断器状态
+     */
+    public synchronized State getState() {
+        return state;
+    }
+    
+    private void record(boolean failure) {
+        if (windowCount == window.length) {
+            if (window[windowIndex]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowIndex] = failure;
+        if (failure) {
+            windowFailures++;
+        }
+        windowIndex = (windowIndex + 1) % window.length;
+    }
+    
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+        resetWindow();
+    }
+    
+    private void resetWindow() {
+        windowIndex = 0;
+        windowCount = 0;
+        windowFailures = 0;
+    }
+}
\ No newline at end of file
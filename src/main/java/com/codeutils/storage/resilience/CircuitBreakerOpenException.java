@@ -0,0 +1,11 @@
+package com.codeutils.storage.resilience;
+
+/**
+ * 熔断器打开时快速失败抛出的异常
+ */
+public class CircuitBreakerOpenException extends RuntimeException {
+    
+    public CircuitBreakerOpenException(String message) {
+        super(message);
+    }
+}
\ No newline at end of file
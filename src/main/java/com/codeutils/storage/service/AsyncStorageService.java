@@ -0,0 +1,104 @@
+package com.codeutils.storage.service;
+
+import com.codeutils.storage.model.FileMetadata;
+import com.codeutils.storage.model.UploadOptions;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 异步存储服务接口
+ * 所有操作在独立的存储线程池中执行，调用线程不会阻塞在网络请求上
+ */
+public interface AsyncStorageService {
+    
+    /**
+     * 异步上传文件
+     * 上传文件的临时文件在请求结束后会被清理，需在请求结束前等待上传完成
+     * @param file 文件对象
+     * @return 文件访问URL
+     */
+    CompletableFuture<String> uploadFile(MultipartFile file);
+    
+    /**
+     * 异步上传文件
+     * 上传文件的临时文件在请求结束后会被清理，需在请求结束前等待上传完成
+     * @param file 文件对象
+     * @param fileName 指定文件名
+     * @return 文件访问URL
+     */
+    CompletableFuture<String> uploadFile(MultipartFile file, String fileName);
+    
+    /**
+     * 异步上传本地文件
+     * @param file 本地文件
+     * @return 文件访问URL
+     */
+    CompletableFuture<String> uploadFile(File file);
+    
+    /**
+     * 异步上传本地文件
+     * @param file 本地文件
+     * @param fileName 指定文件名
+     * @return 文件访问URL
+     */
+    CompletableFuture<String> uploadFile(File file, String fileName);
+    
+    /**
+     * 异步流式上传，上传完成前不能关闭输入流
+     * @param inputStream 输入流
+     * @param contentLength 内容长度，未知时传入 {@link StorageService#UNKNOWN_LENGTH}
+     * @param options 上传选项
+     * @return 文件访问URL
+     */
+    CompletableFuture<String> uploadStream(InputStream inputStream, long contentLength, UploadOptions options);
+    
+    /**
+     * 异步下载文件
+     * @param fileUrl 文件URL
+     * @return 文件字节数组
+     */
+    CompletableFuture<byte[]> downloadFile(String fileUrl);
+    
+    /**
+     * 异步下载文件到本地路径
+     * @param fileUrl 文件URL
+     * @param targetPath 本地文件路径
+     * @return 写入的字节数
+     */
+    CompletableFuture<Long> downloadTo(String fileUrl, Path targetPath);
+    
+    /**
+     * 异步获取文件元数据
+     * @param fileUrl 文件URL
+     * @return 文件元数据
+     */
+    CompletableFuture<FileMetadata> stat(String fileUrl);
+    
+    /**
+     * 异步删除文件
+     * @param fileUrl 文件URL
+     * @return 是否删除成功
+     */
+    CompletableFuture<Boolean> deleteFile(String fileUrl);
+    
+    /**
+     * 异步批量删除文件
+     * @param fileUrls 文件URL集合
+     * @return 删除失败的文件URL
+     */
+    CompletableFuture<List<String>> deleteFiles(Collection<String> fileUrls);
+    
+    /**
+     * 异步获取文件外链
+     * @param fileUrl 文件URL
+     * @param expireTime 过期时间（秒）
+     * @return 临时外链
+     */
+    CompletableFuture<String> getFileUrl(String fileUrl, Long expireTime);
+}
\ No newline at end of file
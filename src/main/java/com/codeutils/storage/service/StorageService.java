@@ -1,15 +1,36 @@
 package com.codeutils.storage.service;
 
+import com.codeutils.common.utils.FileUtils;
+import com.codeutils.storage.model.FileMetadata;
+import com.codeutils.storage.model.UploadOptions;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * 存储服务接口
  */
 public interface StorageService {
     
+    /**
+     * 未知内容长度
+     */
+    long UNKNOWN_LENGTH = -1L;
+    
     /**
      * 上传文件
      * @param file 文件对象
@@ -57,6 +78,22 @@ public interface StorageService {
      */
     String uploadFile(InputStream inputStream, String fileName);
     
+    /**
+     * 流式上传文件，超过分片大小时按分片上传，内存占用与文件大小无关
+     * 默认按文件名转为 {@link #uploadFile(InputStream, String)}，忽略内容长度和文件类型
+     * @param inputStream 输入流
+     * @param contentLength 内容长度，未知时传 {@link #UNKNOWN_LENGTH}
+     * @param options 上传选项
+     * @return 文件访问URL
+     */
+    default String uploadStream(InputStream inputStream, long contentLength, UploadOptions options) {
+        String fileName = StringUtils.hasText(options.getFileName()) ? options.getFileName() : options.getOriginalFilename();
+        if (StringUtils.hasText(options.getPath())) {
+            fileName = options.getPath() + "/" + fileName;
+        }
+        return uploadFile(inputStream, fileName);
+    }
+    
     /**
      * 下载文件
      * @param fileUrl 文件URL
@@ -64,6 +101,116 @@ public interface StorageService {
      */
     byte[] downloadFile(String fileUrl);
     
+    /**
+     * 打开文件输入流，数据直接来自存储服务的响应，使用完毕后需关闭
+     * 默认读取整个文件到内存后返回，支持流式读取的实现需要覆盖
+     * @param fileUrl 文件URL
+     * @return 文件输入流
+     */
+    default InputStream openStream(String fileUrl) {
+        return new ByteArrayInputStream(downloadFile(fileUrl));
+    }
+    
+    /**
+     * 下载文件到输出流
+     * @param fileUrl 文件URL
+     * @param outputStream 输出流（不会被关闭）
+     * @return 写入的字节数
+     */
+    default long downloadTo(String fileUrl, OutputStream outputStream) {
+        try (InputStream inputStream = openStream(fileUrl)) {
+            return IOUtils.copyLarge(inputStream, outputStream);
+        } catch (IOException e) {
+            throw new RuntimeException("下载文件失败", e);
+        }
+    }
+    
+    /**
+     * 下载文件到本地路径
+     * @param fileUrl 文件URL
+     * @param targetPath 本地文件路径
+     * @return 写入的字节数
+     */
+    default long downloadTo(String fileUrl, Path targetPath) {
+        try (InputStream inputStream = openStream(fileUrl)) {
+            return FileUtils.writeStreamToFile(inputStream, targetPath);
+        } catch (IOException e) {
+            throw new RuntimeException("下载文件失败", e);
+        }
+    }
+    
+    /**
+     * 按字节范围下载文件，使用完毕后需关闭返回的流
+     * 默认打开整个文件后跳过起始位置之前的数据，支持范围请求的实现需要覆盖
+     * @param fileUrl 文件URL
+     * @param offset 起始位置
+     * @param length 读取长度，传 {@link #UNKNOWN_LENGTH} 时读取到文件末尾
+     * @return 指定范围的输入流
+     */
+    default InputStream downloadRange(String fileUrl, long offset, long length) {
+        InputStream inputStream = openStream(fileUrl);
+        try {
+            IOUtils.skipFully(inputStream, offset);
+        } catch (IOException e) {
+            IOUtils.closeQuietly(inputStream);
+            throw new RuntimeException("按范围下载文件失败", e);
+        }
+        return length < 0 ? inputStream : new BoundedInputStream(inputStream, length);
+    }
+    
+    /**
+     * 获取文件元数据
+     * 默认读取整个文件统计大小，只包含对象名称和大小，能直接查询元数据的实现需要覆盖
+     * @param fileUrl 文件URL
+     * @return 文件元数据
+     */
+    default FileMetadata stat(String fileUrl) {
+        try (InputStream inputStream = openStream(fileUrl)) {
+            return FileMetadata.builder()
+                .objectName(fileUrl)
+                .size(IOUtils.consume(inputStream))
+                .build();
+        } catch (IOException e) {
+            throw new RuntimeException("获取文件元数据失败", e);
+        }
+    }
+    
+    /**
+     * 批量获取文件元数据，并发发起查询请求
+     * 默认逐个调用 {@link #stat(String)}
+     * @param fileUrls 文件URL集合
+     * @return 文件URL -> 文件元数据，文件不存在时对应值为null
+     */
+    default Map<String, FileMetadata> stat(Collection<String> fileUrls) {
+        Map<String, FileMetadata> result = new LinkedHashMap<>();
+        for (String fileUrl : fileUrls) {
+            result.put(fileUrl, stat(fileUrl));
+        }
+        return result;
+    }
+    
+    /**
+     * 批量判断文件是否存在
+     * @param fileUrls 文件URL集合
+     * @return 文件URL -> 是否存在
+     */
+    default Map<String, Boolean> exists(Collection<String> fileUrls) {
+        Map<String, Boolean> result = new LinkedHashMap<>();
+        stat(fileUrls).forEach((fileUrl, metadata) -> result.put(fileUrl, metadata != null));
+        return result;
+    }
+    
+    /**
+     * 列举指定前缀下的对象，按页惰性拉取，遍历任意数量的对象占用的内存恒定
+     * 使用完毕后需关闭返回的流
+     * 默认不支持列举，能列举对象的实现需要覆盖
+     * @param prefix 对象名称前缀，为空时列举全部对象
+     * @return 对象元数据流，不包含内容类型
+     */
+    default Stream<FileMetadata> list(String prefix) {
+        throw new UnsupportedOperationException("当前存储服务不支持列举文件");
+    }
+    
     /**
      * 删除文件
      * @param fileUrl 文件URL
@@ -71,6 +218,38 @@ public interface StorageService {
      */
     boolean deleteFile(String fileUrl);
     
+    /**
+     * 批量删除文件，使用存储服务的批量删除接口并按其单次上限自动拆分
+     * 默认逐个调用 {@link #deleteFile(String)}，单个文件删除失败不影响其余文件
+     * @param fileUrls 文件URL集合
+     * @return 删除失败的文件URL，全部成功时为空列表
+     */
+    default List<String> deleteFiles(Collection<String> fileUrls) {
+        List<String> failed = new ArrayList<>();
+        for (String fileUrl : fileUrls) {
+            boolean deleted;
+            try {
+                deleted = deleteFile(fileUrl);
+            } catch (RuntimeException e) {
+                deleted = false;
+            }
+            if (!deleted) {
+                failed.add(fileUrl);
+            }
+        }
+        return failed;
+    }
+    
+    /**
+     * 从文件URL中解析对象名称，不同存储之间以对象名称对应同一文件
+     * 默认原样返回，URL与对象名称不同的实现需要覆盖
+     * @param fileUrl 文件URL
+     * @return 对象名称
+     */
+    default String getObjectName(String fileUrl) {
+        return fileUrl;
+    }
+    
     /**
      * 获取文件外链
      * @param fileUrl 文件URL
@@ -78,4 +257,11 @@ public interface StorageService {
      * @return 临时外链
      */
     String getFileUrl(String fileUrl, Long expireTime);
-} 
\ No newline at end of file
+    
+    /**
+     * 释放存储服务持有的连接和线程，默认无操作
+     * 装饰类只释放自身的资源，被装饰的存储服务由创建方负责释放
+     */
+    default void shutdown() {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,95 @@
+package com.codeutils.storage.service.impl;
+
+import com.codeutils.storage.async.StorageTaskExecutor;
+import com.codeutils.storage.model.FileMetadata;
+import com.codeutils.storage.model.UploadOptions;
+import com.codeutils.storage.service.AsyncStorageService;
+import com.codeutils.storage.service.StorageService;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 异步存储服务实现，将同步存储服务的调用提交到存储任务执行器
+ */
+public class AsyncStorageServiceImpl implements AsyncStorageService {
+    
+    private final StorageService storageService;
+    private final StorageTaskExecutor executor;
+    
+    public AsyncStorageServiceImpl(StorageService storageService, StorageTaskExecutor executor) {
+        this.storageService = storageService;
+        this.executor = executor;
+    }
+    
+    @Override
+    public CompletableFuture<String> uploadFile(MultipartFile file) {
+        return executor.submit(() -> storageService.uploadFile(file));
+    }
+    
+    @Override
+    public CompletableFuture<String> uploadFile(MultipartFile file, String fileName) {
+        return executor.submit(() -> storageService.uploadFile(file, fileName));
+    }
+    
+    @Override
+    public CompletableFuture<String> uploadFile(File file) {
+        return executor.submit(() -> storageService.uploadFile(file));
+    }
+    
+    @Override
+    public CompletableFuture<String> uploadFile(File file, String fileName) {
+        return executor.submit(() -> storageService.uploadFile(file, fileName));
+    }
+    
+    @Override
+    public CompletableFuture<String> uploadStream(InputStream inputStream, long contentLength, UploadOptions options) {
+        return executor.submit(() -> storageService.uploadStream(inputStream, contentLength, options));
+    }
+    
+    @Override
+    public CompletableFuture<byte[]> downloadFile(String fileUrl) {
+        return executor.submit(() -> storageService.downloadFile(fileUrl));
+    }
+    
+    @Override
+    public CompletableFuture<Long> downloadTo(String fileUrl, Path targetPath) {
+        return executor.submit(() -> storageService.downloadTo(fileUrl, targetPath));
+    }
+    
+    @Override
+    public CompletableFuture<FileMetadata> stat(String fileUrl) {
+        return executor.submit(() -> storageService.stat(fileUrl));
+    }
+    
+    @Override
+    public CompletableFuture<Boolean> deleteFile(String fileUrl) {
+        return executor.submit(() -> storageService.deleteFile(fileUrl));
+    }
+    
+    @Override
+    public CompletableFuture<List<String>> deleteFiles(Collection<String> fileUrls) {
+        // 复制一份，避免调用方在执行前修改集合
+        List<String> snapshot = new ArrayList<>(fileUrls);
+        return executor.submit(() -> storageService.deleteFiles(snapshot));
+    }
+    
+    @Override
+    public CompletableFuture<String> getFileUrl(String fileUrl, Long expireTime) {
+        return executor.submit(() -> storageService.getFileUrl(fileUrl, expireTime));
+    }
+    
+    /**
+     * 获取存储任务执行器，可用于查看线程池统计
+     * @return 存储任务执行器
+     */
+    public StorageTaskExecutor getExecutor() {
+        return executor;
+    }
+}
\ No newline at end of file
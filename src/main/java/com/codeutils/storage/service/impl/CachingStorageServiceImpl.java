@@ -0,0 +1,250 @@
+package com.codeutils.storage.service.impl;
+
+import com.codeutils.common.utils.FileUtils;
+import com.codeutils.storage.cache.LocalDiskCache;
+import com.codeutils.storage.config.StorageProperties;
+import com.codeutils.storage.model.FileMetadata;
+import com.codeutils.storage.model.UploadOptions;
+import com.codeutils.storage.service.StorageService;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * 本地磁盘缓存存储服务
+ * 装饰远程存储服务，下载类操作优先读取本地磁盘缓存，未命中时从远程加载并写入缓存；
+ * 命中时通过文件通道零拷贝传输；上传和删除操作透传并使对应缓存失效。
+ * 缓存以对象名称为键，同一对象经由完整URL、对象名称或带路径的名称访问时共用一份缓存
+ */
+public class CachingStorageServiceImpl implements StorageService {
+    
+    private final StorageService delegate;
+    private final LocalDiskCache diskCache;
+    
+    public CachingStorageServiceImpl(StorageService delegate, StorageProperties.CacheProperties cacheProperties) {
+        this.delegate = delegate;
+        this.diskCache = new LocalDiskCache(cacheProperties);
+    }
+    
+    @Override
+    public String uploadFile(MultipartFile file) {
+        return delegate.uploadFile(file);
+    }
+    
+    @Override
+    public String uploadFile(MultipartFile file, String fileName) {
+        return invalidateAfterUpload(delegate.uploadFile(file, fileName));
+    }
+    
+    @Override
+    public String uploadFile(MultipartFile file, String fileName, String path) {
+        return invalidateAfterUpload(delegate.uploadFile(file, fileName, path));
+    }
+    
+    @Override
+    public String uploadFile(File file) {
+        return delegate.uploadFile(file);
+    }
+    
+    @Override
+    public String uploadFile(File file, String fileName) {
+        return invalidateAfterUpload(delegate.uploadFile(file, fileName));
+    }
+    
+    @Override
+    public String uploadFile(InputStream inputStream, String fileName) {
+        return invalidateAfterUpload(delegate.uploadFile(inputStream, fileName));
+    }
+    
+    @Override
+    public String uploadStream(InputStream inputStream, long contentLength, UploadOptions options) {
+        return invalidateAfterUpload(delegate.uploadStream(inputStream, contentLength, options));
+    }
+    
+    @Override
+    public byte[] downloadFile(String fileUrl) {
+        return readCached(fileUrl, Files::readAllBytes, () -> delegate.downloadFile(fileUrl));
+    }
+    
+    @Override
+    public InputStream openStream(String fileUrl) {
+        return readCached(fileUrl, Files::newInputStream, () -> delegate.openStream(fileUrl));
+    }
+    
+    @Override
+    public long downloadTo(String fileUrl, OutputStream outputStream) {
+        return readCached(fileUrl, path -> {
+            try (FileChannel source = FileChannel.open(path, StandardOpenOption.READ)) {
+                // 文件输出流直接使用其通道，其他流包装为通道
+                WritableByteChannel target = outputStream instanceof FileOutputStream
+                    ? ((FileOutputStream) outputStream).getChannel()
+                    : Channels.newChannel(outputStream);
+                long size = source.size();
+                long position = 0;
+                while (position < size) {
+                    position += source.transferTo(position, size - position, target);
+                }
+                return size;
+            }
+        }, () -> delegate.downloadTo(fileUrl, outputStream));
+    }
+    
+    @Override
+    public long downloadTo(String fileUrl, Path targetPath) {
+        return readCached(fileUrl, path -> {
+            try (FileInputStream inputStream = new FileInputStream(path.toFile())) {
+                return FileUtils.writeStreamToFile(inputStream, targetPath);
+            }
+        }, () -> delegate.downloadTo(fileUrl, targetPath));
+    }
+    
+    @Override
+    public InputStream downloadRange(String fileUrl, long offset, long length) {
+        return readCached(fileUrl, path -> {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+            try {
+                channel.position(offset);
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+            InputStream inputStream = Channels.newInputStream(channel);
+            return length < 0 ? inputStream : new BoundedInputStream(inputStream, length);
+        }, () -> delegate.downloadRange(fileUrl, offset, length));
+    }
+    
+    @Override
+    public FileMetadata stat(String fileUrl) {
+        return delegate.stat(fileUrl);
+    }
+    
+    @Override
+    public Map<String, FileMetadata> stat(Collection<String> fileUrls) {
+        return delegate.stat(fileUrls);
+    }
+    
+    @Override
+    public Stream<FileMetadata> list(String prefix) {
+        return delegate.list(prefix);
+    }
+    
+    @Override
+    public boolean deleteFile(String fileUrl) {
+        boolean deleted = delegate.deleteFile(fileUrl);
+        diskCache.invalidate(cacheKey(fileUrl));
+        return deleted;
+    }
+    
+    @Override
+    public List<String> deleteFiles(Collection<String> fileUrls) {
+        List<String> failed = delegate.deleteFiles(fileUrls);
+        for (String fileUrl : fileUrls) {
+            diskCache.invalidate(cacheKey(fileUrl));
+        }
+        return failed;
+    }
+    
+    @Override
+    public String getObjectName(String fileUrl) {
+        return delegate.getObjectName(fileUrl);
+    }
+    
+    @Override
+    public String getFileUrl(String fileUrl, Long expireTime) {
+        return delegate.getFileUrl(fileUrl, expireTime);
+    }
+    
+    /**
+     * 获取本地磁盘缓存，可用于查看命中统计
+     * @return 本地磁盘缓存
+     */
+    public LocalDiskCache getDiskCache() {
+        return diskCache;
+    }
+    
+    /**
+     * 指定文件名上传可能覆盖已缓存的文件，上传后使返回的URL对应对象的缓存失效，对象名称已包含上传路径
+     */
+    private String invalidateAfterUpload(String fileUrl) {
+        diskCache.invalidate(cacheKey(fileUrl));
+        return fileUrl;
+    }
+    
+    /**
+     * 缓存键：文件URL解析出的对象名称
+     */
+    private String cacheKey(String fileUrl) {
+        return delegate.getObjectName(fileUrl);
+    }
+    
+    /**
+     * 从缓存读取文件，文件过大不缓存或读取前已被淘汰时回退到远程存储
+     */
+    private <T> T readCached(String fileUrl, CachedRead<T> read, Supplier<T> fallback) {
+        Path path = loadCached(fileUrl);
+        if (path != null) {
+            try {
+                return read.read(path);
+            } catch (NoSuchFileException | FileNotFoundException e) {
+                // 读取前被淘汰，回退到远程存储
+            } catch (IOException e) {
+                throw new RuntimeException("读取本地缓存失败", e);
+            }
+        }
+        return fallback.get();
+    }
+    
+    /**
+     * 获取缓存文件，未命中时从远程存储加载
+     */
+    private Path loadCached(String fileUrl) {
+        try {
+            return diskCache.get(cacheKey(fileUrl), new LocalDiskCache.ObjectLoader() {
+                @Override
+                public long size() {
+                    FileMetadata metadata = delegate.stat(fileUrl);
+                    if (metadata == null) {
+                        throw new RuntimeException("文件不存在: " + fileUrl);
+                    }
+                    return metadata.getSize();
+                }
+                
+                @Override
+                public void load(Path target) {
+                    delegate.downloadTo(fileUrl, target);
+                }
+            });
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("加载本地缓存失败", e);
+        }
+    }
+    
+    /**
+     * 缓存文件读取操作
+     */
+    private interface CachedRead<T> {
+        
+        T read(Path path) throws IOException;
+    }
+}
\ No newline at end of file
@@ -1,16 +1,35 @@
 package com.codeutils.storage.service.impl;
 
+import com.codeutils.common.utils.FileUtils;
+import com.codeutils.storage.batch.BatchExecutor;
+import com.codeutils.storage.batch.PagedListIterator;
+import com.codeutils.storage.cache.PresignedUrlCache;
 import com.codeutils.storage.config.StorageProperties;
+import com.codeutils.storage.model.FileMetadata;
+import com.codeutils.storage.model.UploadOptions;
+import com.codeutils.storage.multipart.MultipartUploadEngine;
+import com.codeutils.storage.multipart.MultipartUploader;
 import com.codeutils.storage.service.StorageService;
 import com.qcloud.cos.COSClient;
 import com.qcloud.cos.ClientConfig;
 import com.qcloud.cos.auth.BasicCOSCredentials;
 import com.qcloud.cos.auth.COSCredentials;
+import com.qcloud.cos.exception.CosServiceException;
+import com.qcloud.cos.exception.MultiObjectDeleteException;
 import com.qcloud.cos.http.HttpProtocol;
+import com.qcloud.cos.model.AbortMultipartUploadRequest;
+import com.qcloud.cos.model.COSObjectSummary;
 import com.qcloud.cos.model.COSObject;
+import com.qcloud.cos.model.CompleteMultipartUploadRequest;
+import com.qcloud.cos.model.DeleteObjectsRequest;
 import com.qcloud.cos.model.GetObjectRequest;
+import com.qcloud.cos.model.InitiateMultipartUploadRequest;
+import com.qcloud.cos.model.ListObjectsRequest;
+import com.qcloud.cos.model.ObjectListing;
 import com.qcloud.cos.model.ObjectMetadata;
+import com.qcloud.cos.model.PartETag;
 import com.qcloud.cos.model.PutObjectRequest;
+import com.qcloud.cos.model.UploadPartRequest;
 import com.qcloud.cos.region.Region;
 import org.apache.commons.io.IOUtils;
 import org.springframework.util.StringUtils;
@@ -18,21 +37,51 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URL;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * 腾讯云COS存储服务实现
  */
 public class CosStorageServiceImpl implements StorageService {
     
+    /**
+     * 单次批量删除的对象数上限
+     */
+    private static final int DELETE_BATCH_SIZE = 1000;
+    
     private final StorageProperties.CosProperties cosProperties;
     private final COSClient cosClient;
+    private final MultipartUploadEngine multipartUploadEngine;
+    private final PresignedUrlCache presignedUrlCache;
+    private final BatchExecutor batchExecutor;
+    private final CosMultipartUploader multipartUploader = new CosMultipartUploader();
     
     public CosStorageServiceImpl(StorageProperties.CosProperties cosProperties) {
+        this(cosProperties, new StorageProperties.MultipartProperties(),
+            new PresignedUrlCache(new StorageProperties.UrlCacheProperties()),
+            new BatchExecutor(new StorageProperties.BatchProperties()));
+    }
+    
+    public CosStorageServiceImpl(StorageProperties.CosProperties cosProperties,
+                                 StorageProperties.MultipartProperties multipartProperties,
+                                 PresignedUrlCache presignedUrlCache,
+                                 BatchExecutor batchExecutor) {
         this.cosProperties = cosProperties;
+        this.presignedUrlCache = presignedUrlCache;
+        this.batchExecutor = batchExecutor;
+        this.multipartUploadEngine = new MultipartUploadEngine(multipartProperties);
         
         // 初始化COS客户端
         COSCredentials credentials = new BasicCOSCredentials(
@@ -43,6 +92,12 @@ public class CosStorageServiceImpl implements StorageService {
         ClientConfig clientConfig = new ClientConfig();
         clientConfig.setRegion(new Region(cosProperties.getRegion()));
         clientConfig.setHttpProtocol(HttpProtocol.https);
+        StorageProperties.HttpClientProperties http = cosProperties.getHttp();
+        clientConfig.setMaxConnectionsCount(http.getMaxConnections());
+        clientConfig.setConnectionTimeout(http.getConnectTimeoutMillis());
+        clientConfig.setSocketTimeout(http.getSocketTimeoutMillis());
+        clientConfig.setConnectionRequestTimeout(http.getConnectionRequestTimeoutMillis());
+        clientConfig.setIdleConnectionAlive((int) http.getIdleConnectionTimeMillis());
         
         this.cosClient = new COSClient(credentials, clientConfig);
     }
@@ -50,9 +105,10 @@ public class CosStorageServiceImpl implements StorageService {
     @Override
     public String uploadFile(MultipartFile file) {
         try {
-            String originalFilename = file.getOriginalFilename();
-            String fileName = generateFileName(originalFilename);
-            return uploadFile(file.getInputStream(), fileName);
+            return uploadStream(file.getInputStream(), file.getSize(), UploadOptions.builder()
+                .originalFilename(file.getOriginalFilename())
+                .contentType(file.getContentType())
+                .build());
         } catch (Exception e) {
             throw new RuntimeException("上传文件到COS失败", e);
         }
@@ -61,10 +117,11 @@ public class CosStorageServiceImpl implements StorageService {
     @Override
     public String uploadFile(MultipartFile file, String fileName) {
         try {
-            if (!StringUtils.hasText(fileName)) {
-                fileName = generateFileName(file.getOriginalFilename());
-            }
-            return uploadFile(file.getInputStream(), fileName);
+            return uploadStream(file.getInputStream(), file.getSize(), UploadOptions.builder()
+                .fileName(fileName)
+                .originalFilename(file.getOriginalFilename())
+                .contentType(file.getContentType())
+                .build());
         } catch (Exception e) {
             throw new RuntimeException("上传文件到COS失败", e);
         }
@@ -73,16 +130,12 @@ public class CosStorageServiceImpl implements StorageService {
     @Override
     public String uploadFile(MultipartFile file, String fileName, String path) {
         try {
-            if (!StringUtils.hasText(fileName)) {
-                fileName = generateFileName(file.getOriginalFilename());
-            }
-            if (StringUtils.hasText(path)) {
-                if (!path.endsWith("/")) {
-                    path += "/";
-                }
-                fileName = path + fileName;
-            }
-            return uploadFile(file.getInputStream(), fileName);
+            return uploadStream(file.getInputStream(), file.getSize(), UploadOptions.builder()
+                .fileName(fileName)
+                .originalFilename(file.getOriginalFilename())
+                .path(path)
+                .contentType(file.getContentType())
+                .build());
         } catch (Exception e) {
             throw new RuntimeException("上传文件到COS失败", e);
         }
@@ -92,10 +145,7 @@ public class CosStorageServiceImpl implements StorageService {
     public String uploadFile(File file) {
         try {
             String fileName = generateFileName(file.getName());
-            PutObjectRequest putObjectRequest = new PutObjectRequest(
-                cosProperties.getBucketName(), fileName, file
-            );
-            cosClient.putObject(putObjectRequest);
+            putFile(file, fileName);
             return getFileUrl(fileName, null);
         } catch (Exception e) {
             throw new RuntimeException("上传文件到COS失败", e);
@@ -108,10 +158,7 @@ public class CosStorageServiceImpl implements StorageService {
             if (!StringUtils.hasText(fileName)) {
                 fileName = generateFileName(file.getName());
             }
-            PutObjectRequest putObjectRequest = new PutObjectRequest(
-                cosProperties.getBucketName(), fileName, file
-            );
-            cosClient.putObject(putObjectRequest);
+            putFile(file, fileName);
             return getFileUrl(fileName, null);
         } catch (Exception e) {
             throw new RuntimeException("上传文件到COS失败", e);
@@ -120,21 +167,15 @@ public class CosStorageServiceImpl implements StorageService {
     
     @Override
     public String uploadFile(InputStream inputStream, String fileName) {
+        return uploadStream(inputStream, UNKNOWN_LENGTH, UploadOptions.builder().fileName(fileName).build());
+    }
+    
+    @Override
+    public String uploadStream(InputStream inputStream, long contentLength, UploadOptions options) {
         try {
-            if (!StringUtils.hasText(fileName)) {
-                fileName = generateFileName("file");
-            }
-            
-            ObjectMetadata objectMetadata = new ObjectMetadata();
-            PutObjectRequest putObjectRequest = new PutObjectRequest(
-                cosProperties.getBucketName(), 
-                fileName, 
-                inputStream,
-                objectMetadata
-            );
-            
-            cosClient.putObject(putObjectRequest);
-            return getFileUrl(fileName, null);
+            String objectKey = resolveObjectKey(options);
+            multipartUploadEngine.uploadStream(multipartUploader, objectKey, inputStream, contentLength, options);
+            return getFileUrl(objectKey, null);
         } catch (Exception e) {
             throw new RuntimeException("上传文件到COS失败", e);
         }
@@ -142,18 +183,114 @@ public class CosStorageServiceImpl implements StorageService {
     
     @Override
     public byte[] downloadFile(String fileUrl) {
+        try (InputStream inputStream = openStream(fileUrl)) {
+            return IOUtils.toByteArray(inputStream);
+        } catch (Exception e) {
+            throw new RuntimeException("从COS下载文件失败", e);
+        }
+    }
+    
+    @Override
+    public InputStream openStream(String fileUrl) {
         try {
             String objectKey = getObjectKeyFromUrl(fileUrl);
             GetObjectRequest getObjectRequest = new GetObjectRequest(
                 cosProperties.getBucketName(), objectKey
             );
             COSObject cosObject = cosClient.getObject(getObjectRequest);
-            return IOUtils.toByteArray(cosObject.getObjectContent());
+            return cosObject.getObjectContent();
         } catch (Exception e) {
             throw new RuntimeException("从COS下载文件失败", e);
         }
     }
     
+    @Override
+    public long downloadTo(String fileUrl, OutputStream outputStream) {
+        try (InputStream inputStream = openStream(fileUrl)) {
+            return IOUtils.copyLarge(inputStream, outputStream);
+        } catch (IOException e) {
+            throw new RuntimeException("从COS下载文件失败", e);
+        }
+    }
+    
+    @Override
+    public long downloadTo(String fileUrl, Path targetPath) {
+        try (InputStream inputStream = openStream(fileUrl)) {
+            return FileUtils.writeStreamToFile(inputStream, targetPath);
+        } catch (IOException e) {
+            throw new RuntimeException("从COS下载文件失败", e);
+        }
+    }
+    
+    @Override
+    public InputStream downloadRange(String fileUrl, long offset, long length) {
+        try {
+            String objectKey = getObjectKeyFromUrl(fileUrl);
+            GetObjectRequest request = new GetObjectRequest(cosProperties.getBucketName(), objectKey);
+            request.setRange(offset, length < 0 ? Long.MAX_VALUE : offset + length - 1);
+            return cosClient.getObject(request).getObjectContent();
+        } catch (Exception e) {
+            throw new RuntimeException("从COS下载文件失败", e);
+        }
+    }
+    
+    @Override
+    public FileMetadata stat(String fileUrl) {
+        try {
+            return statObject(getObjectKeyFromUrl(fileUrl));
+        } catch (Exception e) {
+            throw new RuntimeException("获取COS文件信息失败", e);
+        }
+    }
+    
+    @Override
+    public Map<String, FileMetadata> stat(Collection<String> fileUrls) {
+        try {
+            return batchExecutor.execute(fileUrls, fileUrl -> {
+                try {
+                    return statObject(getObjectKeyFromUrl(fileUrl));
+                } catch (CosServiceException e) {
+                    if (e.getStatusCode() == 404) {
+                        return null;
+                    }
+                    throw e;
+                }
+            });
+        } catch (Exception e) {
+            throw new RuntimeException("批量获取COS文件信息失败", e);
+        }
+    }
+    
+    @Override
+    public Stream<FileMetadata> list(String prefix) {
+        return batchExecutor.stream(marker -> {
+            ListObjectsRequest request = new ListObjectsRequest();
+            request.setBucketName(cosProperties.getBucketName());
+            request.setPrefix(prefix);
+            request.setMaxKeys(batchExecutor.getListPageSize());
+            request.setMarker(marker);
+            ObjectListing listing = cosClient.listObjects(request);
+            
+            List<FileMetadata> items = new ArrayList<>(listing.getObjectSummaries().size());
+            for (COSObjectSummary summary : listing.getObjectSummaries()) {
+                items.add(FileMetadata.builder()
+                    .objectName(summary.getKey())
+                    .size(summary.getSize())
+                    .etag(summary.getETag())
+                    .lastModified(summary.getLastModified())
+                    .build());
+            }
+            if (!listing.isTruncated() || items.isEmpty()) {
+                return new PagedListIterator.Page<>(items, null);
+            }
+            // 未指定分隔符时响应中可能没有NextMarker，以本页最后一个对象键作为下一页起点
+            String nextMarker = StringUtils.hasText(listing.getNextMarker())
+                ? listing.getNextMarker()
+                : items.get(items.size() - 1).getObjectName();
+            return new PagedListIterator.Page<>(items, nextMarker);
+        });
+    }
+    
     @Override
     public boolean deleteFile(String fileUrl) {
         try {
@@ -166,32 +303,111 @@ public class CosStorageServiceImpl implements StorageService {
     }
     
     @Override
-    public String getFileUrl(String fileUrl, Long expireTime) {
+    public List<String> deleteFiles(Collection<String> fileUrls) {
         try {
-            String objectKey;
-            if (fileUrl.startsWith("http")) {
-                objectKey = getObjectKeyFromUrl(fileUrl);
-            } else {
-                objectKey = fileUrl;
+            Map<String, String> fileUrlsByKey = new LinkedHashMap<>();
+            for (String fileUrl : fileUrls) {
+                fileUrlsByKey.put(getObjectKeyFromUrl(fileUrl), fileUrl);
             }
             
+            List<String> keys = new ArrayList<>(fileUrlsByKey.keySet());
+            List<String> failed = new ArrayList<>();
+            for (int from = 0; from < keys.size(); from += DELETE_BATCH_SIZE) {
+                List<DeleteObjectsRequest.KeyVersion> chunk = new ArrayList<>();
+                for (String key : keys.subList(from, Math.min(from + DELETE_BATCH_SIZE, keys.size()))) {
+                    chunk.add(new DeleteObjectsRequest.KeyVersion(key));
+                }
+                DeleteObjectsRequest request = new DeleteObjectsRequest(cosProperties.getBucketName());
+                request.setKeys(chunk);
+                request.setQuiet(true);
+                
+                // 部分对象删除失败时抛出异常，其中包含失败的对象
+                try {
+                    cosClient.deleteObjects(request);
+                } catch (MultiObjectDeleteException e) {
+                    for (MultiObjectDeleteException.DeleteError error : e.getErrors()) {
+                        failed.add(fileUrlsByKey.get(error.getKey()));
+                    }
+                }
+            }
+            return failed;
+        } catch (Exception e) {
+            throw new RuntimeException("从COS批量删除文件失败", e);
+        }
+    }
+    
+    @Override
+    public String getObjectName(String fileUrl) {
+        return getObjectKeyFromUrl(fileUrl);
+    }
+    
+    @Override
+    public String getFileUrl(String fileUrl, Long expireTime) {
+        try {
             if (expireTime == null || expireTime <= 0) {
-                return getDefaultUrl(objectKey);
+                return createFileUrl(fileUrl, null);
             }
-            
-            Date expirationDate = new Date(System.currentTimeMillis() + expireTime * 1000);
-            URL url = cosClient.generatePresignedUrl(
-                cosProperties.getBucketName(), 
-                objectKey, 
-                expirationDate
-            );
-            
-            return url.toString();
+            // 签名链接优先从缓存获取，按对象键和分桶后的有效期命中，命中时跳过签名计算
+            String objectKey = getObjectKeyFromUrl(fileUrl);
+            long expireSeconds = presignedUrlCache.bucketExpireSeconds(expireTime);
+            return presignedUrlCache.get("cos:" + cosProperties.getBucketName(), objectKey, expireSeconds,
+                () -> createFileUrl(objectKey, expireSeconds));
         } catch (Exception e) {
             throw new RuntimeException("获取COS文件链接失败", e);
         }
     }
     
+    @Override
+    public void shutdown() {
+        multipartUploadEngine.shutdown();
+        cosClient.shutdown();
+    }
+    
+    /**
+     * 获取对象元数据
+     * @param objectKey 对象键
+     * @return 文件元数据
+     */
+    private FileMetadata statObject(String objectKey) {
+        ObjectMetadata metadata = cosClient.getObjectMetadata(cosProperties.getBucketName(), objectKey);
+        return FileMetadata.builder()
+            .objectName(objectKey)
+            .size(metadata.getContentLength())
+            .etag(metadata.getETag())
+            .lastModified(metadata.getLastModified())
+            .contentType(metadata.getContentType())
+            .build();
+    }
+    
+    /**
+     * 生成文件链接
+     * @param fileUrl 文件URL
+     * @param expireTime 过期时间（秒），为空时返回默认URL
+     * @return 文件链接
+     * @throws Exception 签名失败
+     */
+    private String createFileUrl(String fileUrl, Long expireTime) throws Exception {
+        String objectKey;
+        if (fileUrl.startsWith("http")) {
+            objectKey = getObjectKeyFromUrl(fileUrl);
+        } else {
+            objectKey = fileUrl;
+        }
+        
+        if (expireTime == null || expireTime <= 0) {
+            return getDefaultUrl(objectKey);
+        }
+        
+        Date expirationDate = new Date(System.currentTimeMillis() + expireTime * 1000);
+        URL url = cosClient.generatePresignedUrl(
+            cosProperties.getBucketName(), 
+            objectKey, 
+            expirationDate
+        );
+        
+        return url.toString();
+    }
+    
     /**
      * 获取默认的访问URL
      * @param objectKey 对象键
@@ -204,6 +420,20 @@ public class CosStorageServiceImpl implements StorageService {
             objectKey);
     }
     
+    /**
+     * 上传本地文件，超过阈值时并发分片上传
+     * @param file 本地文件
+     * @param objectKey 对象键
+     * @throws Exception 上传失败
+     */
+    private void putFile(File file, String objectKey) throws Exception {
+        if (multipartUploadEngine.requiresMultipart(file.length())) {
+            multipartUploadEngine.uploadFile(multipartUploader, objectKey, file, null);
+        } else {
+            cosClient.putObject(new PutObjectRequest(cosProperties.getBucketName(), objectKey, file));
+        }
+    }
+    
     /**
      * 生成文件名
      * @param originalFilename 原始文件名
@@ -218,6 +448,42 @@ public class CosStorageServiceImpl implements StorageService {
         return uuid + extension;
     }
     
+    /**
+     * 根据上传选项确定对象键
+     * @param options 上传选项
+     * @return 对象键
+     */
+    private String resolveObjectKey(UploadOptions options) {
+        if (options == null) {
+            options = new UploadOptions();
+        }
+        String fileName = options.getFileName();
+        if (!StringUtils.hasText(fileName)) {
+            fileName = generateFileName(options.getOriginalFilename());
+        }
+        String path = options.getPath();
+        if (StringUtils.hasText(path)) {
+            if (!path.endsWith("/")) {
+                path += "/";
+            }
+            fileName = path + fileName;
+        }
+        return fileName;
+    }
+    
+    /**
+     * 根据上传选项创建对象元数据
+     * @param options 上传选项
+     * @return 对象元数据
+     */
+    private ObjectMetadata createMetadata(UploadOptions options) {
+        ObjectMetadata metadata = new ObjectMetadata();
+        if (options != null && StringUtils.hasText(options.getContentType())) {
+            metadata.setContentType(options.getContentType());
+        }
+        return metadata;
+    }
+    
     /**
      * 从URL中获取对象键
      * @param fileUrl 文件URL
@@ -239,4 +505,52 @@ public class CosStorageServiceImpl implements StorageService {
             return fileUrl;
         }
     }
-} 
\ No newline at end of file
+    
+    /**
+     * COS分片上传适配
+     */
+    private class CosMultipartUploader implements MultipartUploader<PartETag> {
+        
+        @Override
+        public void putObject(String objectKey, InputStream inputStream, long size, UploadOptions options) {
+            ObjectMetadata metadata = createMetadata(options);
+            metadata.setContentLength(size);
+            cosClient.putObject(new PutObjectRequest(cosProperties.getBucketName(), objectKey, inputStream, metadata));
+        }
+        
+        @Override
+        public String initiate(String objectKey, UploadOptions options) {
+            InitiateMultipartUploadRequest request = new InitiateMultipartUploadRequest(
+                cosProperties.getBucketName(), objectKey
+            );
+            request.setObjectMetadata(createMetadata(options));
+            return cosClient.initiateMultipartUpload(request).getUploadId();
+        }
+        
+        @Override
+        public PartETag uploadPart(String objectKey, String uploadId, int partNumber, InputStream inputStream, long partSize) {
+            UploadPartRequest request = new UploadPartRequest();
+            request.setBucketName(cosProperties.getBucketName());
+            request.setKey(objectKey);
+            request.setUploadId(uploadId);
+            request.setPartNumber(partNumber);
+            request.setInputStream(inputStream);
+            request.setPartSize(partSize);
+            return cosClient.uploadPart(request).getPartETag();
+        }
+        
+        @Override
+        public void complete(String objectKey, String uploadId, List<PartETag> parts) {
+            cosClient.completeMultipartUpload(new CompleteMultipartUploadRequest(
+                cosProperties.getBucketName(), objectKey, uploadId, parts
+            ));
+        }
+        
+        @Override
+        public void abort(String objectKey, String uploadId) {
+            cosClient.abortMultipartUpload(new AbortMultipartUploadRequest(
+                cosProperties.getBucketName(), objectKey, uploadId
+            ));
+        }
+    }
+}
\ No newline at end of file
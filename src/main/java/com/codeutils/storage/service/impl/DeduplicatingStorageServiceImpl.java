@@ -0,0 +1,291 @@
+package com.codeutils.storage.service.impl;
+
+import com.codeutils.common.utils.EncryptUtils;
+import com.codeutils.common.utils.FileUtils;
+import com.codeutils.storage.config.StorageProperties;
+import com.codeutils.storage.model.FileMetadata;
+import com.codeutils.storage.model.UploadOptions;
+import com.codeutils.storage.service.StorageService;
+import org.apache.commons.io.IOUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * 内容寻址去重存储服务
+ * 未指定文件名的上传以内容的SHA-256摘要命名：读取输入流的同时计算摘要并暂存内容，
+ * 读取完成后先查询同名对象，已存在时直接返回其链接，不再上传
+ */
+public class DeduplicatingStorageServiceImpl implements StorageService {
+    
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    
+    /**
+     * 计算本地文件摘要时的读取缓冲区大小
+     */
+    private static final int DIGEST_BUFFER_SIZE = 64 * 1024;
+    
+    private final StorageService delegate;
+    private final StorageProperties.DedupProperties dedupProperties;
+    private final Path spoolDirectory;
+    
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong savedBytes = new AtomicLong();
+    
+    public DeduplicatingStorageServiceImpl(StorageService delegate, StorageProperties.DedupProperties dedupProperties) {
+        this.delegate = delegate;
+        this.dedupProperties = dedupProperties;
+        this.spoolDirectory = Paths.get(dedupProperties.getSpoolDirectory());
+    }
+    
+    @Override
+    public String uploadFile(MultipartFile file) {
+        try {
+            return uploadStream(file.getInputStream(), file.getSize(), UploadOptions.builder()
+                .originalFilename(file.getOriginalFilename())
+                .contentType(file.getContentType())
+                .build());
+        } catch (IOException e) {
+            throw new RuntimeException("去重上传文件失败", e);
+        }
+    }
+    
+    @Override
+    public String uploadFile(MultipartFile file, String fileName) {
+        return delegate.uploadFile(file, fileName);
+    }
+    
+    @Override
+    public String uploadFile(MultipartFile file, String fileName, String path) {
+        return delegate.uploadFile(file, fileName, path);
+    }
+    
+    @Override
+    public String uploadFile(File file) {
+        try {
+            // 本地文件可重复读取，直接计算摘要，未命中时仍按文件上传以使用并发分片
+            MessageDigest digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                ByteBuffer buffer = ByteBuffer.allocate(DIGEST_BUFFER_SIZE);
+                while (channel.read(buffer) >= 0) {
+                    buffer.flip();
+                    digest.update(buffer);
+                    buffer.clear();
+                }
+            }
+            
+            String objectName = contentObjectName(digest, file.getName(), null);
+            if (exists(objectName)) {
+                return hit(objectName, file.length());
+            }
+            missCount.incrementAndGet();
+            return delegate.uploadFile(file, objectName);
+        } catch (Exception e) {
+            throw new RuntimeException("去重上传文件失败", e);
+        }
+    }
+    
+    @Override
+    public String uploadFile(File file, String fileName) {
+        if (!StringUtils.hasText(fileName)) {
+            return uploadFile(file);
+        }
+        return delegate.uploadFile(file, fileName);
+    }
+    
+    @Override
+    public String uploadFile(InputStream inputStream, String fileName) {
+        if (!StringUtils.hasText(fileName)) {
+            return uploadStream(inputStream, UNKNOWN_LENGTH, new UploadOptions());
+        }
+        return delegate.uploadFile(inputStream, fileName);
+    }
+    
+    @Override
+    public String uploadStream(InputStream inputStream, long contentLength, UploadOptions options) {
+        if (options != null && StringUtils.hasText(options.getFileName())) {
+            return delegate.uploadStream(inputStream, contentLength, options);
+        }
+        if (options == null) {
+            options = new UploadOptions();
+        }
+        
+        try {
+            MessageDigest digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+            DigestInputStream digestStream = new DigestInputStream(inputStream, digest);
+            
+            if (contentLength >= 0 && contentLength <= dedupProperties.getMemoryThreshold()) {
+                byte[] content = IOUtils.toByteArray(digestStream);
+                String objectName = contentObjectName(digest, options.getOriginalFilename(), options.getPath());
+                if (exists(objectName)) {
+                    return hit(objectName, content.length);
+                }
+                missCount.incrementAndGet();
+                return delegate.uploadStream(new ByteArrayInputStream(content), content.length,
+                    withObjectName(options, objectName));
+            }
+            
+            // 内容较大或长度未知时暂存到临时文件，上传时从临时文件读取，不再读取原始流
+            Files.createDirectories(spoolDirectory);
+            Path spool = Files.createTempFile(spoolDirectory, "codeutils-dedup-", ".tmp");
+            try {
+                long size = FileUtils.writeStreamToFile(digestStream, spool);
+                String objectName = contentObjectName(digest, options.getOriginalFilename(), options.getPath());
+                if (exists(objectName)) {
+                    return hit(objectName, size);
+                }
+                missCount.incrementAndGet();
+                try (InputStream spoolStream = Files.newInputStream(spool)) {
+                    return delegate.uploadStream(spoolStream, size, withObjectName(options, objectName));
+                }
+            } finally {
+                Files.deleteIfExists(spool);
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("去重上传文件失败", e);
+        }
+    }
+    
+    @Override
+    public byte[] downloadFile(String fileUrl) {
+        return delegate.downloadFile(fileUrl);
+    }
+    
+    @Override
+    public InputStream openStream(String fileUrl) {
+        return delegate.openStream(fileUrl);
+    }
+    
+    @Override
+    public long downloadTo(String fileUrl, OutputStream outputStream) {
+        return delegate.downloadTo(fileUrl, outputStream);
+    }
+    
+    @Override
+    public long downloadTo(String fileUrl, Path targetPath) {
+        return delegate.downloadTo(fileUrl, targetPath);
+    }
+    
+    @Override
+    public InputStream downloadRange(String fileUrl, long offset, long length) {
+        return delegate.downloadRange(fileUrl, offset, length);
+    }
+    
+    @Override
+    public FileMetadata stat(String fileUrl) {
+        return delegate.stat(fileUrl);
+    }
+    
+    @Override
+    public Map<String, FileMetadata> stat(Collection<String> fileUrls) {
+        return delegate.stat(fileUrls);
+    }
+    
+    @Override
+    public Stream<FileMetadata> list(String prefix) {
+        return delegate.list(prefix);
+    }
+    
+    @Override
+    public boolean deleteFile(String fileUrl) {
+        return delegate.deleteFile(fileUrl);
+    }
+    
+    @Override
+    public List<String> deleteFiles(Collection<String> fileUrls) {
+        return delegate.deleteFiles(fileUrls);
+    }
+    
+    @Override
+    public String getObjectName(String fileUrl) {
+        return delegate.getObjectName(fileUrl);
+    }
+    
+    @Override
+    public String getFileUrl(String fileUrl, Long expireTime) {
+        return delegate.getFileUrl(fileUrl, expireTime);
+    }
+    
+    /**
+     * 获取命中次数，即跳过上传的次数
+     * @return 命中次数
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+    
+    /**
+     * 获取未命中次数
+     * @return 未命中次数
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+    
+    /**
+     * 获取因命中而节省的上传字节数
+     * @return 节省的字节数
+     */
+    public long getSavedBytes() {
+        return savedBytes.get();
+    }
+    
+    /**
+     * 根据内容摘要生成对象名称
+     * @param digest 已读取全部内容的摘要
+     * @param originalFilename 原始文件名，用于保留扩展名
+     * @param path 上传路径，为空时使用配置的前缀
+     * @return 对象名称
+     */
+    private String contentObjectName(MessageDigest digest, String originalFilename, String path) {
+        String prefix = StringUtils.hasText(path) ? path : dedupProperties.getPrefix();
+        if (prefix == null) {
+            prefix = "";
+        } else if (!prefix.isEmpty() && !prefix.endsWith("/")) {
+            prefix += "/";
+        }
+        String extension = "";
+        if (StringUtils.hasText(originalFilename) && originalFilename.contains(".")) {
+            extension = originalFilename.substring(originalFilename.lastIndexOf("."));
+        }
+        return prefix + EncryptUtils.bytesToHex(digest.digest()) + extension;
+    }
+    
+    private boolean exists(String objectName) {
+        return Boolean.TRUE.equals(delegate.exists(Collections.singletonList(objectName)).get(objectName));
+    }
+    
+    private String hit(String objectName, long size) {
+        hitCount.incrementAndGet();
+        savedBytes.addAndGet(size);
+        return delegate.getFileUrl(objectName, null);
+    }
+    
+    private UploadOptions withObjectName(UploadOptions options, String objectName) {
+        return UploadOptions.builder()
+            .fileName(objectName)
+            .originalFilename(options.getOriginalFilename())
+            .contentType(options.getContentType())
+            .build();
+    }
+}
\ No newline at end of file
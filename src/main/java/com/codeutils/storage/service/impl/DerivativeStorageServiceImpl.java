@@ -0,0 +1,232 @@
+package com.codeutils.storage.service.impl;
+
+import com.codeutils.storage.image.ImageDerivativeGenerator;
+import com.codeutils.storage.model.FileMetadata;
+import com.codeutils.storage.model.UploadOptions;
+import com.codeutils.storage.service.StorageService;
+import org.apache.commons.io.input.TeeInputStream;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * 图片衍生图装饰类
+ * 图片上传成功后把已在内存中的原图数据交给 {@link ImageDerivativeGenerator} 异步生成衍生图，无需再下载原图；
+ * 流式上传时在上传过程中顺带复制一份数据，超过原图大小上限时放弃复制。
+ * 衍生图生成失败或被拒绝不影响原图上传结果，可通过生成器的计数监控
+ */
+public class DerivativeStorageServiceImpl implements StorageService {
+    
+    private final StorageService delegate;
+    private final ImageDerivativeGenerator generator;
+    
+    /**
+     * @param delegate 被装饰的存储服务
+     * @param generator 衍生图生成器，随本服务一起关闭
+     */
+    public DerivativeStorageServiceImpl(StorageService delegate, ImageDerivativeGenerator generator) {
+        this.delegate = delegate;
+        this.generator = generator;
+    }
+    
+    @Override
+    public String uploadFile(MultipartFile file) {
+        return afterUpload(delegate.uploadFile(file), file);
+    }
+    
+    @Override
+    public String uploadFile(MultipartFile file, String fileName) {
+        return afterUpload(delegate.uploadFile(file, fileName), file);
+    }
+    
+    @Override
+    public String uploadFile(MultipartFile file, String fileName, String path) {
+        return afterUpload(delegate.uploadFile(file, fileName, path), file);
+    }
+    
+    @Override
+    public String uploadFile(File file) {
+        return afterUpload(delegate.uploadFile(file), file);
+    }
+    
+    @Override
+    public String uploadFile(File file, String fileName) {
+        return afterUpload(delegate.uploadFile(file, fileName), file);
+    }
+    
+    @Override
+    public String uploadFile(InputStream inputStream, String fileName) {
+        if (!generator.accepts(fileName, null, UNKNOWN_LENGTH)) {
+            return delegate.uploadFile(inputStream, fileName);
+        }
+        CaptureOutputStream capture = new CaptureOutputStream(generator.getMaxSourceBytes());
+        return afterUpload(delegate.uploadFile(new TeeInputStream(inputStream, capture), fileName), capture);
+    }
+    
+    @Override
+    public String uploadStream(InputStream inputStream, long contentLength, UploadOptions options) {
+        String fileName = options == null ? null
+            : StringUtils.hasText(options.getFileName()) ? options.getFileName() : options.getOriginalFilename();
+        String contentType = options == null ? null : options.getContentType();
+        // 非图片不包装，保留文件流的通道传输
+        if (!generator.accepts(fileName, contentType, contentLength)) {
+            return delegate.uploadStream(inputStream, contentLength, options);
+        }
+        CaptureOutputStream capture = new CaptureOutputStream(generator.getMaxSourceBytes());
+        return afterUpload(delegate.uploadStream(new TeeInputStream(inputStream, capture), contentLength, options),
+            capture);
+    }
+    
+    @Override
+    public byte[] downloadFile(String fileUrl) {
+        return delegate.downloadFile(fileUrl);
+    }
+    
+    @Override
+    public InputStream openStream(String fileUrl) {
+        return delegate.openStream(fileUrl);
+    }
+    
+    @Override
+    public long downloadTo(String fileUrl, OutputStream outputStream) {
+        return delegate.downloadTo(fileUrl, outputStream);
+    }
+    
+    @Override
+    public long downloadTo(String fileUrl, Path targetPath) {
+        return delegate.downloadTo(fileUrl, targetPath);
+    }
+    
+    @Override
+    public InputStream downloadRange(String fileUrl, long offset, long length) {
+        return delegate.downloadRange(fileUrl, offset, length);
+    }
+    
+    @Override
+    public FileMetadata stat(String fileUrl) {
+        return delegate.stat(fileUrl);
+    }
+    
+    @Override
+    public Map<String, FileMetadata> stat(Collection<String> fileUrls) {
+        return delegate.stat(fileUrls);
+    }
+    
+    @Override
+    public Stream<FileMetadata> list(String prefix) {
+        return delegate.list(prefix);
+    }
+    
+    @Override
+    public boolean deleteFile(String fileUrl) {
+        return delegate.deleteFile(fileUrl);
+    }
+    
+    @Override
+    public List<String> deleteFiles(Collection<String> fileUrls) {
+        return delegate.deleteFiles(fileUrls);
+    }
+    
+    @Override
+    public String getObjectName(String fileUrl) {
+        return delegate.getObjectName(fileUrl);
+    }
+    
+    @Override
+    public String getFileUrl(String fileUrl, Long expireTime) {
+        return delegate.getFileUrl(fileUrl, expireTime);
+    }
+    
+    @Override
+    public void shutdown() {
+        generator.shutdown();
+    }
+    
+    /**
+     * 获取衍生图生成器
+     * @return 衍生图生成器
+     */
+    public ImageDerivativeGenerator getGenerator() {
+        return generator;
+    }
+    
+    private String afterUpload(String fileUrl, MultipartFile file) {
+        if (generator.accepts(file.getOriginalFilename(), file.getContentType(), file.getSize())) {
+            try {
+                generator.submit(delegate.getObjectName(fileUrl), file.getBytes());
+            } catch (IOException ignored) {
+                // 原图已上传成功，衍生图不影响上传结果
+            }
+        }
+        return fileUrl;
+    }
+    
+    private String afterUpload(String fileUrl, File file) {
+        if (generator.accepts(file.getName(), null, file.length())) {
+            try {
+                generator.submit(delegate.getObjectName(fileUrl), Files.readAllBytes(file.toPath()));
+            } catch (IOException ignored) {
+                // 原图已上传成功，衍生图不影响上传结果
+            }
+        }
+        return fileUrl;
+    }
+    
+    private String afterUpload(String fileUrl, CaptureOutputStream capture) {
+        if (!capture.overflowed) {
+            generator.submit(delegate.getObjectName(fileUrl), capture.toByteArray());
+        }
+        return fileUrl;
+    }
+    
+    /**
+     * 复制上传数据的输出流，超过上限后丢弃已复制的数据并忽略后续写入
+     */
+    private static final class CaptureOutputStream extends ByteArrayOutputStream {
+        
+        private final long limit;
+        private boolean overflowed;
+        
+        private CaptureOutputStream(long limit) {
+            this.limit = limit;
+        }
+        
+        @Override
+        public synchronized void write(int b) {
+            if (reserve(1)) {
+                super.write(b);
+            }
+        }
+        
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            if (reserve(len)) {
+                super.write(b, off, len);
+            }
+        }
+        
+        private boolean reserve(int length) {
+            if (overflowed) {
+                return false;
+            }
+            if (count + (long) length > limit) {
+                overflowed = true;
+                reset();
+                buf = new byte[0];
+                return false;
+            }
+            return true;
+        }
+    }
+}
\ No newline at end of file
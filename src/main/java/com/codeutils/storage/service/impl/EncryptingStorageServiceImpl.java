@@ -0,0 +1,203 @@
+package com.codeutils.storage.service.impl;
+
+import com.codeutils.common.utils.FileUtils;
+import com.codeutils.storage.crypto.EnvelopeEncryption;
+import com.codeutils.storage.model.FileMetadata;
+import com.codeutils.storage.model.UploadOptions;
+import com.codeutils.storage.service.StorageService;
+import org.apache.commons.io.IOUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * 客户端加密存储服务装饰类
+ * 上传时以 {@link EnvelopeEncryption} 分块加密后写入存储，下载时边读边解密，内存占用与文件大小无关；
+ * 查询到的文件大小为明文大小；密文的ETag与明文内容无关，不返回ETag。
+ * 临时链接指向密文，需经由本服务下载才能得到明文；加密后相同内容的密文不同，内容寻址去重需位于本服务之外。
+ * 所有上传（包括File和MultipartFile）都以只能读取一次的密文流交给被装饰服务，
+ * 因此上传失败时不会重试，也不会使用本地文件的断点续传和按位置并发读取的分片上传
+ */
+public class EncryptingStorageServiceImpl implements StorageService {
+    
+    private final StorageService delegate;
+    private final EnvelopeEncryption encryption;
+    
+    /**
+     * @param delegate 被装饰的存储服务
+     * @param encryption 信封加密
+     */
+    public EncryptingStorageServiceImpl(StorageService delegate, EnvelopeEncryption encryption) {
+        this.delegate = delegate;
+        this.encryption = encryption;
+    }
+    
+    @Override
+    public String uploadFile(MultipartFile file) {
+        return uploadFile(file, null, null);
+    }
+    
+    @Override
+    public String uploadFile(MultipartFile file, String fileName) {
+        return uploadFile(file, fileName, null);
+    }
+    
+    @Override
+    public String uploadFile(MultipartFile file, String fileName, String path) {
+        try (InputStream inputStream = file.getInputStream()) {
+            return uploadStream(inputStream, file.getSize(), UploadOptions.builder()
+                .fileName(fileName)
+                .originalFilename(file.getOriginalFilename())
+                .path(path)
+                .contentType(file.getContentType())
+                .build());
+        } catch (IOException e) {
+            throw new RuntimeException("加密上传文件失败", e);
+        }
+    }
+    
+    @Override
+    public String uploadFile(File file) {
+        return uploadFile(file, null);
+    }
+    
+    @Override
+    public String uploadFile(File file, String fileName) {
+        try (InputStream inputStream = Files.newInputStream(file.toPath())) {
+            return uploadStream(inputStream, file.length(), UploadOptions.builder()
+                .fileName(StringUtils.hasText(fileName) ? fileName : null)
+                .originalFilename(file.getName())
+                .build());
+        } catch (IOException e) {
+            throw new RuntimeException("加密上传文件失败", e);
+        }
+    }
+    
+    @Override
+    public String uploadFile(InputStream inputStream, String fileName) {
+        return uploadStream(inputStream, UNKNOWN_LENGTH, UploadOptions.builder().fileName(fileName).build());
+    }
+    
+    @Override
+    public String uploadStream(InputStream inputStream, long contentLength, UploadOptions options) {
+        long encryptedLength = contentLength < 0 ? UNKNOWN_LENGTH : encryption.ciphertextLength(contentLength);
+        return delegate.uploadStream(encryption.encrypt(inputStream), encryptedLength, options);
+    }
+    
+    @Override
+    public byte[] downloadFile(String fileUrl) {
+        try (InputStream inputStream = openStream(fileUrl)) {
+            return IOUtils.toByteArray(inputStream);
+        } catch (IOException e) {
+            throw new RuntimeException("解密下载文件失败", e);
+        }
+    }
+    
+    @Override
+    public InputStream openStream(String fileUrl) {
+        InputStream ciphertext = delegate.openStream(fileUrl);
+        try {
+            return encryption.decrypt(ciphertext);
+        } catch (IOException e) {
+            IOUtils.closeQuietly(ciphertext);
+            throw new RuntimeException("解密下载文件失败", e);
+        }
+    }
+    
+    @Override
+    public long downloadTo(String fileUrl, OutputStream outputStream) {
+        try (InputStream inputStream = openStream(fileUrl)) {
+            return IOUtils.copyLarge(inputStream, outputStream);
+        } catch (IOException e) {
+            throw new RuntimeException("解密下载文件失败", e);
+        }
+    }
+    
+    @Override
+    public long downloadTo(String fileUrl, Path targetPath) {
+        try (InputStream inputStream = openStream(fileUrl)) {
+            return FileUtils.writeStreamToFile(inputStream, targetPath);
+        } catch (IOException e) {
+            throw new RuntimeException("解密下载文件失败", e);
+        }
+    }
+    
+    @Override
+    public InputStream downloadRange(String fileUrl, long offset, long length) {
+        try {
+            FileMetadata metadata = delegate.stat(fileUrl);
+            if (metadata == null) {
+                throw new RuntimeException("文件不存在: " + fileUrl);
+            }
+            return encryption.decryptRange((start, count) -> delegate.downloadRange(fileUrl, start, count),
+                metadata.getSize(), offset, length);
+        } catch (IOException e) {
+            throw new RuntimeException("解密下载文件失败", e);
+        }
+    }
+    
+    @Override
+    public FileMetadata stat(String fileUrl) {
+        return toPlaintext(delegate.stat(fileUrl));
+    }
+    
+    @Override
+    public Map<String, FileMetadata> stat(Collection<String> fileUrls) {
+        Map<String, FileMetadata> result = new LinkedHashMap<>();
+        delegate.stat(fileUrls).forEach((fileUrl, metadata) -> result.put(fileUrl, toPlaintext(metadata)));
+        return result;
+    }
+    
+    @Override
+    public Stream<FileMetadata> list(String prefix) {
+        return delegate.list(prefix).map(this::toPlaintext);
+    }
+    
+    @Override
+    public boolean deleteFile(String fileUrl) {
+        return delegate.deleteFile(fileUrl);
+    }
+    
+    @Override
+    public List<String> deleteFiles(Collection<String> fileUrls) {
+        return delegate.deleteFiles(fileUrls);
+    }
+    
+    @Override
+    public String getObjectName(String fileUrl) {
+        return delegate.getObjectName(fileUrl);
+    }
+    
+    @Override
+    public String getFileUrl(String fileUrl, Long expireTime) {
+        return delegate.getFileUrl(fileUrl, expireTime);
+    }
+    
+    /**
+     * 将密文元数据转换为明文大小，不修改被装饰服务返回的对象；长度不足的对象不是加密对象，保持原大小。
+     * 密文的ETag（MD5）无法与明文摘要比较，置空后调用方按大小和修改时间判断变化
+     */
+    private FileMetadata toPlaintext(FileMetadata metadata) {
+        if (metadata == null) {
+            return null;
+        }
+        return FileMetadata.builder()
+            .objectName(metadata.getObjectName())
+            .size(metadata.getSize() < EnvelopeEncryption.MIN_CIPHERTEXT_LENGTH
+                ? metadata.getSize() : encryption.plaintextLength(metadata.getSize()))
+            .lastModified(metadata.getLastModified())
+            .contentType(metadata.getContentType())
+            .build();
+    }
+}
\ No newline at end of file
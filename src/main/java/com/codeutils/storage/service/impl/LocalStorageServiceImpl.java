@@ -0,0 +1,410 @@
+package com.codeutils.storage.service.impl;
+
+import com.codeutils.common.utils.EncryptUtils;
+import com.codeutils.common.utils.FileUtils;
+import com.codeutils.storage.config.StorageProperties;
+import com.codeutils.storage.model.FileMetadata;
+import com.codeutils.storage.model.UploadOptions;
+import com.codeutils.storage.service.StorageService;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * 本地文件系统存储服务实现
+ * 对象按名称的SHA-256摘要分两级目录存放（根目录/ab/cd/对象名称），避免单个目录下文件过多；
+ * 写入时先落临时文件再原子移动，读写均通过文件通道传输
+ */
+public class LocalStorageServiceImpl implements StorageService {
+    
+    /**
+     * 临时文件后缀
+     */
+    static final String TEMP_SUFFIX = ".tmp";
+    
+    private final StorageProperties.LocalProperties localProperties;
+    private final Path rootPath;
+    private final LocalUrlSigner urlSigner;
+    
+    public LocalStorageServiceImpl(StorageProperties.LocalProperties localProperties) {
+        this.localProperties = localProperties;
+        this.rootPath = Paths.get(localProperties.getRootPath()).toAbsolutePath().normalize();
+        this.urlSigner = new LocalUrlSigner(localProperties.getSecretKey());
+        
+        try {
+            Files.createDirectories(rootPath);
+        } catch (IOException e) {
+            throw new RuntimeException("初始化本地存储目录失败", e);
+        }
+    }
+    
+    @Override
+    public String uploadFile(MultipartFile file) {
+        try {
+            return uploadStream(file.getInputStream(), file.getSize(), UploadOptions.builder()
+                .originalFilename(file.getOriginalFilename())
+                .contentType(file.getContentType())
+                .build());
+        } catch (Exception e) {
+            throw new RuntimeException("上传文件到本地存储失败", e);
+        }
+    }
+    
+    @Override
+    public String uploadFile(MultipartFile file, String fileName) {
+        try {
+            return uploadStream(file.getInputStream(), file.getSize(), UploadOptions.builder()
+                .fileName(fileName)
+                .originalFilename(file.getOriginalFilename())
+                .contentType(file.getContentType())
+                .build());
+        } catch (Exception e) {
+            throw new RuntimeException("上传文件到本地存储失败", e);
+        }
+    }
+    
+    @Override
+    public String uploadFile(MultipartFile file, String fileName, String path) {
+        try {
+            return uploadStream(file.getInputStream(), file.getSize(), UploadOptions.builder()
+                .fileName(fileName)
+                .originalFilename(file.getOriginalFilename())
+                .path(path)
+                .contentType(file.getContentType())
+                .build());
+        } catch (Exception e) {
+            throw new RuntimeException("上传文件到本地存储失败", e);
+        }
+    }
+    
+    @Override
+    public String uploadFile(File file) {
+        return uploadFile(file, null);
+    }
+    
+    @Override
+    public String uploadFile(File file, String fileName) {
+        // 文件输入流的通道与目标文件通道之间直接传输
+        try (FileInputStream inputStream = new FileInputStream(file)) {
+            return uploadStream(inputStream, file.length(), UploadOptions.builder()
+                .fileName(fileName)
+                .originalFilename(file.getName())
+                .build());
+        } catch (IOException e) {
+            throw new RuntimeException("上传文件到本地存储失败", e);
+        }
+    }
+    
+    @Override
+    public String uploadFile(InputStream inputStream, String fileName) {
+        return uploadStream(inputStream, UNKNOWN_LENGTH, UploadOptions.builder().fileName(fileName).build());
+    }
+    
+    @Override
+    public String uploadStream(InputStream inputStream, long contentLength, UploadOptions options) {
+        try {
+            String objectName = resolveObjectName(options);
+            Path target = resolvePath(objectName);
+            Files.createDirectories(target.getParent());
+            
+            Path temp = target.resolveSibling("." + target.getFileName() + "." + UUID.randomUUID() + TEMP_SUFFIX);
+            try {
+                FileUtils.writeStreamToFile(inputStream, temp);
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            return getFileUrl(objectName, null);
+        } catch (Exception e) {
+            throw new RuntimeException("上传文件到本地存储失败", e);
+        }
+    }
+    
+    @Override
+    public byte[] downloadFile(String fileUrl) {
+        try {
+            return Files.readAllBytes(resolvePath(getObjectNameFromUrl(fileUrl)));
+        } catch (Exception e) {
+            throw new RuntimeException("从本地存储读取文件失败", e);
+        }
+    }
+    
+    @Override
+    public InputStream openStream(String fileUrl) {
+        try {
+            return Files.newInputStream(resolvePath(getObjectNameFromUrl(fileUrl)));
+        } catch (Exception e) {
+            throw new RuntimeException("从本地存储读取文件失败", e);
+        }
+    }
+    
+    @Override
+    public long downloadTo(String fileUrl, OutputStream outputStream) {
+        try (FileChannel source = FileChannel.open(resolvePath(getObjectNameFromUrl(fileUrl)), StandardOpenOption.READ)) {
+            // 文件输出流直接使用其通道，其他流包装为通道
+            WritableByteChannel target = outputStream instanceof FileOutputStream
+                ? ((FileOutputStream) outputStream).getChannel()
+                : Channels.newChannel(outputStream);
+            long size = source.size();
+            long position = 0;
+            while (position < size) {
+                position += source.transferTo(position, size - position, target);
+            }
+            return size;
+        } catch (Exception e) {
+            throw new RuntimeException("从本地存储读取文件失败", e);
+        }
+    }
+    
+    @Override
+    public long downloadTo(String fileUrl, Path targetPath) {
+        try (FileInputStream inputStream = new FileInputStream(resolvePath(getObjectNameFromUrl(fileUrl)).toFile())) {
+            return FileUtils.writeStreamToFile(inputStream, targetPath);
+        } catch (Exception e) {
+            throw new RuntimeException("从本地存储读取文件失败", e);
+        }
+    }
+    
+    @Override
+    public InputStream downloadRange(String fileUrl, long offset, long length) {
+        try {
+            FileChannel channel = FileChannel.open(resolvePath(getObjectNameFromUrl(fileUrl)), StandardOpenOption.READ);
+            channel.position(offset);
+            InputStream inputStream = Channels.newInputStream(channel);
+            return length < 0 ? inputStream : new BoundedInputStream(inputStream, length);
+        } catch (Exception e) {
+            throw new RuntimeException("从本地存储读取文件失败", e);
+        }
+    }
+    
+    @Override
+    public FileMetadata stat(String fileUrl) {
+        try {
+            String objectName = getObjectNameFromUrl(fileUrl);
+            Path path = resolvePath(objectName);
+            long size = Files.size(path);
+            long lastModified = Files.getLastModifiedTime(path).toMillis();
+            return FileMetadata.builder()
+                .objectName(objectName)
+                .size(size)
+                .etag(Long.toHexString(lastModified) + "-" + Long.toHexString(size))
+                .lastModified(new Date(lastModified))
+                .contentType(Files.probeContentType(path))
+                .build();
+        } catch (Exception e) {
+            throw new RuntimeException("获取本地存储文件信息失败", e);
+        }
+    }
+    
+    @Override
+    public Map<String, FileMetadata> stat(Collection<String> fileUrls) {
+        Map<String, FileMetadata> result = new LinkedHashMap<>();
+        for (String fileUrl : fileUrls) {
+            boolean exists = Files.isRegularFile(resolvePath(getObjectNameFromUrl(fileUrl)));
+            result.put(fileUrl, exists ? stat(fileUrl) : null);
+        }
+        return result;
+    }
+    
+    @Override
+    public Stream<FileMetadata> list(String prefix) {
+        try {
+            // 对象按摘要分散在两级目录下，对象名称为去掉这两级目录后的相对路径
+            Stream<Path> paths = Files.walk(rootPath);
+            return paths
+                .map(rootPath::relativize)
+                .filter(path -> path.getNameCount() > 2 && !isTempFile(path))
+                .map(path -> path.subpath(2, path.getNameCount()).toString().replace(File.separatorChar, '/'))
+                .filter(objectName -> !StringUtils.hasText(prefix) || objectName.startsWith(prefix))
+                .map(this::listEntry)
+                .filter(Objects::nonNull)
+                .onClose(paths::close);
+        } catch (IOException e) {
+            throw new RuntimeException("列举本地存储文件失败", e);
+        }
+    }
+    
+    @Override
+    public boolean deleteFile(String fileUrl) {
+        try {
+            return Files.deleteIfExists(resolvePath(getObjectNameFromUrl(fileUrl)));
+        } catch (Exception e) {
+            throw new RuntimeException("从本地存储删除文件失败", e);
+        }
+    }
+    
+    @Override
+    public List<String> deleteFiles(Collection<String> fileUrls) {
+        List<String> failed = new ArrayList<>();
+        for (String fileUrl : fileUrls) {
+            try {
+                Files.deleteIfExists(resolvePath(getObjectNameFromUrl(fileUrl)));
+            } catch (Exception e) {
+                failed.add(fileUrl);
+            }
+        }
+        return failed;
+    }
+    
+    @Override
+    public String getObjectName(String fileUrl) {
+        return getObjectNameFromUrl(fileUrl);
+    }
+    
+    @Override
+    public String getFileUrl(String fileUrl, Long expireTime) {
+        try {
+            String objectName = getObjectNameFromUrl(fileUrl);
+            String url = StringUtils.hasText(localProperties.getBaseUrl())
+                ? trimTrailingSlash(localProperties.getBaseUrl()) + "/" + objectName
+                : objectName;
+            
+            if (expireTime == null || expireTime <= 0) {
+                return url;
+            }
+            return urlSigner.sign(url, objectName, expireTime);
+        } catch (Exception e) {
+            throw new RuntimeException("获取本地存储文件链接失败", e);
+        }
+    }
+    
+    /**
+     * 校验临时链接，供对外提供文件访问的接口使用
+     * @param objectName 对象名称
+     * @param expires 链接中的Expires参数
+     * @param signature 链接中的Signature参数
+     * @return 签名有效且未过期时返回true
+     */
+    public boolean verifyFileUrl(String objectName, long expires, String signature) {
+        return urlSigner.verify(objectName, expires, signature);
+    }
+    
+    private boolean isTempFile(Path path) {
+        String fileName = path.getFileName().toString();
+        return fileName.startsWith(".") && fileName.endsWith(TEMP_SUFFIX);
+    }
+    
+    /**
+     * 生成列举结果，目录或遍历过程中被删除的文件返回null
+     * @param objectName 对象名称
+     * @return 文件元数据
+     */
+    private FileMetadata listEntry(String objectName) {
+        try {
+            Path path = resolvePath(objectName);
+            if (!Files.isRegularFile(path)) {
+                return null;
+            }
+            long size = Files.size(path);
+            long lastModified = Files.getLastModifiedTime(path).toMillis();
+            return FileMetadata.builder()
+                .objectName(objectName)
+                .size(size)
+                .etag(Long.toHexString(lastModified) + "-" + Long.toHexString(size))
+                .lastModified(new Date(lastModified))
+                .build();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * 获取对象对应的本地文件路径
+     * @param objectName 对象名称
+     * @return 本地文件路径
+     */
+    public Path resolvePath(String objectName) {
+        String digest = EncryptUtils.sha256(objectName);
+        Path bucket = rootPath.resolve(digest.substring(0, 2)).resolve(digest.substring(2, 4));
+        Path path = bucket.resolve(objectName).normalize();
+        if (!path.startsWith(bucket)) {
+            throw new IllegalArgumentException("非法的对象名称: " + objectName);
+        }
+        return path;
+    }
+    
+    /**
+     * 根据上传选项确定对象名称
+     * @param options 上传选项
+     * @return 对象名称
+     */
+    private String resolveObjectName(UploadOptions options) {
+        if (options == null) {
+            options = new UploadOptions();
+        }
+        String fileName = options.getFileName();
+        if (!StringUtils.hasText(fileName)) {
+            fileName = generateFileName(options.getOriginalFilename());
+        }
+        String path = options.getPath();
+        if (StringUtils.hasText(path)) {
+            if (!path.endsWith("/")) {
+                path += "/";
+            }
+            fileName = path + fileName;
+        }
+        return fileName;
+    }
+    
+    /**
+     * 生成文件名
+     * @param originalFilename 原始文件名
+     * @return 生成的文件名
+     */
+    private String generateFileName(String originalFilename) {
+        String uuid = UUID.randomUUID().toString().replaceAll("-", "");
+        String extension = "";
+        if (StringUtils.hasText(originalFilename) && originalFilename.contains(".")) {
+            extension = originalFilename.substring(originalFilename.lastIndexOf("."));
+        }
+        return uuid + extension;
+    }
+    
+    /**
+     * 从URL中获取对象名称
+     * @param fileUrl 文件URL
+     * @return 对象名称
+     */
+    private String getObjectNameFromUrl(String fileUrl) {
+        String objectName = fileUrl;
+        if (objectName.contains("?")) {
+            objectName = objectName.substring(0, objectName.indexOf("?"));
+        }
+        String baseUrl = trimTrailingSlash(localProperties.getBaseUrl());
+        if (StringUtils.hasText(baseUrl) && objectName.startsWith(baseUrl + "/")) {
+            objectName = objectName.substring(baseUrl.length() + 1);
+        }
+        return objectName;
+    }
+    
+    private String trimTrailingSlash(String url) {
+        if (url != null && url.endsWith("/")) {
+            return url.substring(0, url.length() - 1);
+        }
+        return url;
+    }
+}
\ No newline at end of file
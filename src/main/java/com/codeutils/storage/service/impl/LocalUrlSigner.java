@@ -0,0 +1,55 @@
+package com.codeutils.storage.service.impl;
+
+import com.codeutils.common.utils.EncryptUtils;
+import com.codeutils.common.utils.IdUtils;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * 临时链接签名
+ * 为不具备签名能力的存储实现模拟带过期时间的临时链接，签名为对象名称和过期时间的HMAC-SHA256
+ */
+class LocalUrlSigner {
+    
+    private final String secretKey;
+    
+    LocalUrlSigner(String secretKey) {
+        this.secretKey = StringUtils.hasText(secretKey) ? secretKey : IdUtils.randomAlphanumeric(32);
+    }
+    
+    /**
+     * 生成临时链接
+     * @param url 文件URL
+     * @param objectName 对象名称
+     * @param expireSeconds 过期时间（秒）
+     * @return 带过期时间和签名参数的链接
+     */
+    String sign(String url, String objectName, long expireSeconds) {
+        long expires = System.currentTimeMillis() / 1000 + expireSeconds;
+        return url + (url.contains("?") ? "&" : "?")
+            + "Expires=" + expires + "&Signature=" + signature(objectName, expires);
+    }
+    
+    /**
+     * 校验临时链接签名
+     * @param objectName 对象名称
+     * @param expires 过期时间戳（秒）
+     * @param signature 签名
+     * @return 签名有效且未过期时返回true
+     */
+    boolean verify(String objectName, long expires, String signature) {
+        if (signature == null || expires < System.currentTimeMillis() / 1000) {
+            return false;
+        }
+        return MessageDigest.isEqual(
+            signature(objectName, expires).getBytes(StandardCharsets.UTF_8),
+            signature.getBytes(StandardCharsets.UTF_8)
+        );
+    }
+    
+    private String signature(String objectName, long expires) {
+        return EncryptUtils.hmacSha256(objectName + "\n" + expires, secretKey);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,554 @@
+package com.codeutils.storage.service.impl;
+
+import com.codeutils.storage.config.StorageProperties;
+import com.codeutils.storage.model.FileMetadata;
+import com.codeutils.storage.model.UploadOptions;
+import com.codeutils.storage.service.StorageService;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * 内存存储服务实现
+ * 对象内容保存在堆外缓冲区中，适用于测试和临时数据；总容量超限时按最近最少使用淘汰，
+ * 临时链接通过签名参数模拟。堆外内存受JVM参数 -XX:MaxDirectMemorySize 限制
+ */
+public class MemoryStorageServiceImpl implements StorageService {
+    
+    private final StorageProperties.MemoryProperties memoryProperties;
+    private final LocalUrlSigner urlSigner;
+    
+    private final Map<String, MemoryObject> objects = new ConcurrentHashMap<>();
+    
+    /**
+     * 对象名称 -> 对象大小，按访问顺序排列，所有修改均在该对象的锁内进行
+     */
+    private final LinkedHashMap<String, Long> index = new LinkedHashMap<>(16, 0.75f, true);
+    private long currentSize;
+    
+    private final AtomicLong evictionCount = new AtomicLong();
+    
+    public MemoryStorageServiceImpl(StorageProperties.MemoryProperties memoryProperties) {
+        this.memoryProperties = memoryProperties;
+        this.urlSigner = new LocalUrlSigner(memoryProperties.getSecretKey());
+    }
+    
+    @Override
+    public String uploadFile(MultipartFile file) {
+        try {
+            return uploadStream(file.getInputStream(), file.getSize(), UploadOptions.builder()
+                .originalFilename(file.getOriginalFilename())
+                .contentType(file.getContentType())
+                .build());
+        } catch (Exception e) {
+            throw new RuntimeException("上传文件到内存存储失败", e);
+        }
+    }
+    
+    @Override
+    public String uploadFile(MultipartFile file, String fileName) {
+        try {
+            return uploadStream(file.getInputStream(), file.getSize(), UploadOptions.builder()
+                .fileName(fileName)
+                .originalFilename(file.getOriginalFilename())
+                .contentType(file.getContentType())
+                .build());
+        } catch (Exception e) {
+            throw new RuntimeException("上传文件到内存存储失败", e);
+        }
+    }
+    
+    @Override
+    public String uploadFile(MultipartFile file, String fileName, String path) {
+        try {
+            return uploadStream(file.getInputStream(), file.getSize(), UploadOptions.builder()
+                .fileName(fileName)
+                .originalFilename(file.getOriginalFilename())
+                .path(path)
+                .contentType(file.getContentType())
+                .build());
+        } catch (Exception e) {
+            throw new RuntimeException("上传文件到内存存储失败", e);
+        }
+    }
+    
+    @Override
+    public String uploadFile(File file) {
+        return uploadFile(file, null);
+    }
+    
+    @Override
+    public String uploadFile(File file, String fileName) {
+        try (FileInputStream inputStream = new FileInputStream(file)) {
+            return uploadStream(inputStream, file.length(), UploadOptions.builder()
+                .fileName(fileName)
+                .originalFilename(file.getName())
+                .build());
+        } catch (IOException e) {
+            throw new RuntimeException("上传文件到内存存储失败", e);
+        }
+    }
+    
+    @Override
+    public String uploadFile(InputStream inputStream, String fileName) {
+        return uploadStream(inputStream, UNKNOWN_LENGTH, UploadOptions.builder().fileName(fileName).build());
+    }
+    
+    @Override
+    public String uploadStream(InputStream inputStream, long contentLength, UploadOptions options) {
+        try {
+            long maxSize = Math.min(memoryProperties.getMaxSize(), Integer.MAX_VALUE - 1);
+            if (contentLength > maxSize) {
+                throw new IllegalArgumentException("文件大小超过内存存储容量上限: " + contentLength);
+            }
+            String objectName = resolveObjectName(options);
+            ByteBuffer data = readContent(inputStream, contentLength, maxSize);
+            put(objectName, new MemoryObject(data, options == null ? null : options.getContentType()));
+            return getFileUrl(objectName, null);
+        } catch (Exception e) {
+            throw new RuntimeException("上传文件到内存存储失败", e);
+        }
+    }
+    
+    @Override
+    public byte[] downloadFile(String fileUrl) {
+        try {
+            ByteBuffer buffer = get(getObjectNameFromUrl(fileUrl)).content();
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            return bytes;
+        } catch (Exception e) {
+            throw new RuntimeException("从内存存储读取文件失败", e);
+        }
+    }
+    
+    @Override
+    public InputStream openStream(String fileUrl) {
+        try {
+            return new ByteBufferInputStream(get(getObjectNameFromUrl(fileUrl)).content());
+        } catch (Exception e) {
+            throw new RuntimeException("从内存存储读取文件失败", e);
+        }
+    }
+    
+    @Override
+    public long downloadTo(String fileUrl, OutputStream outputStream) {
+        try {
+            ByteBuffer buffer = get(getObjectNameFromUrl(fileUrl)).content();
+            WritableByteChannel target = outputStream instanceof FileOutputStream
+                ? ((FileOutputStream) outputStream).getChannel()
+                : Channels.newChannel(outputStream);
+            return writeFully(buffer, target);
+        } catch (Exception e) {
+            throw new RuntimeException("从内存存储读取文件失败", e);
+        }
+    }
+    
+    @Override
+    public long downloadTo(String fileUrl, Path targetPath) {
+        try {
+            ByteBuffer buffer = get(getObjectNameFromUrl(fileUrl)).content();
+            try (FileChannel target = FileChannel.open(targetPath, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                return writeFully(buffer, target);
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("从内存存储读取文件失败", e);
+        }
+    }
+    
+    @Override
+    public InputStream downloadRange(String fileUrl, long offset, long length) {
+        try {
+            ByteBuffer buffer = get(getObjectNameFromUrl(fileUrl)).content();
+            int start = (int) Math.min(offset, buffer.limit());
+            int end = length < 0 ? buffer.limit() : (int) Math.min(offset + length, buffer.limit());
+            buffer.position(start);
+            buffer.limit(end);
+            return new ByteBufferInputStream(buffer);
+        } catch (Exception e) {
+            throw new RuntimeException("从内存存储读取文件失败", e);
+        }
+    }
+    
+    @Override
+    public FileMetadata stat(String fileUrl) {
+        try {
+            String objectName = getObjectNameFromUrl(fileUrl);
+            MemoryObject object = get(objectName);
+            return FileMetadata.builder()
+                .objectName(objectName)
+                .size(object.data.capacity())
+                .etag(object.etag)
+                .lastModified(new Date(object.lastModified))
+                .contentType(object.contentType)
+                .build();
+        } catch (Exception e) {
+            throw new RuntimeException("获取内存存储文件信息失败", e);
+        }
+    }
+    
+    @Override
+    public Map<String, FileMetadata> stat(Collection<String> fileUrls) {
+        Map<String, FileMetadata> result = new LinkedHashMap<>();
+        for (String fileUrl : fileUrls) {
+            boolean exists = objects.containsKey(getObjectNameFromUrl(fileUrl));
+            result.put(fileUrl, exists ? stat(fileUrl) : null);
+        }
+        return result;
+    }
+    
+    @Override
+    public Stream<FileMetadata> list(String prefix) {
+        return objects.entrySet().stream()
+            .filter(entry -> !StringUtils.hasText(prefix) || entry.getKey().startsWith(prefix))
+            .map(entry -> FileMetadata.builder()
+                .objectName(entry.getKey())
+                .size(entry.getValue().data.capacity())
+                .etag(entry.getValue().etag)
+                .lastModified(new Date(entry.getValue().lastModified))
+                .build());
+    }
+    
+    @Override
+    public boolean deleteFile(String fileUrl) {
+        String objectName = getObjectNameFromUrl(fileUrl);
+        synchronized (index) {
+            Long size = index.remove(objectName);
+            if (size == null) {
+                return false;
+            }
+            currentSize -= size;
+            objects.remove(objectName);
+            return true;
+        }
+    }
+    
+    @Override
+    public List<String> deleteFiles(Collection<String> fileUrls) {
+        for (String fileUrl : fileUrls) {
+            deleteFile(fileUrl);
+        }
+        return new ArrayList<>();
+    }
+    
+    @Override
+    public String getObjectName(String fileUrl) {
+        return getObjectNameFromUrl(fileUrl);
+    }
+    
+    @Override
+    public String getFileUrl(String fileUrl, Long expireTime) {
+        String objectName = getObjectNameFromUrl(fileUrl);
+        String baseUrl = memoryProperties.getBaseUrl();
+        String url = StringUtils.hasText(baseUrl) ? joinUrl(baseUrl, objectName) : objectName;
+        
+        if (expireTime == null || expireTime <= 0) {
+            return url;
+        }
+        return urlSigner.sign(url, objectName, expireTime);
+    }
+    
+    /**
+     * 校验临时链接
+     * @param objectName 对象名称
+     * @param expires 链接中的Expires参数
+     * @param signature 链接中的Signature参数
+     * @return 签名有效且未过期时返回true
+     */
+    public boolean verifyFileUrl(String objectName, long expires, String signature) {
+        return urlSigner.verify(objectName, expires, signature);
+    }
+    
+    /**
+     * 清空所有对象
+     */
+    public void clear() {
+        synchronized (index) {
+            index.clear();
+            objects.clear();
+            currentSize = 0;
+        }
+    }
+    
+    /**
+     * 获取当前占用的总大小
+     * @return 总大小（字节）
+     */
+    public long getCurrentSize() {
+        synchronized (index) {
+            return currentSize;
+        }
+    }
+    
+    /**
+     * 获取对象数量
+     * @return 对象数量
+     */
+    public int getObjectCount() {
+        return objects.size();
+    }
+    
+    /**
+     * 获取淘汰次数
+     * @return 淘汰次数
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+    
+    /**
+     * 写入对象，超出容量上限时淘汰最近最少使用的对象
+     * @param objectName 对象名称
+     * @param object 对象
+     */
+    private void put(String objectName, MemoryObject object) {
+        long size = object.data.capacity();
+        synchronized (index) {
+            Long previous = index.put(objectName, size);
+            if (previous != null) {
+                currentSize -= previous;
+            }
+            currentSize += size;
+            objects.put(objectName, object);
+            
+            Iterator<Map.Entry<String, Long>> iterator = index.entrySet().iterator();
+            while (currentSize > memoryProperties.getMaxSize() && iterator.hasNext()) {
+                Map.Entry<String, Long> eldest = iterator.next();
+                if (eldest.getKey().equals(objectName)) {
+                    continue;
+                }
+                iterator.remove();
+                objects.remove(eldest.getKey());
+                currentSize -= eldest.getValue();
+                evictionCount.incrementAndGet();
+            }
+        }
+    }
+    
+    /**
+     * 读取对象并更新访问顺序
+     * @param objectName 对象名称
+     * @return 对象
+     * @throws FileNotFoundException 对象不存在
+     */
+    private MemoryObject get(String objectName) throws FileNotFoundException {
+        MemoryObject object = objects.get(objectName);
+        if (object == null) {
+            throw new FileNotFoundException("文件不存在: " + objectName);
+        }
+        synchronized (index) {
+            index.get(objectName);
+        }
+        return object;
+    }
+    
+    /**
+     * 将输入流读入堆外缓冲区，长度已知时直接按长度分配；
+     * 长度未知时最多读取上限加一个字节，超过上限立即拒绝，不会把超大的流整个读入内存
+     * @param inputStream 输入流
+     * @param contentLength 内容长度，未知时传入 {@link #UNKNOWN_LENGTH}
+     * @param maxSize 大小上限
+     * @return 已写满并翻转的缓冲区
+     * @throws IOException 读取失败
+     */
+    private ByteBuffer readContent(InputStream inputStream, long contentLength, long maxSize) throws IOException {
+        if (contentLength < 0) {
+            byte[] bytes = IOUtils.toByteArray(new BoundedInputStream(inputStream, maxSize + 1));
+            if (bytes.length > maxSize) {
+                throw new IllegalArgumentException("文件大小超过内存存储容量上限: " + maxSize);
+            }
+            ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+            buffer.put(bytes);
+            buffer.flip();
+            return buffer;
+        }
+        
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int) contentLength);
+        ReadableByteChannel channel = inputStream instanceof FileInputStream
+            ? ((FileInputStream) inputStream).getChannel()
+            : Channels.newChannel(inputStream);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("输入流长度小于声明的长度: " + contentLength);
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+    
+    private long writeFully(ByteBuffer buffer, WritableByteChannel target) throws IOException {
+        long written = 0;
+        while (buffer.hasRemaining()) {
+            written += target.write(buffer);
+        }
+        return written;
+    }
+    
+    /**
+     * 根据上传选项确定对象名称
+     * @param options 上传选项
+     * @return 对象名称
+     */
+    private String resolveObjectName(UploadOptions options) {
+        if (options == null) {
+            options = new UploadOptions();
+        }
+        String fileName = options.getFileName();
+        if (!StringUtils.hasText(fileName)) {
+            fileName = generateFileName(options.getOriginalFilename());
+        }
+        String path = options.getPath();
+        if (StringUtils.hasText(path)) {
+            if (!path.endsWith("/")) {
+                path += "/";
+            }
+            fileName = path + fileName;
+        }
+        return fileName;
+    }
+    
+    /**
+     * 生成文件名
+     * @param originalFilename 原始文件名
+     * @return 生成的文件名
+     */
+    private String generateFileName(String originalFilename) {
+        String uuid = UUID.randomUUID().toString().replaceAll("-", "");
+        String extension = "";
+        if (StringUtils.hasText(originalFilename) && originalFilename.contains(".")) {
+            extension = originalFilename.substring(originalFilename.lastIndexOf("."));
+        }
+        return uuid + extension;
+    }
+    
+    /**
+     * 从URL中获取对象名称
+     * @param fileUrl 文件URL
+     * @return 对象名称
+     */
+    private String getObjectNameFromUrl(String fileUrl) {
+        String objectName = fileUrl;
+        if (objectName.contains("?")) {
+            objectName = objectName.substring(0, objectName.indexOf("?"));
+        }
+        String baseUrl = memoryProperties.getBaseUrl();
+        if (StringUtils.hasText(baseUrl)) {
+            String prefix = joinUrl(baseUrl, "");
+            if (objectName.startsWith(prefix)) {
+                objectName = objectName.substring(prefix.length());
+            }
+        }
+        return objectName;
+    }
+    
+    private String joinUrl(String baseUrl, String objectName) {
+        return baseUrl.endsWith("/") ? baseUrl + objectName : baseUrl + "/" + objectName;
+    }
+    
+    /**
+     * 内存对象，内容写入后只读
+     */
+    private static final class MemoryObject {
+        
+        private final ByteBuffer data;
+        private final String contentType;
+        private final String etag;
+        private final long lastModified;
+        
+        MemoryObject(ByteBuffer data, String contentType) throws Exception {
+            this.data = data.asReadOnlyBuffer();
+            this.contentType = contentType;
+            this.etag = md5Hex(data.duplicate());
+            this.lastModified = System.currentTimeMillis();
+        }
+        
+        /**
+         * 获取内容的独立视图，读取时互不影响位置
+         * @return 内容视图
+         */
+        ByteBuffer content() {
+            return data.duplicate();
+        }
+        
+        private static String md5Hex(ByteBuffer buffer) throws Exception {
+            MessageDigest digest = MessageDigest.getInstance("MD5");
+            digest.update(buffer);
+            StringBuilder sb = new StringBuilder();
+            for (byte b : digest.digest()) {
+                sb.append(String.format("%02x", b & 0xff));
+            }
+            return sb.toString();
+        }
+    }
+    
+    /**
+     * 基于缓冲区的输入流
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+        
+        private final ByteBuffer buffer;
+        
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+        
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+        
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(len, buffer.remaining());
+            buffer.get(b, off, count);
+            return count;
+        }
+        
+        @Override
+        public long skip(long n) {
+            int count = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + count);
+            return count;
+        }
+        
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,259 @@
+package com.codeutils.storage.service.impl;
+
+import com.codeutils.storage.model.FileMetadata;
+import com.codeutils.storage.model.UploadOptions;
+import com.codeutils.storage.service.StorageService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.apache.commons.io.input.CountingInputStream;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * 存储服务监控指标装饰类
+ * 按存储类型和操作记录请求耗时直方图、传输字节数、按错误码分类的失败次数以及进行中的请求数：
+ * <ul>
+ *     <li>codeutils.storage.requests：请求耗时，标签 backend、operation、outcome</li>
+ *     <li>codeutils.storage.bytes：单次请求传输的字节数，标签 backend、operation</li>
+ *     <li>codeutils.storage.errors：失败次数，标签 backend、operation、code</li>
+ *     <li>codeutils.storage.in.flight：进行中的请求数，标签 backend、operation</li>
+ * </ul>
+ * 流式读取的耗时只统计到返回输入流为止，字节数在关闭输入流时记录
+ */
+public class MeteredStorageServiceImpl implements StorageService {
+    
+    private static final String OPERATION_UPLOAD = "upload";
+    private static final String OPERATION_DOWNLOAD = "download";
+    private static final String OPERATION_DOWNLOAD_RANGE = "download_range";
+    private static final String OPERATION_STAT = "stat";
+    private static final String OPERATION_STAT_BATCH = "stat_batch";
+    private static final String OPERATION_LIST = "list";
+    private static final String OPERATION_DELETE = "delete";
+    private static final String OPERATION_DELETE_BATCH = "delete_batch";
+    private static final String OPERATION_GET_URL = "get_url";
+    
+    private final StorageService delegate;
+    private final MeterRegistry registry;
+    private final String backend;
+    
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> byteSummaries = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+    
+    /**
+     * @param delegate 被装饰的存储服务
+     * @param registry 指标注册表
+     * @param backend 存储类型，作为指标的backend标签
+     */
+    public MeteredStorageServiceImpl(StorageService delegate, MeterRegistry registry, String backend) {
+        this.delegate = delegate;
+        this.registry = registry;
+        this.backend = backend;
+    }
+    
+    @Override
+    public String uploadFile(MultipartFile file) {
+        return recordUpload(file.getSize(), () -> delegate.uploadFile(file));
+    }
+    
+    @Override
+    public String uploadFile(MultipartFile file, String fileName) {
+        return recordUpload(file.getSize(), () -> delegate.uploadFile(file, fileName));
+    }
+    
+    @Override
+    public String uploadFile(MultipartFile file, String fileName, String path) {
+        return recordUpload(file.getSize(), () -> delegate.uploadFile(file, fileName, path));
+    }
+    
+    @Override
+    public String uploadFile(File file) {
+        return recordUpload(file.length(), () -> delegate.uploadFile(file));
+    }
+    
+    @Override
+    public String uploadFile(File file, String fileName) {
+        return recordUpload(file.length(), () -> delegate.uploadFile(file, fileName));
+    }
+    
+    @Override
+    public String uploadFile(InputStream inputStream, String fileName) {
+        CountingInputStream countingStream = new CountingInputStream(inputStream);
+        String fileUrl = record(OPERATION_UPLOAD, () -> delegate.uploadFile(countingStream, fileName));
+        recordBytes(OPERATION_UPLOAD, countingStream.getByteCount());
+        return fileUrl;
+    }
+    
+    @Override
+    public String uploadStream(InputStream inputStream, long contentLength, UploadOptions options) {
+        if (contentLength >= 0) {
+            return recordUpload(contentLength, () -> delegate.uploadStream(inputStream, contentLength, options));
+        }
+        // 长度未知时统计实际读取的字节数；长度已知时不包装，保留文件流的通道传输
+        CountingInputStream countingStream = new CountingInputStream(inputStream);
+        String fileUrl = record(OPERATION_UPLOAD, () -> delegate.uploadStream(countingStream, contentLength, options));
+        recordBytes(OPERATION_UPLOAD, countingStream.getByteCount());
+        return fileUrl;
+    }
+    
+    @Override
+    public byte[] downloadFile(String fileUrl) {
+        byte[] content = record(OPERATION_DOWNLOAD, () -> delegate.downloadFile(fileUrl));
+        recordBytes(OPERATION_DOWNLOAD, content.length);
+        return content;
+    }
+    
+    @Override
+    public InputStream openStream(String fileUrl) {
+        return countOnClose(OPERATION_DOWNLOAD, record(OPERATION_DOWNLOAD, () -> delegate.openStream(fileUrl)));
+    }
+    
+    @Override
+    public long downloadTo(String fileUrl, OutputStream outputStream) {
+        long bytes = record(OPERATION_DOWNLOAD, () -> delegate.downloadTo(fileUrl, outputStream));
+        recordBytes(OPERATION_DOWNLOAD, bytes);
+        return bytes;
+    }
+    
+    @Override
+    public long downloadTo(String fileUrl, Path targetPath) {
+        long bytes = record(OPERATION_DOWNLOAD, () -> delegate.downloadTo(fileUrl, targetPath));
+        recordBytes(OPERATION_DOWNLOAD, bytes);
+        return bytes;
+    }
+    
+    @Override
+    public InputStream downloadRange(String fileUrl, long offset, long length) {
+        return countOnClose(OPERATION_DOWNLOAD_RANGE,
+            record(OPERATION_DOWNLOAD_RANGE, () -> delegate.downloadRange(fileUrl, offset, length)));
+    }
+    
+    @Override
+    public FileMetadata stat(String fileUrl) {
+        return record(OPERATION_STAT, () -> delegate.stat(fileUrl));
+    }
+    
+    @Override
+    public Map<String, FileMetadata> stat(Collection<String> fileUrls) {
+        return record(OPERATION_STAT_BATCH, () -> delegate.stat(fileUrls));
+    }
+    
+    @Override
+    public Stream<FileMetadata> list(String prefix) {
+        return record(OPERATION_LIST, () -> delegate.list(prefix));
+    }
+    
+    @Override
+    public boolean deleteFile(String fileUrl) {
+        return record(OPERATION_DELETE, () -> delegate.deleteFile(fileUrl));
+    }
+    
+    @Override
+    public List<String> deleteFiles(Collection<String> fileUrls) {
+        return record(OPERATION_DELETE_BATCH, () -> delegate.deleteFiles(fileUrls));
+    }
+    
+    @Override
+    public String getObjectName(String fileUrl) {
+        return delegate.getObjectName(fileUrl);
+    }
+    
+    @Override
+    public String getFileUrl(String fileUrl, Long expireTime) {
+        return record(OPERATION_GET_URL, () -> delegate.getFileUrl(fileUrl, expireTime));
+    }
+    
+    private String recordUpload(long bytes, Supplier<String> call) {
+        String fileUrl = record(OPERATION_UPLOAD, call);
+        recordBytes(OPERATION_UPLOAD, bytes);
+        return fileUrl;
+    }
+    
+    /**
+     * 执行操作并记录耗时、进行中的请求数和失败次数
+     * @param operation 操作名称
+     * @param call 操作
+     * @param <T> 结果类型
+     * @return 操作结果
+     */
+    private <T> T record(String operation, Supplier<T> call) {
+        AtomicInteger gauge = inFlight.computeIfAbsent(operation, key -> registry.gauge(
+            "codeutils.storage.in.flight", Tags.of("backend", backend, "operation", key), new AtomicInteger()));
+        gauge.incrementAndGet();
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            T result = call.get();
+            success = true;
+            return result;
+        } catch (RuntimeException e) {
+            Counter.builder("codeutils.storage.errors")
+                .description("存储请求失败次数")
+                .tags("backend", backend, "operation", operation, "code", StorageErrors.errorCode(e))
+                .register(registry)
+                .increment();
+            throw e;
+        } finally {
+            gauge.decrementAndGet();
+            timer(operation, success ? "success" : "error").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    private Timer timer(String operation, String outcome) {
+        return timers.computeIfAbsent(operation + ":" + outcome, key -> Timer.builder("codeutils.storage.requests")
+            .description("存储请求耗时")
+            .tags("backend", backend, "operation", operation, "outcome", outcome)
+            .publishPercentileHistogram()
+            .register(registry));
+    }
+    
+    private void recordBytes(String operation, long bytes) {
+        if (bytes < 0) {
+            return;
+        }
+        byteSummaries.computeIfAbsent(operation, key -> DistributionSummary.builder("codeutils.storage.bytes")
+            .description("单次存储请求传输的字节数")
+            .baseUnit("bytes")
+            .tags("backend", backend, "operation", operation)
+            .register(registry)).record(bytes);
+    }
+    
+    /**
+     * 包装输入流，在关闭时记录实际读取的字节数
+     * @param operation 操作名称
+     * @param inputStream 输入流
+     * @return 包装后的输入流
+     */
+    private InputStream countOnClose(String operation, InputStream inputStream) {
+        AtomicBoolean recorded = new AtomicBoolean();
+        return new CountingInputStream(inputStream) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    if (recorded.compareAndSet(false, true)) {
+                        recordBytes(operation, getByteCount());
+                    }
+                }
+            }
+        };
+    }
+}
\ No newline at end of file
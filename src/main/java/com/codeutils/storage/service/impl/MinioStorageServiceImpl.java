@@ -1,34 +1,97 @@
 package com.codeutils.storage.service.impl;
 
+import com.codeutils.common.utils.FileUtils;
+import com.codeutils.storage.batch.BatchExecutor;
+import com.codeutils.storage.batch.PagedListIterator;
+import com.codeutils.storage.cache.PresignedUrlCache;
 import com.codeutils.storage.config.StorageProperties;
+import com.codeutils.storage.model.FileMetadata;
+import com.codeutils.storage.model.UploadOptions;
+import com.codeutils.storage.multipart.MultipartUploadEngine;
+import com.codeutils.storage.multipart.MultipartUploader;
 import com.codeutils.storage.service.StorageService;
 import io.minio.*;
+import io.minio.errors.ErrorResponseException;
 import io.minio.http.Method;
+import io.minio.messages.DeleteError;
+import io.minio.messages.DeleteObject;
+import io.minio.messages.Item;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 import org.apache.commons.io.IOUtils;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 /**
  * MinIO存储服务实现
  */
 public class MinioStorageServiceImpl implements StorageService {
     
+    /**
+     * 分片临时对象的前缀
+     */
+    private static final String MULTIPART_TEMP_PREFIX = ".multipart/";
+    
+    /**
+     * 默认链接有效期（7天）
+     */
+    private static final long DEFAULT_EXPIRE_SECONDS = 7L * 24 * 60 * 60;
+    
     private final StorageProperties.MinioProperties minioProperties;
     private final MinioClient minioClient;
+    private final OkHttpClient httpClient;
+    private final boolean ownsHttpClient;
+    private final MultipartUploadEngine multipartUploadEngine;
+    private final PresignedUrlCache presignedUrlCache;
+    private final BatchExecutor batchExecutor;
+    private final MinioMultipartUploader multipartUploader = new MinioMultipartUploader();
     
     public MinioStorageServiceImpl(StorageProperties.MinioProperties minioProperties) {
+        this(minioProperties, new StorageProperties.MultipartProperties(),
+            new PresignedUrlCache(new StorageProperties.UrlCacheProperties()),
+            new BatchExecutor(new StorageProperties.BatchProperties()), null);
+    }
+    
+    /**
+     * @param httpClient 共享的HTTP客户端，由调用方负责关闭；为null时按配置创建独占的客户端，随本服务关闭
+     */
+    public MinioStorageServiceImpl(StorageProperties.MinioProperties minioProperties,
+                                   StorageProperties.MultipartProperties multipartProperties,
+                                   PresignedUrlCache presignedUrlCache,
+                                   BatchExecutor batchExecutor,
+                                   OkHttpClient httpClient) {
         this.minioProperties = minioProperties;
+        this.presignedUrlCache = presignedUrlCache;
+        this.batchExecutor = batchExecutor;
+        this.multipartUploadEngine = new MultipartUploadEngine(multipartProperties);
+        this.ownsHttpClient = httpClient == null;
+        this.httpClient = ownsHttpClient ? createHttpClient(minioProperties.getHttp()) : httpClient;
         
         // 初始化MinIO客户端
         this.minioClient = MinioClient.builder()
             .endpoint(minioProperties.getEndpoint())
             .credentials(minioProperties.getAccessKey(), minioProperties.getSecretKey())
+            .httpClient(this.httpClient)
             .build();
         
         try {
@@ -50,9 +113,10 @@ public class MinioStorageServiceImpl implements StorageService {
     @Override
     public String uploadFile(MultipartFile file) {
         try {
-            String originalFilename = file.getOriginalFilename();
-            String fileName = generateFileName(originalFilename);
-            return uploadFile(file.getInputStream(), fileName);
+            return uploadStream(file.getInputStream(), file.getSize(), UploadOptions.builder()
+                .originalFilename(file.getOriginalFilename())
+                .contentType(file.getContentType())
+                .build());
         } catch (Exception e) {
             throw new RuntimeException("上传文件到MinIO失败", e);
         }
@@ -61,10 +125,11 @@ public class MinioStorageServiceImpl implements StorageService {
     @Override
     public String uploadFile(MultipartFile file, String fileName) {
         try {
-            if (!StringUtils.hasText(fileName)) {
-                fileName = generateFileName(file.getOriginalFilename());
-            }
-            return uploadFile(file.getInputStream(), fileName);
+            return uploadStream(file.getInputStream(), file.getSize(), UploadOptions.builder()
+                .fileName(fileName)
+                .originalFilename(file.getOriginalFilename())
+                .contentType(file.getContentType())
+                .build());
         } catch (Exception e) {
             throw new RuntimeException("上传文件到MinIO失败", e);
         }
@@ -73,16 +138,12 @@ public class MinioStorageServiceImpl implements StorageService {
     @Override
     public String uploadFile(MultipartFile file, String fileName, String path) {
         try {
-            if (!StringUtils.hasText(fileName)) {
-                fileName = generateFileName(file.getOriginalFilename());
-            }
-            if (StringUtils.hasText(path)) {
-                if (!path.endsWith("/")) {
-                    path += "/";
-                }
-                fileName = path + fileName;
-            }
-            return uploadFile(file.getInputStream(), fileName);
+            return uploadStream(file.getInputStream(), file.getSize(), UploadOptions.builder()
+                .fileName(fileName)
+                .originalFilename(file.getOriginalFilename())
+                .path(path)
+                .contentType(file.getContentType())
+                .build());
         } catch (Exception e) {
             throw new RuntimeException("上传文件到MinIO失败", e);
         }
@@ -92,11 +153,7 @@ public class MinioStorageServiceImpl implements StorageService {
     public String uploadFile(File file) {
         try {
             String fileName = generateFileName(file.getName());
-            minioClient.uploadObject(UploadObjectArgs.builder()
-                .bucket(minioProperties.getBucketName())
-                .object(fileName)
-                .filename(file.getAbsolutePath())
-                .build());
+            putFile(file, fileName);
             
             return getFileUrl(fileName, null);
         } catch (Exception e) {
@@ -111,11 +168,7 @@ public class MinioStorageServiceImpl implements StorageService {
                 fileName = generateFileName(file.getName());
             }
             
-            minioClient.uploadObject(UploadObjectArgs.builder()
-                .bucket(minioProperties.getBucketName())
-                .object(fileName)
-                .filename(file.getAbsolutePath())
-                .build());
+            putFile(file, fileName);
             
             return getFileUrl(fileName, null);
         } catch (Exception e) {
@@ -125,18 +178,25 @@ public class MinioStorageServiceImpl implements StorageService {
     
     @Override
     public String uploadFile(InputStream inputStream, String fileName) {
+        return uploadStream(inputStream, UNKNOWN_LENGTH, UploadOptions.builder().fileName(fileName).build());
+    }
+    
+    @Override
+    public String uploadStream(InputStream inputStream, long contentLength, UploadOptions options) {
         try {
-            if (!StringUtils.hasText(fileName)) {
-                fileName = generateFileName("file");
-            }
+            String objectName = resolveObjectName(options);
             
-            minioClient.putObject(PutObjectArgs.builder()
+            // 长度未知时由SDK按分片大小逐片读取并分片上传，只占用一个分片的缓冲
+            PutObjectArgs.Builder builder = PutObjectArgs.builder()
                 .bucket(minioProperties.getBucketName())
-                .object(fileName)
-                .stream(inputStream, inputStream.available(), -1)
-                .build());
+                .object(objectName)
+                .stream(inputStream, contentLength, contentLength < 0 ? multipartUploadEngine.getPartSize() : -1);
+            if (options != null && StringUtils.hasText(options.getContentType())) {
+                builder.contentType(options.getContentType());
+            }
+            minioClient.putObject(builder.build());
             
-            return getFileUrl(fileName, null);
+            return getFileUrl(objectName, null);
         } catch (Exception e) {
             throw new RuntimeException("上传文件到MinIO失败", e);
         }
@@ -144,20 +204,127 @@ public class MinioStorageServiceImpl implements StorageService {
     
     @Override
     public byte[] downloadFile(String fileUrl) {
+        try (InputStream inputStream = openStream(fileUrl)) {
+            return IOUtils.toByteArray(inputStream);
+        } catch (Exception e) {
+            throw new RuntimeException("从MinIO下载文件失败", e);
+        }
+    }
+    
+    @Override
+    public InputStream openStream(String fileUrl) {
         try {
             String objectName = getObjectNameFromUrl(fileUrl);
-            
-            GetObjectResponse response = minioClient.getObject(GetObjectArgs.builder()
+            return minioClient.getObject(GetObjectArgs.builder()
                 .bucket(minioProperties.getBucketName())
                 .object(objectName)
                 .build());
-            
-            return IOUtils.toByteArray(response);
         } catch (Exception e) {
             throw new RuntimeException("从MinIO下载文件失败", e);
         }
     }
     
+    @Override
+    public long downloadTo(String fileUrl, OutputStream outputStream) {
+        try (InputStream inputStream = openStream(fileUrl)) {
+            return IOUtils.copyLarge(inputStream, outputStream);
+        } catch (IOException e) {
+            throw new RuntimeException("从MinIO下载文件失败", e);
+        }
+    }
+    
+    @Override
+    public long downloadTo(String fileUrl, Path targetPath) {
+        try (InputStream inputStream = openStream(fileUrl)) {
+            return FileUtils.writeStreamToFile(inputStream, targetPath);
+        } catch (IOException e) {
+            throw new RuntimeException("从MinIO下载文件失败", e);
+        }
+    }
+    
+    @Override
+    public InputStream downloadRange(String fileUrl, long offset, long length) {
+        try {
+            String objectName = getObjectNameFromUrl(fileUrl);
+            GetObjectArgs.Builder builder = GetObjectArgs.builder()
+                .bucket(minioProperties.getBucketName())
+                .object(objectName)
+                .offset(offset);
+            if (length >= 0) {
+                builder.length(length);
+            }
+            return minioClient.getObject(builder.build());
+        } catch (Exception e) {
+            throw new RuntimeException("从MinIO下载文件失败", e);
+        }
+    }
+    
+    @Override
+    public FileMetadata stat(String fileUrl) {
+        try {
+            return statObject(getObjectNameFromUrl(fileUrl));
+        } catch (Exception e) {
+            throw new RuntimeException("获取MinIO文件信息失败", e);
+        }
+    }
+    
+    @Override
+    public Map<String, FileMetadata> stat(Collection<String> fileUrls) {
+        try {
+            return batchExecutor.execute(fileUrls, fileUrl -> {
+                try {
+                    return statObject(getObjectNameFromUrl(fileUrl));
+                } catch (ErrorResponseException e) {
+                    if ("NoSuchKey".equals(e.errorResponse().code())) {
+                        return null;
+                    }
+                    throw e;
+                }
+            });
+        } catch (Exception e) {
+            throw new RuntimeException("批量获取MinIO文件信息失败", e);
+        }
+    }
+    
+    @Override
+    public Stream<FileMetadata> list(String prefix) {
+        int pageSize = batchExecutor.getListPageSize();
+        return batchExecutor.stream(startAfter -> {
+            // 客户端的列举结果本身按需翻页，这里每页只取一次请求的数量，以便按页预取
+            ListObjectsArgs.Builder builder = ListObjectsArgs.builder()
+                .bucket(minioProperties.getBucketName())
+                .recursive(true)
+                .maxKeys(pageSize);
+            if (StringUtils.hasText(prefix)) {
+                builder.prefix(prefix);
+            }
+            if (startAfter != null) {
+                builder.startAfter(startAfter);
+            }
+            
+            List<FileMetadata> items = new ArrayList<>(pageSize);
+            String lastObjectName = null;
+            int count = 0;
+            Iterator<Result<Item>> iterator = minioClient.listObjects(builder.build()).iterator();
+            while (count < pageSize && iterator.hasNext()) {
+                Item item = iterator.next().get();
+                count++;
+                lastObjectName = item.objectName();
+                // 跳过分片上传的临时对象
+                if (item.isDir() || lastObjectName.startsWith(MULTIPART_TEMP_PREFIX)) {
+                    continue;
+                }
+                items.add(FileMetadata.builder()
+                    .objectName(lastObjectName)
+                    .size(item.size())
+                    .etag(item.etag())
+                    .lastModified(Date.from(item.lastModified().toInstant()))
+                    .build());
+            }
+            return new PagedListIterator.Page<>(items, count < pageSize ? null : lastObjectName);
+        });
+    }
+    
     @Override
     public boolean deleteFile(String fileUrl) {
         try {
@@ -175,33 +342,152 @@ public class MinioStorageServiceImpl implements StorageService {
     }
     
     @Override
-    public String getFileUrl(String fileUrl, Long expireTime) {
+    public List<String> deleteFiles(Collection<String> fileUrls) {
         try {
-            String objectName;
-            if (fileUrl.startsWith("http")) {
-                objectName = getObjectNameFromUrl(fileUrl);
-            } else {
-                objectName = fileUrl;
+            Map<String, String> fileUrlsByName = new LinkedHashMap<>();
+            for (String fileUrl : fileUrls) {
+                fileUrlsByName.put(getObjectNameFromUrl(fileUrl), fileUrl);
             }
             
-            // 如果没有设置过期时间或过期时间小于等于0，返回默认URL
-            if (expireTime == null || expireTime <= 0) {
-                expireTime = 7L * 24 * 60 * 60; // 默认7天
+            List<DeleteObject> objects = new ArrayList<>();
+            for (String objectName : fileUrlsByName.keySet()) {
+                objects.add(new DeleteObject(objectName));
             }
             
-            String url = minioClient.getPresignedObjectUrl(GetPresignedObjectUrlArgs.builder()
+            // 客户端按每批1000个对象拆分请求，遍历结果时才会真正发送
+            List<String> failed = new ArrayList<>();
+            Iterable<Result<DeleteError>> results = minioClient.removeObjects(RemoveObjectsArgs.builder()
                 .bucket(minioProperties.getBucketName())
-                .object(objectName)
-                .method(Method.GET)
-                .expiry(expireTime.intValue(), TimeUnit.SECONDS)
+                .objects(objects)
                 .build());
-            
-            return url;
+            for (Result<DeleteError> result : results) {
+                failed.add(fileUrlsByName.get(result.get().objectName()));
+            }
+            return failed;
+        } catch (Exception e) {
+            throw new RuntimeException("从MinIO批量删除文件失败", e);
+        }
+    }
+    
+    @Override
+    public String getObjectName(String fileUrl) {
+        return getObjectNameFromUrl(fileUrl);
+    }
+    
+    @Override
+    public String getFileUrl(String fileUrl, Long expireTime) {
+        try {
+            long expireSeconds = presignedUrlCache.bucketExpireSeconds(
+                expireTime == null || expireTime <= 0 ? DEFAULT_EXPIRE_SECONDS : expireTime);
+            // 签名链接优先从缓存获取，按对象名称和分桶后的有效期命中，命中时跳过签名计算
+            String objectName = getObjectNameFromUrl(fileUrl);
+            return presignedUrlCache.get("minio:" + minioProperties.getBucketName(), objectName, expireSeconds,
+                () -> createFileUrl(objectName, expireSeconds));
         } catch (Exception e) {
             throw new RuntimeException("获取MinIO文件链接失败", e);
         }
     }
     
+    @Override
+    public void shutdown() {
+        multipartUploadEngine.shutdown();
+        if (ownsHttpClient) {
+            closeHttpClient(httpClient);
+        }
+    }
+    
+    /**
+     * 按配置创建HTTP客户端，可在多个MinIO存储服务之间共享
+     * @param http HTTP连接池和超时配置
+     * @return HTTP客户端
+     */
+    public static OkHttpClient createHttpClient(StorageProperties.HttpClientProperties http) {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(http.getMaxConnections());
+        dispatcher.setMaxRequestsPerHost(http.getMaxConnections());
+        return new OkHttpClient.Builder()
+            .dispatcher(dispatcher)
+            .connectionPool(new ConnectionPool(http.getMaxIdleConnections(), http.getIdleConnectionTimeMillis(),
+                TimeUnit.MILLISECONDS))
+            .connectTimeout(http.getConnectTimeoutMillis(), TimeUnit.MILLISECONDS)
+            .readTimeout(http.getSocketTimeoutMillis(), TimeUnit.MILLISECONDS)
+            .writeTimeout(http.getSocketTimeoutMillis(), TimeUnit.MILLISECONDS)
+            .protocols(Collections.singletonList(Protocol.HTTP_1_1))
+            .build();
+    }
+    
+    /**
+     * 关闭HTTP客户端的调度线程和连接池
+     * @param httpClient HTTP客户端
+     */
+    public static void closeHttpClient(OkHttpClient httpClient) {
+        httpClient.dispatcher().executorService().shutdown();
+        httpClient.connectionPool().evictAll();
+    }
+    
+    /**
+     * 获取对象元数据
+     * @param objectName 对象名称
+     * @return 文件元数据
+     * @throws Exception 查询失败
+     */
+    private FileMetadata statObject(String objectName) throws Exception {
+        StatObjectResponse response = minioClient.statObject(StatObjectArgs.builder()
+            .bucket(minioProperties.getBucketName())
+            .object(objectName)
+            .build());
+        return FileMetadata.builder()
+            .objectName(objectName)
+            .size(response.size())
+            .etag(response.etag())
+            .lastModified(response.lastModified() == null ? null : Date.from(response.lastModified().toInstant()))
+            .contentType(response.contentType())
+            .build();
+    }
+    
+    /**
+     * 生成签名链接
+     * @param fileUrl 文件URL
+     * @param expireSeconds 过期时间（秒）
+     * @return 签名链接
+     * @throws Exception 签名失败
+     */
+    private String createFileUrl(String fileUrl, long expireSeconds) throws Exception {
+        String objectName;
+        if (fileUrl.startsWith("http")) {
+            objectName = getObjectNameFromUrl(fileUrl);
+        } else {
+            objectName = fileUrl;
+        }
+        
+        String url = minioClient.getPresignedObjectUrl(GetPresignedObjectUrlArgs.builder()
+            .bucket(minioProperties.getBucketName())
+            .object(objectName)
+            .method(Method.GET)
+            .expiry((int) expireSeconds, TimeUnit.SECONDS)
+            .build());
+        
+        return url;
+    }
+    
+    /**
+     * 上传本地文件，超过阈值时并发分片上传
+     * @param file 本地文件
+     * @param objectName 对象名称
+     * @throws Exception 上传失败
+     */
+    private void putFile(File file, String objectName) throws Exception {
+        if (multipartUploadEngine.requiresMultipart(file.length())) {
+            multipartUploadEngine.uploadFile(multipartUploader, objectName, file, null);
+        } else {
+            minioClient.uploadObject(UploadObjectArgs.builder()
+                .bucket(minioProperties.getBucketName())
+                .object(objectName)
+                .filename(file.getAbsolutePath())
+                .build());
+        }
+    }
+    
     /**
      * 生成文件名
      * @param originalFilename 原始文件名
@@ -216,6 +502,29 @@ public class MinioStorageServiceImpl implements StorageService {
         return uuid + extension;
     }
     
+    /**
+     * 根据上传选项确定对象名称
+     * @param options 上传选项
+     * @return 对象名称
+     */
+    private String resolveObjectName(UploadOptions options) {
+        if (options == null) {
+            options = new UploadOptions();
+        }
+        String fileName = options.getFileName();
+        if (!StringUtils.hasText(fileName)) {
+            fileName = generateFileName(options.getOriginalFilename());
+        }
+        String path = options.getPath();
+        if (StringUtils.hasText(path)) {
+            if (!path.endsWith("/")) {
+                path += "/";
+            }
+            fileName = path + fileName;
+        }
+        return fileName;
+    }
+    
     /**
      * 从URL中获取对象名称
      * @param fileUrl 文件URL
@@ -254,4 +563,84 @@ public class MinioStorageServiceImpl implements StorageService {
             return fileUrl;
         }
     }
-} 
\ No newline at end of file
+    
+    /**
+     * MinIO分片上传适配
+     * MinIO客户端未公开分片上传接口，分片先作为临时对象并发上传，再通过服务端合并（composeObject）生成目标对象
+     */
+    private class MinioMultipartUploader implements MultipartUploader<String> {
+        
+        @Override
+        public void putObject(String objectName, InputStream inputStream, long size, UploadOptions options) throws Exception {
+            PutObjectArgs.Builder builder = PutObjectArgs.builder()
+                .bucket(minioProperties.getBucketName())
+                .object(objectName)
+                .stream(inputStream, size, -1);
+            if (options != null && StringUtils.hasText(options.getContentType())) {
+                builder.contentType(options.getContentType());
+            }
+            minioClient.putObject(builder.build());
+        }
+        
+        @Override
+        public String initiate(String objectName, UploadOptions options) {
+            return UUID.randomUUID().toString().replaceAll("-", "");
+        }
+        
+        @Override
+        public String uploadPart(String objectName, String uploadId, int partNumber, InputStream inputStream, long partSize) throws Exception {
+            String partObjectName = MULTIPART_TEMP_PREFIX + uploadId + "/" + partNumber;
+            minioClient.putObject(PutObjectArgs.builder()
+                .bucket(minioProperties.getBucketName())
+                .object(partObjectName)
+                .stream(inputStream, partSize, -1)
+                .build());
+            return partObjectName;
+        }
+        
+        @Override
+        public void complete(String objectName, String uploadId, List<String> parts) throws Exception {
+            List<ComposeSource> sources = new ArrayList<>(parts.size());
+            for (String part : parts) {
+                sources.add(ComposeSource.builder()
+                    .bucket(minioProperties.getBucketName())
+                    .object(part)
+                    .build());
+            }
+            minioClient.composeObject(ComposeObjectArgs.builder()
+                .bucket(minioProperties.getBucketName())
+                .object(objectName)
+                .sources(sources)
+                .build());
+            // 合并成功后才删除临时分片；合并失败时分片保留给断点续传，由abort负责清理
+            try {
+                abort(objectName, uploadId);
+            } catch (Exception ignored) {
+                // 目标对象已生成，临时分片删除失败不影响上传结果
+            }
+        }
+        
+        @Override
+        public void abort(String objectName, String uploadId) throws Exception {
+            List<DeleteObject> parts = new ArrayList<>();
+            Iterable<Result<Item>> items = minioClient.listObjects(ListObjectsArgs.builder()
+                .bucket(minioProperties.getBucketName())
+                .prefix(MULTIPART_TEMP_PREFIX + uploadId + "/")
+                .recursive(true)
+                .build());
+            for (Result<Item> item : items) {
+                parts.add(new DeleteObject(item.get().objectName()));
+            }
+            if (parts.isEmpty()) {
+                return;
+            }
+            // removeObjects为惰性执行，需遍历结果才会真正删除
+            for (Result<DeleteError> result : minioClient.removeObjects(RemoveObjectsArgs.builder()
+                .bucket(minioProperties.getBucketName())
+                .objects(parts)
+                .build())) {
+                result.get();
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -1,10 +1,32 @@
 package com.codeutils.storage.service.impl;
 
+import com.aliyun.oss.ClientBuilderConfiguration;
 import com.aliyun.oss.OSS;
 import com.aliyun.oss.OSSClientBuilder;
+import com.aliyun.oss.OSSErrorCode;
+import com.aliyun.oss.OSSException;
+import com.aliyun.oss.model.AbortMultipartUploadRequest;
+import com.aliyun.oss.model.CompleteMultipartUploadRequest;
+import com.aliyun.oss.model.DeleteObjectsRequest;
+import com.aliyun.oss.model.GetObjectRequest;
+import com.aliyun.oss.model.InitiateMultipartUploadRequest;
+import com.aliyun.oss.model.ListObjectsV2Request;
+import com.aliyun.oss.model.ListObjectsV2Result;
 import com.aliyun.oss.model.OSSObject;
+import com.aliyun.oss.model.OSSObjectSummary;
+import com.aliyun.oss.model.ObjectMetadata;
+import com.aliyun.oss.model.PartETag;
 import com.aliyun.oss.model.PutObjectRequest;
+import com.aliyun.oss.model.UploadPartRequest;
+import com.codeutils.common.utils.FileUtils;
+import com.codeutils.storage.batch.BatchExecutor;
+import com.codeutils.storage.batch.PagedListIterator;
+import com.codeutils.storage.cache.PresignedUrlCache;
 import com.codeutils.storage.config.StorageProperties;
+import com.codeutils.storage.model.FileMetadata;
+import com.codeutils.storage.model.UploadOptions;
+import com.codeutils.storage.multipart.MultipartUploadEngine;
+import com.codeutils.storage.multipart.MultipartUploader;
 import com.codeutils.storage.service.StorageService;
 import org.apache.commons.io.IOUtils;
 import org.springframework.util.StringUtils;
@@ -12,34 +34,75 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URL;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * 阿里云OSS存储服务实现
  */
 public class OssStorageServiceImpl implements StorageService {
     
+    /**
+     * 单次批量删除的对象数上限
+     */
+    private static final int DELETE_BATCH_SIZE = 1000;
+    
     private final StorageProperties.OssProperties ossProperties;
     private final OSS ossClient;
+    private final MultipartUploadEngine multipartUploadEngine;
+    private final PresignedUrlCache presignedUrlCache;
+    private final BatchExecutor batchExecutor;
+    private final OssMultipartUploader multipartUploader = new OssMultipartUploader();
     
     public OssStorageServiceImpl(StorageProperties.OssProperties ossProperties) {
+        this(ossProperties, new StorageProperties.MultipartProperties(),
+            new PresignedUrlCache(new StorageProperties.UrlCacheProperties()),
+            new BatchExecutor(new StorageProperties.BatchProperties()));
+    }
+    
+    public OssStorageServiceImpl(StorageProperties.OssProperties ossProperties,
+                                 StorageProperties.MultipartProperties multipartProperties,
+                                 PresignedUrlCache presignedUrlCache,
+                                 BatchExecutor batchExecutor) {
         this.ossProperties = ossProperties;
+        this.presignedUrlCache = presignedUrlCache;
+        this.batchExecutor = batchExecutor;
+        StorageProperties.HttpClientProperties http = ossProperties.getHttp();
+        ClientBuilderConfiguration configuration = new ClientBuilderConfiguration();
+        configuration.setMaxConnections(http.getMaxConnections());
+        configuration.setConnectionTimeout(http.getConnectTimeoutMillis());
+        configuration.setSocketTimeout(http.getSocketTimeoutMillis());
+        configuration.setConnectionRequestTimeout(http.getConnectionRequestTimeoutMillis());
+        configuration.setIdleConnectionTime(http.getIdleConnectionTimeMillis());
         this.ossClient = new OSSClientBuilder().build(
             ossProperties.getEndpoint(),
             ossProperties.getAccessKey(),
-            ossProperties.getSecretKey()
+            ossProperties.getSecretKey(),
+            configuration
         );
+        this.multipartUploadEngine = new MultipartUploadEngine(multipartProperties);
     }
     
     @Override
     public String uploadFile(MultipartFile file) {
         try {
-            String originalFilename = file.getOriginalFilename();
-            String fileName = generateFileName(originalFilename);
-            return uploadFile(file.getInputStream(), fileName);
+            return uploadStream(file.getInputStream(), file.getSize(), UploadOptions.builder()
+                .originalFilename(file.getOriginalFilename())
+                .contentType(file.getContentType())
+                .build());
         } catch (Exception e) {
             throw new RuntimeException("上传文件到OSS失败", e);
         }
@@ -48,10 +111,11 @@ public class OssStorageServiceImpl implements StorageService {
     @Override
     public String uploadFile(MultipartFile file, String fileName) {
         try {
-            if (!StringUtils.hasText(fileName)) {
-                fileName = generateFileName(file.getOriginalFilename());
-            }
-            return uploadFile(file.getInputStream(), fileName);
+            return uploadStream(file.getInputStream(), file.getSize(), UploadOptions.builder()
+                .fileName(fileName)
+                .originalFilename(file.getOriginalFilename())
+                .contentType(file.getContentType())
+                .build());
         } catch (Exception e) {
             throw new RuntimeException("上传文件到OSS失败", e);
         }
@@ -60,16 +124,12 @@ public class OssStorageServiceImpl implements StorageService {
     @Override
     public String uploadFile(MultipartFile file, String fileName, String path) {
         try {
-            if (!StringUtils.hasText(fileName)) {
-                fileName = generateFileName(file.getOriginalFilename());
-            }
-            if (StringUtils.hasText(path)) {
-                if (!path.endsWith("/")) {
-                    path += "/";
-                }
-                fileName = path + fileName;
-            }
-            return uploadFile(file.getInputStream(), fileName);
+            return uploadStream(file.getInputStream(), file.getSize(), UploadOptions.builder()
+                .fileName(fileName)
+                .originalFilename(file.getOriginalFilename())
+                .path(path)
+                .contentType(file.getContentType())
+                .build());
         } catch (Exception e) {
             throw new RuntimeException("上传文件到OSS失败", e);
         }
@@ -79,8 +139,7 @@ public class OssStorageServiceImpl implements StorageService {
     public String uploadFile(File file) {
         try {
             String fileName = generateFileName(file.getName());
-            PutObjectRequest putObjectRequest = new PutObjectRequest(ossProperties.getBucketName(), fileName, file);
-            ossClient.putObject(putObjectRequest);
+            putFile(file, fileName);
             return getFileUrl(fileName, null);
         } catch (Exception e) {
             throw new RuntimeException("上传文件到OSS失败", e);
@@ -93,8 +152,7 @@ public class OssStorageServiceImpl implements StorageService {
             if (!StringUtils.hasText(fileName)) {
                 fileName = generateFileName(file.getName());
             }
-            PutObjectRequest putObjectRequest = new PutObjectRequest(ossProperties.getBucketName(), fileName, file);
-            ossClient.putObject(putObjectRequest);
+            putFile(file, fileName);
             return getFileUrl(fileName, null);
         } catch (Exception e) {
             throw new RuntimeException("上传文件到OSS失败", e);
@@ -103,12 +161,15 @@ public class OssStorageServiceImpl implements StorageService {
     
     @Override
     public String uploadFile(InputStream inputStream, String fileName) {
+        return uploadStream(inputStream, UNKNOWN_LENGTH, UploadOptions.builder().fileName(fileName).build());
+    }
+    
+    @Override
+    public String uploadStream(InputStream inputStream, long contentLength, UploadOptions options) {
         try {
-            if (!StringUtils.hasText(fileName)) {
-                fileName = generateFileName("file");
-            }
-            ossClient.putObject(ossProperties.getBucketName(), fileName, inputStream);
-            return getFileUrl(fileName, null);
+            String objectName = resolveObjectName(options);
+            multipartUploadEngine.uploadStream(multipartUploader, objectName, inputStream, contentLength, options);
+            return getFileUrl(objectName, null);
         } catch (Exception e) {
             throw new RuntimeException("上传文件到OSS失败", e);
         }
@@ -116,15 +177,104 @@ public class OssStorageServiceImpl implements StorageService {
     
     @Override
     public byte[] downloadFile(String fileUrl) {
+        try (InputStream inputStream = openStream(fileUrl)) {
+            return IOUtils.toByteArray(inputStream);
+        } catch (Exception e) {
+            throw new RuntimeException("从OSS下载文件失败", e);
+        }
+    }
+    
+    @Override
+    public InputStream openStream(String fileUrl) {
         try {
             String objectName = getObjectNameFromUrl(fileUrl);
             OSSObject ossObject = ossClient.getObject(ossProperties.getBucketName(), objectName);
-            return IOUtils.toByteArray(ossObject.getObjectContent());
+            return ossObject.getObjectContent();
+        } catch (Exception e) {
+            throw new RuntimeException("从OSS下载文件失败", e);
+        }
+    }
+    
+    @Override
+    public long downloadTo(String fileUrl, OutputStream outputStream) {
+        try (InputStream inputStream = openStream(fileUrl)) {
+            return IOUtils.copyLarge(inputStream, outputStream);
+        } catch (IOException e) {
+            throw new RuntimeException("从OSS下载文件失败", e);
+        }
+    }
+    
+    @Override
+    public long downloadTo(String fileUrl, Path targetPath) {
+        try (InputStream inputStream = openStream(fileUrl)) {
+            return FileUtils.writeStreamToFile(inputStream, targetPath);
+        } catch (IOException e) {
+            throw new RuntimeException("从OSS下载文件失败", e);
+        }
+    }
+    
+    @Override
+    public InputStream downloadRange(String fileUrl, long offset, long length) {
+        try {
+            String objectName = getObjectNameFromUrl(fileUrl);
+            GetObjectRequest request = new GetObjectRequest(ossProperties.getBucketName(), objectName);
+            // 结束位置为-1时读取到文件末尾
+            request.setRange(offset, length < 0 ? -1 : offset + length - 1);
+            return ossClient.getObject(request).getObjectContent();
         } catch (Exception e) {
             throw new RuntimeException("从OSS下载文件失败", e);
         }
     }
     
+    @Override
+    public FileMetadata stat(String fileUrl) {
+        try {
+            return statObject(getObjectNameFromUrl(fileUrl));
+        } catch (Exception e) {
+            throw new RuntimeException("获取OSS文件信息失败", e);
+        }
+    }
+    
+    @Override
+    public Map<String, FileMetadata> stat(Collection<String> fileUrls) {
+        try {
+            return batchExecutor.execute(fileUrls, fileUrl -> {
+                try {
+                    return statObject(getObjectNameFromUrl(fileUrl));
+                } catch (OSSException e) {
+                    if (OSSErrorCode.NO_SUCH_KEY.equals(e.getErrorCode())) {
+                        return null;
+                    }
+                    throw e;
+                }
+            });
+        } catch (Exception e) {
+            throw new RuntimeException("批量获取OSS文件信息失败", e);
+        }
+    }
+    
+    @Override
+    public Stream<FileMetadata> list(String prefix) {
+        return batchExecutor.stream(continuationToken -> {
+            ListObjectsV2Request request = new ListObjectsV2Request(ossProperties.getBucketName());
+            request.setPrefix(prefix);
+            request.setMaxKeys(batchExecutor.getListPageSize());
+            request.setContinuationToken(continuationToken);
+            ListObjectsV2Result result = ossClient.listObjectsV2(request);
+            
+            List<FileMetadata> items = new ArrayList<>(result.getObjectSummaries().size());
+            for (OSSObjectSummary summary : result.getObjectSummaries()) {
+                items.add(FileMetadata.builder()
+                    .objectName(summary.getKey())
+                    .size(summary.getSize())
+                    .etag(summary.getETag())
+                    .lastModified(summary.getLastModified())
+                    .build());
+            }
+            return new PagedListIterator.Page<>(items, result.isTruncated() ? result.getNextContinuationToken() : null);
+        });
+    }
+    
     @Override
     public boolean deleteFile(String fileUrl) {
         try {
@@ -137,27 +287,116 @@ public class OssStorageServiceImpl implements StorageService {
     }
     
     @Override
-    public String getFileUrl(String fileUrl, Long expireTime) {
+    public List<String> deleteFiles(Collection<String> fileUrls) {
         try {
-            String objectName;
-            if (fileUrl.startsWith("http")) {
-                objectName = getObjectNameFromUrl(fileUrl);
-            } else {
-                objectName = fileUrl;
+            Map<String, String> fileUrlsByKey = new LinkedHashMap<>();
+            for (String fileUrl : fileUrls) {
+                fileUrlsByKey.put(getObjectNameFromUrl(fileUrl), fileUrl);
             }
             
+            List<String> keys = new ArrayList<>(fileUrlsByKey.keySet());
+            List<String> failed = new ArrayList<>();
+            for (int from = 0; from < keys.size(); from += DELETE_BATCH_SIZE) {
+                List<String> chunk = keys.subList(from, Math.min(from + DELETE_BATCH_SIZE, keys.size()));
+                DeleteObjectsRequest request = new DeleteObjectsRequest(ossProperties.getBucketName());
+                request.setKeys(new ArrayList<>(chunk));
+                request.setQuiet(false);
+                
+                // 非简单模式下返回已删除的对象，未返回的即为删除失败
+                Set<String> deleted = new HashSet<>(ossClient.deleteObjects(request).getDeletedObjects());
+                for (String key : chunk) {
+                    if (!deleted.contains(key)) {
+                        failed.add(fileUrlsByKey.get(key));
+                    }
+                }
+            }
+            return failed;
+        } catch (Exception e) {
+            throw new RuntimeException("从OSS批量删除文件失败", e);
+        }
+    }
+    
+    @Override
+    public String getObjectName(String fileUrl) {
+        return getObjectNameFromUrl(fileUrl);
+    }
+    
+    @Override
+    public String getFileUrl(String fileUrl, Long expireTime) {
+        try {
             if (expireTime == null || expireTime <= 0) {
-                return ossProperties.getEndpoint() + "/" + objectName;
+                return createFileUrl(fileUrl, null);
             }
-            
-            Date expiration = new Date(System.currentTimeMillis() + expireTime * 1000);
-            URL url = ossClient.generatePresignedUrl(ossProperties.getBucketName(), objectName, expiration);
-            return url.toString();
+            // 签名链接优先从缓存获取，按对象名称和分桶后的有效期命中，命中时跳过签名计算
+            String objectName = getObjectNameFromUrl(fileUrl);
+            long expireSeconds = presignedUrlCache.bucketExpireSeconds(expireTime);
+            return presignedUrlCache.get("oss:" + ossProperties.getBucketName(), objectName, expireSeconds,
+                () -> createFileUrl(objectName, expireSeconds));
         } catch (Exception e) {
             throw new RuntimeException("获取OSS文件链接失败", e);
         }
     }
     
+    @Override
+    public void shutdown() {
+        multipartUploadEngine.shutdown();
+        ossClient.shutdown();
+    }
+    
+    /**
+     * 获取对象元数据
+     * @param objectName 对象名称
+     * @return 文件元数据
+     */
+    private FileMetadata statObject(String objectName) {
+        ObjectMetadata metadata = ossClient.getObjectMetadata(ossProperties.getBucketName(), objectName);
+        return FileMetadata.builder()
+            .objectName(objectName)
+            .size(metadata.getContentLength())
+            .etag(metadata.getETag())
+            .lastModified(metadata.getLastModified())
+            .contentType(metadata.getContentType())
+            .build();
+    }
+    
+    /**
+     * 生成文件链接
+     * @param fileUrl 文件URL
+     * @param expireTime 过期时间（秒），为空时返回默认URL
+     * @return 文件链接
+     * @throws Exception 签名失败
+     */
+    private String createFileUrl(String fileUrl, Long expireTime) throws Exception {
+        String objectName;
+        if (fileUrl.startsWith("http")) {
+            objectName = getObjectNameFromUrl(fileUrl);
+        } else {
+            objectName = fileUrl;
+        }
+        
+        if (expireTime == null || expireTime <= 0) {
+            return ossProperties.getEndpoint() + "/" + objectName;
+        }
+        
+        Date expiration = new Date(System.currentTimeMillis() + expireTime * 1000);
+        URL url = ossClient.generatePresignedUrl(ossProperties.getBucketName(), objectName, expiration);
+        return url.toString();
+    }
+    
+    /**
+     * 上传本地文件，超过阈值时并发分片上传
+     * @param file 本地文件
+     * @param objectName 对象名称
+     * @throws Exception 上传失败
+     */
+    private void putFile(File file, String objectName) throws Exception {
+        if (multipartUploadEngine.requiresMultipart(file.length())) {
+            multipartUploadEngine.uploadFile(multipartUploader, objectName, file, null);
+        } else {
+            ossClient.putObject(new PutObjectRequest(ossProperties.getBucketName(), objectName, file));
+        }
+    }
+    
     /**
      * 生成文件名
      * @param originalFilename 原始文件名
@@ -172,6 +411,42 @@ public class OssStorageServiceImpl implements StorageService {
         return uuid + extension;
     }
     
+    /**
+     * 根据上传选项确定对象名称
+     * @param options 上传选项
+     * @return 对象名称
+     */
+    private String resolveObjectName(UploadOptions options) {
+        if (options == null) {
+            options = new UploadOptions();
+        }
+        String fileName = options.getFileName();
+        if (!StringUtils.hasText(fileName)) {
+            fileName = generateFileName(options.getOriginalFilename());
+        }
+        String path = options.getPath();
+        if (StringUtils.hasText(path)) {
+            if (!path.endsWith("/")) {
+                path += "/";
+            }
+            fileName = path + fileName;
+        }
+        return fileName;
+    }
+    
+    /**
+     * 根据上传选项创建对象元数据
+     * @param options 上传选项
+     * @return 对象元数据
+     */
+    private ObjectMetadata createMetadata(UploadOptions options) {
+        ObjectMetadata metadata = new ObjectMetadata();
+        if (options != null && StringUtils.hasText(options.getContentType())) {
+            metadata.setContentType(options.getContentType());
+        }
+        return metadata;
+    }
+    
     /**
      * 从URL中获取对象名称
      * @param fileUrl 文件URL
@@ -194,4 +469,51 @@ public class OssStorageServiceImpl implements StorageService {
             return fileUrl; // 如果解析失败，将整个URL作为对象名
         }
     }
-} 
\ No newline at end of file
+    
+    /**
+     * OSS分片上传适配
+     */
+    private class OssMultipartUploader implements MultipartUploader<PartETag> {
+        
+        @Override
+        public void putObject(String objectName, InputStream inputStream, long size, UploadOptions options) {
+            ObjectMetadata metadata = createMetadata(options);
+            metadata.setContentLength(size);
+            ossClient.putObject(new PutObjectRequest(ossProperties.getBucketName(), objectName, inputStream, metadata));
+        }
+        
+        @Override
+        public String initiate(String objectName, UploadOptions options) {
+            InitiateMultipartUploadRequest request = new InitiateMultipartUploadRequest(
+                ossProperties.getBucketName(), objectName, createMetadata(options)
+            );
+            return ossClient.initiateMultipartUpload(request).getUploadId();
+        }
+        
+        @Override
+        public PartETag uploadPart(String objectName, String uploadId, int partNumber, InputStream inputStream, long partSize) {
+            UploadPartRequest request = new UploadPartRequest();
+            request.setBucketName(ossProperties.getBucketName());
+            request.setKey(objectName);
+            request.setUploadId(uploadId);
+            request.setPartNumber(partNumber);
+            request.setInputStream(inputStream);
+            request.setPartSize(partSize);
+            return ossClient.uploadPart(request).getPartETag();
+        }
+        
+        @Override
+        public void complete(String objectName, String uploadId, List<PartETag> parts) {
+            ossClient.completeMultipartUpload(new CompleteMultipartUploadRequest(
+                ossProperties.getBucketName(), objectName, uploadId, parts
+            ));
+        }
+        
+        @Override
+        public void abort(String objectName, String uploadId) {
+            ossClient.abortMultipartUpload(new AbortMultipartUploadRequest(
+                ossProperties.getBucketName(), objectName, uploadId
+            ));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,706 @@
+package com.codeutils.storage.service.impl;
+
+import com.codeutils.common.utils.FileUtils;
+import com.codeutils.storage.config.StorageProperties;
+import com.codeutils.storage.model.FileMetadata;
+import com.codeutils.storage.model.UploadOptions;
+import com.codeutils.storage.multipart.TransferThreadFactory;
+import com.codeutils.storage.replication.LatencyTracker;
+import com.codeutils.storage.service.StorageService;
+import org.apache.commons.io.IOUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * 多存储复制服务
+ * 写入同步完成于主存储，再从主存储读回一次并异步复制到各从存储，复制或同步删除失败时按退避重试，
+ * 仍失败的对象按从存储记录下来，可通过 {@link #retryFailedReplications()} 修复；
+ * 读取时主存储超过分位数延迟仍未返回，则向第一个从存储发起对冲请求并采用先成功的结果，
+ * 主存储出现暂时性故障时依次切换到从存储，对象不存在等永久性错误直接抛出，不读取从存储上可能过期的副本。
+ * 同一对象的复制和删除按对象名称分配到固定的复制线程，按提交顺序执行。
+ * 从存储以对象名称定位文件，复制完成前从存储可能读不到新文件
+ */
+public class ReplicatedStorageServiceImpl implements StorageService {
+    
+    /**
+     * 开始对冲前主存储至少需要的延迟样本数
+     */
+    private static final int MIN_HEDGE_SAMPLES = 32;
+    
+    /**
+     * 复制重试退避时间上限（毫秒）
+     */
+    private static final long MAX_REPLICATION_BACKOFF_MILLIS = 10000;
+    
+    private final StorageService primary;
+    private final List<StorageService> secondaries;
+    private final List<String> secondaryNames;
+    private final boolean hedgeEnabled;
+    private final long hedgeMinDelayNanos;
+    private final LatencyTracker primaryLatency;
+    private final ExecutorService readExecutor;
+    private final List<ThreadPoolExecutor> replicationExecutors;
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private final int failedRecordCapacity;
+    private final long memoryThreshold;
+    private final Path spoolDirectory;
+    
+    /**
+     * 每个从存储待修复的对象，对象名称到最近一次失败的操作
+     */
+    private final List<Map<String, RepairAction>> failedReplications;
+    
+    private final AtomicLong hedgedReadCount = new AtomicLong();
+    private final AtomicLong hedgeWinCount = new AtomicLong();
+    private final AtomicLong failoverCount = new AtomicLong();
+    private final AtomicLong replicationFailedCount = new AtomicLong();
+    
+    public ReplicatedStorageServiceImpl(StorageService primary, List<StorageService> secondaries,
+                                        StorageProperties.ReplicationProperties replicationProperties) {
+        this.primary = primary;
+        this.secondaries = new ArrayList<>(secondaries);
+        this.secondaryNames = new ArrayList<>();
+        this.failedReplications = new ArrayList<>();
+        List<String> configuredNames = replicationProperties.getSecondaries();
+        for (int i = 0; i < secondaries.size(); i++) {
+            secondaryNames.add(i < configuredNames.size() ? configuredNames.get(i) : "secondary-" + i);
+            failedReplications.add(new ConcurrentHashMap<>());
+        }
+        this.hedgeEnabled = replicationProperties.isHedgeEnabled() && !secondaries.isEmpty();
+        this.hedgeMinDelayNanos = TimeUnit.MILLISECONDS.toNanos(replicationProperties.getHedgeMinDelayMillis());
+        this.primaryLatency = new LatencyTracker(replicationProperties.getLatencyWindowSize(),
+            replicationProperties.getHedgePercentile());
+        
+        this.readExecutor = new ThreadPoolExecutor(
+            0, Math.max(replicationProperties.getReadConcurrency(), 1), 60L, TimeUnit.SECONDS,
+            new SynchronousQueue<>(), new TransferThreadFactory("replicated-read")
+        );
+        // 每个复制线程独占一个队列，同一对象总是进入同一队列，复制和删除不会乱序
+        int replicationConcurrency = Math.max(replicationProperties.getReplicationConcurrency(), 1);
+        int queueCapacity = Math.max(replicationProperties.getReplicationQueueCapacity() / replicationConcurrency, 1);
+        TransferThreadFactory threadFactory = new TransferThreadFactory("replication");
+        this.replicationExecutors = new ArrayList<>(replicationConcurrency);
+        for (int i = 0; i < replicationConcurrency; i++) {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory);
+            executor.allowCoreThreadTimeOut(true);
+            replicationExecutors.add(executor);
+        }
+        this.maxAttempts = Math.max(replicationProperties.getReplicationMaxAttempts(), 1);
+        this.backoffMillis = Math.max(replicationProperties.getReplicationBackoffMillis(), 0);
+        this.failedRecordCapacity = Math.max(replicationProperties.getFailedRecordCapacity(), 0);
+        this.memoryThreshold = replicationProperties.getMemoryThreshold();
+        this.spoolDirectory = Paths.get(replicationProperties.getSpoolDirectory());
+    }
+    
+    @Override
+    public String uploadFile(MultipartFile file) {
+        return replicate(primary.uploadFile(file));
+    }
+    
+    @Override
+    public String uploadFile(MultipartFile file, String fileName) {
+        return replicate(primary.uploadFile(file, fileName));
+    }
+    
+    @Override
+    public String uploadFile(MultipartFile file, String fileName, String path) {
+        return replicate(primary.uploadFile(file, fileName, path));
+    }
+    
+    @Override
+    public String uploadFile(File file) {
+        return replicate(primary.uploadFile(file));
+    }
+    
+    @Override
+    public String uploadFile(File file, String fileName) {
+        return replicate(primary.uploadFile(file, fileName));
+    }
+    
+    @Override
+    public String uploadFile(InputStream inputStream, String fileName) {
+        return replicate(primary.uploadFile(inputStream, fileName));
+    }
+    
+    @Override
+    public String uploadStream(InputStream inputStream, long contentLength, UploadOptions options) {
+        return replicate(primary.uploadStream(inputStream, contentLength, options));
+    }
+    
+    @Override
+    public byte[] downloadFile(String fileUrl) {
+        return read(fileUrl, StorageService::downloadFile, null);
+    }
+    
+    @Override
+    public InputStream openStream(String fileUrl) {
+        return read(fileUrl, StorageService::openStream, ReplicatedStorageServiceImpl::closeQuietly);
+    }
+    
+    @Override
+    public long downloadTo(String fileUrl, OutputStream outputStream) {
+        try (InputStream inputStream = openStream(fileUrl)) {
+            return IOUtils.copyLarge(inputStream, outputStream);
+        } catch (IOException e) {
+            throw new RuntimeException("下载文件失败", e);
+        }
+    }
+    
+    @Override
+    public long downloadTo(String fileUrl, Path targetPath) {
+        try (InputStream inputStream = openStream(fileUrl)) {
+            return FileUtils.writeStreamToFile(inputStream, targetPath);
+        } catch (IOException e) {
+            throw new RuntimeException("下载文件失败", e);
+        }
+    }
+    
+    @Override
+    public InputStream downloadRange(String fileUrl, long offset, long length) {
+        return read(fileUrl, (service, url) -> service.downloadRange(url, offset, length),
+            ReplicatedStorageServiceImpl::closeQuietly);
+    }
+    
+    @Override
+    public FileMetadata stat(String fileUrl) {
+        return read(fileUrl, StorageService::stat, null);
+    }
+    
+    @Override
+    public Map<String, FileMetadata> stat(Collection<String> fileUrls) {
+        return primary.stat(fileUrls);
+    }
+    
+    @Override
+    public Stream<FileMetadata> list(String prefix) {
+        return primary.list(prefix);
+    }
+    
+    @Override
+    public boolean deleteFile(String fileUrl) {
+        boolean deleted = primary.deleteFile(fileUrl);
+        String objectName = primary.getObjectName(fileUrl);
+        for (int i = 0; i < secondaries.size(); i++) {
+            submitDelete(i, objectName);
+        }
+        return deleted;
+    }
+    
+    @Override
+    public List<String> deleteFiles(Collection<String> fileUrls) {
+        List<String> failed = primary.deleteFiles(fileUrls);
+        List<String> objectNames = new ArrayList<>(fileUrls.size());
+        for (String fileUrl : fileUrls) {
+            objectNames.add(primary.getObjectName(fileUrl));
+        }
+        // 按复制线程分组，保证与同一对象此前提交的复制按顺序执行
+        Map<ThreadPoolExecutor, List<String>> objectNamesByExecutor = new LinkedHashMap<>();
+        for (String objectName : objectNames) {
+            objectNamesByExecutor.computeIfAbsent(replicationExecutor(objectName), key -> new ArrayList<>())
+                .add(objectName);
+        }
+        for (int i = 0; i < secondaries.size(); i++) {
+            int index = i;
+            objectNamesByExecutor.forEach((executor, names) -> submitReplication(executor,
+                () -> deleteFromSecondary(index, names),
+                () -> names.forEach(objectName -> recordFailure(index, objectName, RepairAction.DELETE))));
+        }
+        return failed;
+    }
+    
+    @Override
+    public String getObjectName(String fileUrl) {
+        return primary.getObjectName(fileUrl);
+    }
+    
+    @Override
+    public String getFileUrl(String fileUrl, Long expireTime) {
+        return primary.getFileUrl(fileUrl, expireTime);
+    }
+    
+    /**
+     * 关闭读取和复制线程池，已提交的复制任务继续执行
+     */
+    @Override
+    public void shutdown() {
+        readExecutor.shutdown();
+        replicationExecutors.forEach(ThreadPoolExecutor::shutdown);
+    }
+    
+    /**
+     * 获取发起对冲读取的次数
+     * @return 对冲次数
+     */
+    public long getHedgedReadCount() {
+        return hedgedReadCount.get();
+    }
+    
+    /**
+     * 获取对冲读取中从存储先返回的次数
+     * @return 从存储胜出次数
+     */
+    public long getHedgeWinCount() {
+        return hedgeWinCount.get();
+    }
+    
+    /**
+     * 获取主存储失败后切换到从存储的次数
+     * @return 切换次数
+     */
+    public long getFailoverCount() {
+        return failoverCount.get();
+    }
+    
+    /**
+     * 获取复制或同步删除重试后仍失败的次数
+     * @return 失败次数
+     */
+    public long getReplicationFailedCount() {
+        return replicationFailedCount.get();
+    }
+    
+    /**
+     * 获取等待执行的复制任务数
+     * @return 排队任务数
+     */
+    public int getPendingReplicationCount() {
+        int pending = 0;
+        for (ThreadPoolExecutor executor : replicationExecutors) {
+            pending += executor.getQueue().size();
+        }
+        return pending;
+    }
+    
+    /**
+     * 获取各从存储待修复的对象
+     * @return 从存储类型到待修复对象名称的映射
+     */
+    public Map<String, Set<String>> getFailedReplications() {
+        Map<String, Set<String>> result = new LinkedHashMap<>();
+        for (int i = 0; i < secondaries.size(); i++) {
+            result.put(secondaryNames.get(i), new TreeSet<>(failedReplications.get(i).keySet()));
+        }
+        return result;
+    }
+    
+    /**
+     * 重新提交所有待修复的复制和删除，成功后从待修复记录中移除
+     * 同一对象在多个从存储上待复制时只从主存储读取一次
+     * @return 提交的对象数
+     */
+    public int retryFailedReplications() {
+        Map<String, List<Integer>> copies = new LinkedHashMap<>();
+        int submitted = 0;
+        for (int i = 0; i < secondaries.size(); i++) {
+            for (Map.Entry<String, RepairAction> entry : failedReplications.get(i).entrySet()) {
+                if (entry.getValue() == RepairAction.COPY) {
+                    copies.computeIfAbsent(entry.getKey(), key -> new ArrayList<>()).add(i);
+                } else {
+                    submitDelete(i, entry.getKey());
+                    submitted++;
+                }
+            }
+        }
+        for (Map.Entry<String, List<Integer>> entry : copies.entrySet()) {
+            submitCopy(entry.getKey(), entry.getKey(), entry.getValue());
+            submitted++;
+        }
+        return submitted;
+    }
+    
+    /**
+     * 获取主存储读取延迟的对冲分位数
+     * @return 分位数延迟（毫秒），没有样本时返回-1
+     */
+    public double getPrimaryLatencyPercentileMillis() {
+        long nanos = primaryLatency.getPercentileNanos();
+        return nanos < 0 ? -1 : nanos / 1_000_000.0;
+    }
+    
+    /**
+     * 将主存储上的文件异步复制到各从存储
+     * @param fileUrl 主存储返回的文件URL
+     * @return 文件URL
+     */
+    private String replicate(String fileUrl) {
+        if (secondaries.isEmpty()) {
+            return fileUrl;
+        }
+        List<Integer> targets = new ArrayList<>();
+        for (int i = 0; i < secondaries.size(); i++) {
+            targets.add(i);
+        }
+        submitCopy(fileUrl, primary.getObjectName(fileUrl), targets);
+        return fileUrl;
+    }
+    
+    private void submitCopy(String fileUrl, String objectName, List<Integer> targets) {
+        submitReplication(replicationExecutor(objectName), () -> copy(fileUrl, objectName, targets),
+            () -> targets.forEach(index -> recordFailure(index, objectName, RepairAction.COPY)));
+    }
+    
+    private void submitDelete(int index, String objectName) {
+        submitReplication(replicationExecutor(objectName),
+            () -> runWithRetry(index, objectName, RepairAction.DELETE,
+                () -> secondaries.get(index).deleteFile(objectName)),
+            () -> recordFailure(index, objectName, RepairAction.DELETE));
+    }
+    
+    /**
+     * 从主存储读取一次文件并暂存，再依次上传到各目标从存储
+     * @param fileUrl 主存储上的文件URL或对象名称
+     * @param objectName 对象名称
+     * @param targets 目标从存储下标
+     */
+    private void copy(String fileUrl, String objectName, List<Integer> targets) {
+        Path spool = null;
+        try {
+            FileMetadata metadata = primary.stat(fileUrl);
+            if (metadata == null) {
+                // 主存储上已被删除，无需复制，之后提交的删除会清理从存储
+                for (int index : targets) {
+                    failedReplications.get(index).remove(objectName, RepairAction.COPY);
+                }
+                return;
+            }
+            UploadOptions options = UploadOptions.builder()
+                .fileName(objectName)
+                .contentType(metadata.getContentType())
+                .build();
+            
+            byte[] content = null;
+            long size;
+            try (InputStream inputStream = primary.openStream(fileUrl)) {
+                if (metadata.getSize() >= 0 && metadata.getSize() <= memoryThreshold) {
+                    content = IOUtils.toByteArray(inputStream);
+                    size = content.length;
+                } else {
+                    Files.createDirectories(spoolDirectory);
+                    spool = Files.createTempFile(spoolDirectory, "codeutils-replication-", ".tmp");
+                    size = FileUtils.writeStreamToFile(inputStream, spool);
+                }
+            }
+            
+            for (int index : targets) {
+                byte[] bytes = content;
+                Path file = spool;
+                runWithRetry(index, objectName, RepairAction.COPY, () -> {
+                    try (InputStream source = bytes != null ? new ByteArrayInputStream(bytes) : Files.newInputStream(file)) {
+                        secondaries.get(index).uploadStream(source, size, options);
+                    }
+                    return null;
+                });
+            }
+        } catch (Exception e) {
+            // 主存储读取失败，所有目标从存储均未复制
+            for (int index : targets) {
+                recordFailure(index, objectName, RepairAction.COPY);
+            }
+        } finally {
+            deleteQuietly(spool);
+        }
+    }
+    
+    /**
+     * 批量删除从存储上的对象，未删除的对象按退避重试
+     * @param index 从存储下标
+     * @param objectNames 对象名称列表
+     */
+    private void deleteFromSecondary(int index, List<String> objectNames) {
+        List<String> remaining = objectNames;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                remaining = secondaries.get(index).deleteFiles(remaining);
+            } catch (RuntimeException e) {
+                // 整批失败，全部留待重试
+            }
+            if (remaining.isEmpty() || attempt >= maxAttempts || !awaitBackoff(attempt)) {
+                break;
+            }
+        }
+        
+        Set<String> failed = new HashSet<>(remaining);
+        for (String objectName : objectNames) {
+            if (failed.contains(objectName)) {
+                recordFailure(index, objectName, RepairAction.DELETE);
+            } else {
+                failedReplications.get(index).remove(objectName);
+            }
+        }
+    }
+    
+    /**
+     * 执行对单个从存储的复制或删除，失败时按退避重试，仍失败则记录为待修复
+     * @param index 从存储下标
+     * @param objectName 对象名称
+     * @param action 操作类型
+     * @param step 操作
+     */
+    private void runWithRetry(int index, String objectName, RepairAction action, Callable<?> step) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                step.call();
+                failedReplications.get(index).remove(objectName);
+                return;
+            } catch (Exception e) {
+                if (attempt >= maxAttempts || !awaitBackoff(attempt)) {
+                    recordFailure(index, objectName, action);
+                    return;
+                }
+            }
+        }
+    }
+    
+    private boolean awaitBackoff(int attempt) {
+        long delay = Math.min(backoffMillis << Math.min(attempt - 1, 20), MAX_REPLICATION_BACKOFF_MILLIS);
+        try {
+            Thread.sleep(delay);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+    
+    /**
+     * 记录待修复的对象，同一对象以最近一次失败的操作为准
+     */
+    private void recordFailure(int index, String objectName, RepairAction action) {
+        replicationFailedCount.incrementAndGet();
+        Map<String, RepairAction> failed = failedReplications.get(index);
+        if (failed.containsKey(objectName) || failed.size() < failedRecordCapacity) {
+            failed.put(objectName, action);
+        }
+    }
+    
+    /**
+     * 同一对象名称总是对应同一复制线程
+     */
+    private ThreadPoolExecutor replicationExecutor(String objectName) {
+        return replicationExecutors.get(Math.floorMod(objectName.hashCode(), replicationExecutors.size()));
+    }
+    
+    private void submitReplication(ThreadPoolExecutor executor, Runnable task, Runnable onRejected) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            onRejected.run();
+        }
+    }
+    
+    private static void deleteQuietly(Path spool) {
+        if (spool == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(spool);
+        } catch (IOException ignored) {
+            // 临时文件删除失败不影响复制结果
+        }
+    }
+    
+    /**
+     * 读取文件，必要时对冲或切换到从存储
+     * @param fileUrl 文件URL
+     * @param operation 读取操作
+     * @param discard 对冲请求中未被采用的结果的释放方式，如关闭流，可为null
+     * @param <T> 结果类型
+     * @return 读取结果
+     */
+    private <T> T read(String fileUrl, ReadOperation<T> operation, Consumer<T> discard) {
+        if (!hedgeEnabled || primaryLatency.getCount() < MIN_HEDGE_SAMPLES) {
+            return readWithFailover(fileUrl, operation);
+        }
+        
+        CompletableFuture<T> primaryFuture = new CompletableFuture<>();
+        try {
+            readExecutor.execute(() -> complete(primaryFuture, () -> readPrimary(fileUrl, operation)));
+        } catch (RejectedExecutionException e) {
+            // 读取线程已用尽，不再对冲
+            return readWithFailover(fileUrl, operation);
+        }
+        
+        long hedgeDelay = Math.max(primaryLatency.getPercentileNanos(), hedgeMinDelayNanos);
+        try {
+            return primaryFuture.get(hedgeDelay, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // 主存储超过分位数延迟，继续向从存储发起对冲请求
+        } catch (ExecutionException e) {
+            return failover(fileUrl, operation, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            primaryFuture.thenAccept(result -> release(result, discard));
+            throw new RuntimeException("读取文件被中断", e);
+        }
+        
+        String objectName = primary.getObjectName(fileUrl);
+        StorageService hedge = secondaries.get(0);
+        CompletableFuture<T> hedgeFuture = new CompletableFuture<>();
+        try {
+            readExecutor.execute(() -> complete(hedgeFuture, () -> operation.apply(hedge, objectName)));
+            hedgedReadCount.incrementAndGet();
+        } catch (RejectedExecutionException e) {
+            hedgeFuture.completeExceptionally(e);
+        }
+        
+        T result = firstSuccessful(fileUrl, operation, primaryFuture, hedgeFuture);
+        // 另一个请求稍后完成时释放其结果
+        primaryFuture.thenAccept(other -> {
+            if (other != result) {
+                release(other, discard);
+            }
+        });
+        hedgeFuture.thenAccept(other -> {
+            if (other != result) {
+                release(other, discard);
+            }
+        });
+        return result;
+    }
+    
+    private <T> T firstSuccessful(String fileUrl, ReadOperation<T> operation,
+                                  CompletableFuture<T> primaryFuture, CompletableFuture<T> hedgeFuture) {
+        CompletableFuture<T> winner = new CompletableFuture<>();
+        AtomicInteger remaining = new AtomicInteger(2);
+        primaryFuture.whenComplete((result, error) -> {
+            if (error == null) {
+                winner.complete(result);
+            } else if (!StorageErrors.isTransient(error) || remaining.decrementAndGet() == 0) {
+                // 主存储确认对象不存在等永久性错误时，不采用从存储可能过期的结果
+                winner.completeExceptionally(error);
+            }
+        });
+        hedgeFuture.whenComplete((result, error) -> {
+            if (error == null) {
+                if (winner.complete(result)) {
+                    hedgeWinCount.incrementAndGet();
+                }
+            } else if (remaining.decrementAndGet() == 0) {
+                winner.completeExceptionally(error);
+            }
+        });
+        
+        try {
+            return winner.get();
+        } catch (ExecutionException e) {
+            // 主存储和对冲请求均失败，尝试其余从存储
+            return failover(fileUrl, operation, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("读取文件被中断", e);
+        }
+    }
+    
+    private <T> T readWithFailover(String fileUrl, ReadOperation<T> operation) {
+        try {
+            return readPrimary(fileUrl, operation);
+        } catch (RuntimeException e) {
+            return failover(fileUrl, operation, e);
+        }
+    }
+    
+    private <T> T readPrimary(String fileUrl, ReadOperation<T> operation) {
+        long start = System.nanoTime();
+        T result = operation.apply(primary, fileUrl);
+        primaryLatency.record(System.nanoTime() - start);
+        return result;
+    }
+    
+    private <T> T failover(String fileUrl, ReadOperation<T> operation, Throwable primaryError) {
+        if (secondaries.isEmpty() || !StorageErrors.isTransient(primaryError)) {
+            throw primaryError instanceof RuntimeException
+                ? (RuntimeException) primaryError
+                : new RuntimeException("读取文件失败", primaryError);
+        }
+        failoverCount.incrementAndGet();
+        String objectName = primary.getObjectName(fileUrl);
+        RuntimeException failure = new RuntimeException("主存储和从存储均读取失败", primaryError);
+        for (StorageService secondary : secondaries) {
+            try {
+                return operation.apply(secondary, objectName);
+            } catch (RuntimeException e) {
+                failure.addSuppressed(e);
+            }
+        }
+        throw failure;
+    }
+    
+    private static <T> void complete(CompletableFuture<T> future, Supplier<T> supplier) {
+        try {
+            future.complete(supplier.get());
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        }
+    }
+    
+    private static <T> void release(T result, Consumer<T> discard) {
+        if (discard != null && result != null) {
+            discard.accept(result);
+        }
+    }
+    
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+            // 未被采用的对冲结果，关闭失败无需处理
+        }
+    }
+    
+    /**
+     * 待修复的操作
+     */
+    private enum RepairAction {
+        /**
+         * 从主存储复制到从存储
+         */
+        COPY,
+        /**
+         * 从从存储删除
+         */
+        DELETE
+    }
+    
+    /**
+     * 读取操作
+     * @param <T> 结果类型
+     */
+    private interface ReadOperation<T> {
+        T apply(StorageService service, String fileUrl);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,209 @@
+package com.codeutils.storage.service.impl;
+
+import com.codeutils.storage.config.StorageProperties;
+import com.codeutils.storage.model.FileMetadata;
+import com.codeutils.storage.model.UploadOptions;
+import com.codeutils.storage.resilience.Backoff;
+import com.codeutils.storage.resilience.CircuitBreaker;
+import com.codeutils.storage.service.StorageService;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * 存储服务容错装饰类
+ * 每个存储后端持有一个熔断器，熔断打开时直接抛出CircuitBreakerOpenException而不再请求后端；
+ * 幂等操作遇到暂时性故障（网络异常、限流、服务端错误）时按带抖动的指数退避重试。
+ * 上传MultipartFile或File时先确定对象名再重试，重试写入同一对象，分片上传可从上次成功的分片继续；
+ * 上传只能读取一次的输入流、写入调用方输出流的下载不重试。
+ * 返回输入流或Stream的操作只对打开过程重试，读取过程中的异常直接抛给调用方
+ */
+public class ResilientStorageServiceImpl implements StorageService {
+    
+    private final StorageService delegate;
+    private final CircuitBreaker circuitBreaker;
+    private final Backoff backoff;
+    private final int maxAttempts;
+    
+    /**
+     * @param delegate 被装饰的存储服务
+     * @param properties 容错配置
+     * @param backend 存储类型，作为熔断器名称
+     */
+    public ResilientStorageServiceImpl(StorageService delegate, StorageProperties.ResilienceProperties properties,
+                                       String backend) {
+        this.delegate = delegate;
+        this.circuitBreaker = new CircuitBreaker(backend, properties.getSlidingWindowSize(),
+            properties.getMinimumCalls(), properties.getFailureRateThreshold(),
+            properties.getOpenDurationMillis(), properties.getHalfOpenPermittedCalls());
+        this.backoff = new Backoff(properties.getInitialBackoffMillis(), properties.getMaxBackoffMillis(),
+            properties.getBackoffMultiplier());
+        this.maxAttempts = Math.max(properties.getMaxAttempts(), 1);
+    }
+    
+    @Override
+    public String uploadFile(MultipartFile file) {
+        String fileName = generateFileName(file.getOriginalFilename());
+        return execute(true, () -> delegate.uploadFile(file, fileName));
+    }
+    
+    @Override
+    public String uploadFile(MultipartFile file, String fileName) {
+        String objectName = StringUtils.hasText(fileName) ? fileName : generateFileName(file.getOriginalFilename());
+        return execute(true, () -> delegate.uploadFile(file, objectName));
+    }
+    
+    @Override
+    public String uploadFile(MultipartFile file, String fileName, String path) {
+        String objectName = StringUtils.hasText(fileName) ? fileName : generateFileName(file.getOriginalFilename());
+        return execute(true, () -> delegate.uploadFile(file, objectName, path));
+    }
+    
+    @Override
+    public String uploadFile(File file) {
+        String fileName = generateFileName(file.getName());
+        return execute(true, () -> delegate.uploadFile(file, fileName));
+    }
+    
+    @Override
+    public String uploadFile(File file, String fileName) {
+        String objectName = StringUtils.hasText(fileName) ? fileName : generateFileName(file.getName());
+        return execute(true, () -> delegate.uploadFile(file, objectName));
+    }
+    
+    @Override
+    public String uploadFile(InputStream inputStream, String fileName) {
+        return execute(false, () -> delegate.uploadFile(inputStream, fileName));
+    }
+    
+    @Override
+    public String uploadStream(InputStream inputStream, long contentLength, UploadOptions options) {
+        return execute(false, () -> delegate.uploadStream(inputStream, contentLength, options));
+    }
+    
+    @Override
+    public byte[] downloadFile(String fileUrl) {
+        return execute(true, () -> delegate.downloadFile(fileUrl));
+    }
+    
+    @Override
+    public InputStream openStream(String fileUrl) {
+        return execute(true, () -> delegate.openStream(fileUrl));
+    }
+    
+    @Override
+    public long downloadTo(String fileUrl, OutputStream outputStream) {
+        return execute(false, () -> delegate.downloadTo(fileUrl, outputStream));
+    }
+    
+    @Override
+    public long downloadTo(String fileUrl, Path targetPath) {
+        return execute(true, () -> delegate.downloadTo(fileUrl, targetPath));
+    }
+    
+    @Override
+    public InputStream downloadRange(String fileUrl, long offset, long length) {
+        return execute(true, () -> delegate.downloadRange(fileUrl, offset, length));
+    }
+    
+    @Override
+    public FileMetadata stat(String fileUrl) {
+        return execute(true, () -> delegate.stat(fileUrl));
+    }
+    
+    @Override
+    public Map<String, FileMetadata> stat(Collection<String> fileUrls) {
+        return execute(true, () -> delegate.stat(fileUrls));
+    }
+    
+    @Override
+    public Stream<FileMetadata> list(String prefix) {
+        return execute(true, () -> delegate.list(prefix));
+    }
+    
+    @Override
+    public boolean deleteFile(String fileUrl) {
+        return execute(true, () -> delegate.deleteFile(fileUrl));
+    }
+    
+    @Override
+    public List<String> deleteFiles(Collection<String> fileUrls) {
+        return execute(true, () -> delegate.deleteFiles(fileUrls));
+    }
+    
+    @Override
+    public String getObjectName(String fileUrl) {
+        return delegate.getObjectName(fileUrl);
+    }
+    
+    @Override
+    public String getFileUrl(String fileUrl, Long expireTime) {
+        return execute(true, () -> delegate.getFileUrl(fileUrl, expireTime));
+    }
+    
+    /**
+     * 获取熔断器
+     * @return 熔断器
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+    
+    /**
+     * 在熔断器保护下执行操作
+     * 暂时性故障计入熔断器失败率，永久性错误说明后端可以正常响应，按成功计入
+     * @param idempotent 是否可以重试
+     * @param call 操作
+     * @param <T> 结果类型
+     * @return 操作结果
+     */
+    private <T> T execute(boolean idempotent, Supplier<T> call) {
+        for (int attempt = 0; ; attempt++) {
+            circuitBreaker.acquirePermission();
+            try {
+                T result = call.get();
+                circuitBreaker.onSuccess();
+                return result;
+            } catch (RuntimeException e) {
+                boolean transientFailure = StorageErrors.isTransient(e);
+                if (transientFailure) {
+                    circuitBreaker.onFailure();
+                } else {
+                    circuitBreaker.onSuccess();
+                }
+                if (!idempotent || !transientFailure || attempt + 1 >= maxAttempts) {
+                    throw e;
+                }
+                try {
+                    backoff.await(attempt);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    e.addSuppressed(ie);
+                    throw e;
+                }
+            }
+        }
+    }
+    
+    /**
+     * 生成文件名，与各存储实现的生成规则一致
+     */
+    private String generateFileName(String originalFilename) {
+        String uuid = UUID.randomUUID().toString().replaceAll("-", "");
+        String extension = "";
+        if (StringUtils.hasText(originalFilename) && originalFilename.contains(".")) {
+            extension = originalFilename.substring(originalFilename.lastIndexOf("."));
+        }
+        return uuid + extension;
+    }
+}
\ No newline at end of file
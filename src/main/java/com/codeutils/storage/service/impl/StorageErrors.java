@@ -0,0 +1,108 @@
+package com.codeutils.storage.service.impl;
+
+import com.codeutils.storage.resilience.CircuitBreakerOpenException;
+import org.springframework.util.StringUtils;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.NoSuchFileException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 存储异常解析工具
+ * OSS、COS的异常提供getErrorCode，MinIO的异常提供errorResponse().code()；
+ * 各SDK均为可选依赖，因此通过反射读取
+ */
+final class StorageErrors {
+    
+    /**
+     * 查找错误码时沿异常链向上的最大层数
+     */
+    private static final int MAX_CAUSE_DEPTH = 10;
+    
+    /**
+     * 重试也不会成功的错误码：对象或桶不存在、鉴权失败、请求参数错误
+     */
+    private static final Set<String> PERMANENT_ERROR_CODES = new HashSet<>(Arrays.asList(
+        "NoSuchKey", "NoSuchBucket", "NoSuchUpload", "AccessDenied", "InvalidAccessKeyId",
+        "SignatureDoesNotMatch", "InvalidArgument", "InvalidBucketName", "InvalidObjectName",
+        "EntityTooLarge", "EntityTooSmall", "InvalidPart", "InvalidPartOrder", "MethodNotAllowed"));
+    
+    private StorageErrors() {
+    }
+    
+    /**
+     * 从异常链中提取存储服务返回的错误码，找不到时使用根异常的类名
+     * @param e 异常
+     * @return 错误码
+     */
+    static String errorCode(Throwable e) {
+        String code = providerErrorCode(e);
+        if (code != null) {
+            return code;
+        }
+        Throwable root = e;
+        for (int depth = 0; root.getCause() != null && depth < MAX_CAUSE_DEPTH; depth++) {
+            root = root.getCause();
+        }
+        return root.getClass().getSimpleName();
+    }
+    
+    /**
+     * 判断异常是否为暂时性故障（网络异常、限流、服务端错误），暂时性故障可以重试并计入熔断
+     * 对象不存在、鉴权失败、参数错误等永久性错误以及本地文件缺失不算暂时性故障
+     * @param e 异常
+     * @return 是否为暂时性故障
+     */
+    static boolean isTransient(Throwable e) {
+        String code = providerErrorCode(e);
+        if (code != null) {
+            return !PERMANENT_ERROR_CODES.contains(code);
+        }
+        Throwable current = e;
+        for (int depth = 0; current != null && depth < MAX_CAUSE_DEPTH; depth++) {
+            if (current instanceof CircuitBreakerOpenException || current instanceof InterruptedException
+                || current instanceof FileNotFoundException || current instanceof NoSuchFileException) {
+                return false;
+            }
+            if (current instanceof IOException) {
+                return true;
+            }
+            current = current.getCause();
+        }
+        return false;
+    }
+    
+    private static String providerErrorCode(Throwable e) {
+        Throwable current = e;
+        for (int depth = 0; current != null && depth < MAX_CAUSE_DEPTH; depth++) {
+            String code = invokeString(current, "getErrorCode");
+            if (code == null) {
+                Object response = invoke(current, "errorResponse");
+                code = response == null ? null : invokeString(response, "code");
+            }
+            if (code != null) {
+                return code;
+            }
+            current = current.getCause();
+        }
+        return null;
+    }
+    
+    private static String invokeString(Object target, String methodName) {
+        Object value = invoke(target, methodName);
+        return value instanceof String && StringUtils.hasText((String) value) ? (String) value : null;
+    }
+    
+    private static Object invoke(Object target, String methodName) {
+        try {
+            Method method = target.getClass().getMethod(methodName);
+            return method.invoke(target);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
\ No newline at end of file
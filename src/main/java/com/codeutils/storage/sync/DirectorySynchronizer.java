@@ -0,0 +1,284 @@
+package com.codeutils.storage.sync;
+
+import com.codeutils.common.utils.EncryptUtils;
+import com.codeutils.common.utils.FileUtils;
+import com.codeutils.storage.config.StorageProperties;
+import com.codeutils.storage.model.FileMetadata;
+import com.codeutils.storage.model.SyncResult;
+import com.codeutils.storage.multipart.TransferThreadFactory;
+import com.codeutils.storage.service.StorageService;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * 目录同步器
+ * 将本地目录单向同步到远端前缀：先列举远端对象得到清单，再与本地文件逐个比较，只上传新增或变化的文件；
+ * 大小不同即视为变化，大小相同时优先比较内容MD5与远端ETag，ETag不是内容MD5（如分片上传的对象）时比较修改时间。
+ * 比较和上传在有界线程池中并发进行，同时进行的文件数不超过并发数；单个文件失败不影响其余文件，失败记录在结果中
+ */
+public class DirectorySynchronizer {
+    
+    private static final int DIGEST_BUFFER_SIZE = 64 * 1024;
+    
+    /**
+     * 单次上传对象的ETag为内容的MD5，分片上传的ETag带有 "-分片数" 后缀
+     */
+    private static final Pattern MD5_ETAG = Pattern.compile("[0-9a-f]{32}");
+    
+    private final StorageService storageService;
+    private final int concurrency;
+    private final boolean checksum;
+    private final boolean deleteOrphans;
+    private final ExecutorService syncExecutor;
+    
+    public DirectorySynchronizer(StorageService storageService, StorageProperties.SyncProperties syncProperties) {
+        this.storageService = storageService;
+        this.concurrency = Math.max(syncProperties.getConcurrency(), 1);
+        this.checksum = syncProperties.isChecksum();
+        this.deleteOrphans = syncProperties.isDeleteOrphans();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            concurrency, concurrency, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+            new TransferThreadFactory("sync")
+        );
+        executor.allowCoreThreadTimeOut(true);
+        this.syncExecutor = executor;
+    }
+    
+    /**
+     * 同步本地目录到远端前缀，是否删除远端多余对象由配置决定
+     * @param localDir 本地目录
+     * @param remotePrefix 远端前缀，如 static/
+     * @return 同步结果
+     */
+    public SyncResult sync(Path localDir, String remotePrefix) {
+        return sync(localDir, remotePrefix, deleteOrphans);
+    }
+    
+    /**
+     * 同步本地目录到远端前缀
+     * 本地文件以相对路径拼接到前缀后作为对象名称
+     * @param localDir 本地目录
+     * @param remotePrefix 远端前缀，如 static/；为空时同步到根目录，此时删除多余对象会作用于整个存储桶
+     * @param deleteOrphans 是否删除前缀下本地已不存在的远端对象
+     * @return 同步结果
+     */
+    public SyncResult sync(Path localDir, String remotePrefix, boolean deleteOrphans) {
+        // 目录不存在时本地清单为空，删除多余对象会清空远端前缀，因此直接拒绝
+        if (!Files.isDirectory(localDir)) {
+            throw new IllegalArgumentException("本地目录不存在: " + localDir);
+        }
+        String prefix = normalizePrefix(remotePrefix);
+        
+        Map<String, FileMetadata> remoteManifest = new HashMap<>();
+        try (Stream<FileMetadata> objects = storageService.list(prefix)) {
+            objects.forEach(metadata -> remoteManifest.put(metadata.getObjectName(), metadata));
+        }
+        
+        Path root = localDir.toAbsolutePath();
+        Map<String, File> localManifest = new LinkedHashMap<>();
+        for (File file : FileUtils.listFiles(root.toString(), true)) {
+            localManifest.put(prefix + toObjectPath(root.relativize(file.toPath().toAbsolutePath())), file);
+        }
+        
+        List<String> uploaded = Collections.synchronizedList(new ArrayList<>());
+        Map<String, Exception> failed = new ConcurrentHashMap<>();
+        AtomicInteger skipped = new AtomicInteger();
+        transfer(localManifest, remoteManifest, uploaded, skipped, failed);
+        
+        List<String> deleted = new ArrayList<>();
+        if (deleteOrphans) {
+            List<String> orphans = new ArrayList<>();
+            for (String objectName : remoteManifest.keySet()) {
+                if (!localManifest.containsKey(objectName)) {
+                    orphans.add(objectName);
+                }
+            }
+            deleteOrphans(orphans, deleted, failed);
+        }
+        
+        List<String> uploadedNames = new ArrayList<>(uploaded);
+        Collections.sort(uploadedNames);
+        Collections.sort(deleted);
+        return SyncResult.builder()
+            .uploaded(uploadedNames)
+            .skipped(skipped.get())
+            .deleted(deleted)
+            .failed(new HashMap<>(failed))
+            .build();
+    }
+    
+    /**
+     * 关闭同步线程池
+     */
+    public void shutdown() {
+        syncExecutor.shutdownNow();
+    }
+    
+    /**
+     * 并发比较并上传变化的文件，同时进行的文件数不超过并发数，完成一个再提交下一个
+     */
+    private void transfer(Map<String, File> localManifest, Map<String, FileMetadata> remoteManifest,
+                          List<String> uploaded, AtomicInteger skipped, Map<String, Exception> failed) {
+        CompletionService<Void> completionService = new ExecutorCompletionService<>(syncExecutor);
+        List<Future<Void>> futures = new ArrayList<>();
+        Iterator<Map.Entry<String, File>> pending = localManifest.entrySet().iterator();
+        int running = 0;
+        try {
+            while (running < concurrency && pending.hasNext()) {
+                futures.add(submit(completionService, pending.next(), remoteManifest, uploaded, skipped, failed));
+                running++;
+            }
+            while (running > 0) {
+                completionService.take();
+                running--;
+                if (pending.hasNext()) {
+                    futures.add(submit(completionService, pending.next(), remoteManifest, uploaded, skipped, failed));
+                    running++;
+                }
+            }
+        } catch (InterruptedException e) {
+            for (Future<Void> future : futures) {
+                future.cancel(true);
+            }
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("目录同步被中断", e);
+        }
+    }
+    
+    private Future<Void> submit(CompletionService<Void> completionService, Map.Entry<String, File> entry,
+                                Map<String, FileMetadata> remoteManifest, List<String> uploaded,
+                                AtomicInteger skipped, Map<String, Exception> failed) {
+        String objectName = entry.getKey();
+        File file = entry.getValue();
+        return completionService.submit(() -> {
+            try {
+                if (isChanged(file, remoteManifest.get(objectName))) {
+                    storageService.uploadFile(file, objectName);
+                    uploaded.add(objectName);
+                } else {
+                    skipped.incrementAndGet();
+                }
+            } catch (Exception e) {
+                failed.put(objectName, e);
+            }
+            return null;
+        });
+    }
+    
+    /**
+     * 判断本地文件相对远端对象是否发生变化
+     */
+    private boolean isChanged(File file, FileMetadata remote) throws IOException {
+        if (remote == null || remote.getSize() != file.length()) {
+            return true;
+        }
+        String etag = normalizeEtag(remote.getEtag());
+        if (checksum && etag != null && MD5_ETAG.matcher(etag).matches()) {
+            return !etag.equals(md5Hex(file.toPath()));
+        }
+        return remote.getLastModified() == null || file.lastModified() > remote.getLastModified().getTime();
+    }
+    
+    /**
+     * 批量删除远端多余对象，删除失败的对象记录在失败结果中
+     */
+    private void deleteOrphans(List<String> orphans, List<String> deleted, Map<String, Exception> failed) {
+        if (orphans.isEmpty()) {
+            return;
+        }
+        try {
+            Set<String> failedDeletes = new HashSet<>(storageService.deleteFiles(orphans));
+            for (String objectName : orphans) {
+                if (failedDeletes.contains(objectName)) {
+                    failed.put(objectName, new RuntimeException("删除远端对象失败: " + objectName));
+                } else {
+                    deleted.add(objectName);
+                }
+            }
+        } catch (RuntimeException e) {
+            for (String objectName : orphans) {
+                failed.put(objectName, e);
+            }
+        }
+    }
+    
+    private String md5Hex(Path path) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("MD5计算失败", e);
+        }
+        byte[] buffer = new byte[DIGEST_BUFFER_SIZE];
+        try (InputStream inputStream = Files.newInputStream(path)) {
+            int read;
+            while ((read = inputStream.read(buffer)) >= 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return EncryptUtils.bytesToHex(digest.digest());
+    }
+    
+    /**
+     * 去掉ETag两端的引号并转为小写，OSS返回大写的ETag
+     */
+    private String normalizeEtag(String etag) {
+        if (etag == null) {
+            return null;
+        }
+        String normalized = etag.trim();
+        if (normalized.length() >= 2 && normalized.startsWith("\"") && normalized.endsWith("\"")) {
+            normalized = normalized.substring(1, normalized.length() - 1);
+        }
+        return normalized.toLowerCase(Locale.ROOT);
+    }
+    
+    private String normalizePrefix(String remotePrefix) {
+        if (remotePrefix == null) {
+            return "";
+        }
+        String prefix = remotePrefix.replace('\\', '/');
+        while (prefix.startsWith("/")) {
+            prefix = prefix.substring(1);
+        }
+        return prefix.isEmpty() || prefix.endsWith("/") ? prefix : prefix + "/";
+    }
+    
+    private String toObjectPath(Path relativePath) {
+        StringBuilder sb = new StringBuilder();
+        for (Path part : relativePath) {
+            if (sb.length() > 0) {
+                sb.append('/');
+            }
+            sb.append(part.toString());
+        }
+        return sb.toString();
+    }
+}
\ No newline at end of file